@@ -326,6 +326,9 @@ public class EndpointsProperties {
         private int maximumLocations;
         private boolean allowComputeArea = true;
         private int maximumIntervals = 1;
+        private int travellerThreads = 1;
+        private int travellerThreadsPerRequest = 4;
+        private int intervalThreads = 1;
         private MaximumRangeProperties fastisochrones;
         private Map<String, StatisticsProviderProperties> statisticsProviders = new HashMap<>();
 
@@ -369,6 +372,30 @@ public class EndpointsProperties {
             this.maximumIntervals = maximumIntervals;
         }
 
+        public int getTravellerThreads() {
+            return travellerThreads;
+        }
+
+        public void setTravellerThreads(int travellerThreads) {
+            this.travellerThreads = travellerThreads;
+        }
+
+        public int getTravellerThreadsPerRequest() {
+            return travellerThreadsPerRequest;
+        }
+
+        public void setTravellerThreadsPerRequest(int travellerThreadsPerRequest) {
+            this.travellerThreadsPerRequest = travellerThreadsPerRequest;
+        }
+
+        public int getIntervalThreads() {
+            return intervalThreads;
+        }
+
+        public void setIntervalThreads(int intervalThreads) {
+            this.intervalThreads = intervalThreads;
+        }
+
         public MaximumRangeProperties getFastisochrones() {
             return fastisochrones;
         }
@@ -18,7 +18,9 @@ import java.util.Map;
 @ConfigurationProperties(prefix = "ors.engine")
 public class EngineProperties {
     private int initThreads;
+    private int routeSegmentThreads = 1;
     private boolean preparationMode;
+    private boolean sharedOsmImport;
     private String sourceFile;
     private String graphsRootPath;
     private ElevationProperties elevation;
@@ -33,6 +35,14 @@ public class EngineProperties {
         this.initThreads = initThreads;
     }
 
+    public int getRouteSegmentThreads() {
+        return routeSegmentThreads;
+    }
+
+    public void setRouteSegmentThreads(int routeSegmentThreads) {
+        this.routeSegmentThreads = routeSegmentThreads;
+    }
+
     public boolean isPreparationMode() {
         return preparationMode;
     }
@@ -41,6 +51,14 @@ public class EngineProperties {
         this.preparationMode = preparationMode;
     }
 
+    public boolean isSharedOsmImport() {
+        return sharedOsmImport;
+    }
+
+    public void setSharedOsmImport(boolean sharedOsmImport) {
+        this.sharedOsmImport = sharedOsmImport;
+    }
+
     public String getSourceFile() {
         return sourceFile;
     }
@@ -116,6 +134,14 @@ public class EngineProperties {
                 convertedProfile.setEnforceTurnCosts(profile.forceTurnCosts != null ? profile.forceTurnCosts : profileDefault.getForceTurnCosts());
                 convertedProfile.setGtfsFile(profile.gtfsFile != null ? profile.gtfsFile : profile.getGtfsFile());
                 convertedProfile.setMaximumVisitedNodesPT(profile.maximumVisitedNodes != null ? profile.maximumVisitedNodes : profileDefault.getMaximumVisitedNodes());
+                convertedProfile.setSearchWorkspacePoolSize(profile.searchWorkspacePoolSize != null ? profile.searchWorkspacePoolSize : profileDefault.getSearchWorkspacePoolSize());
+                convertedProfile.setSearchWorkspacePoolTimeout(profile.searchWorkspacePoolTimeout != null ? profile.searchWorkspacePoolTimeout : profileDefault.getSearchWorkspacePoolTimeout());
+                convertedProfile.setSnappingCacheSize(profile.snappingCacheSize != null ? profile.snappingCacheSize : profileDefault.getSnappingCacheSize());
+                convertedProfile.setSnappingCacheTtl(profile.snappingCacheTtl != null ? profile.snappingCacheTtl : profileDefault.getSnappingCacheTtl());
+                convertedProfile.setSnappingThreads(profile.snappingThreads != null ? profile.snappingThreads : profileDefault.getSnappingThreads());
+                convertedProfile.setMatrixThreads(profile.matrixThreads != null ? profile.matrixThreads : profileDefault.getMatrixThreads());
+                convertedProfile.setMatrixBucketAlgorithm(profile.matrixBucketAlgorithm != null ? profile.matrixBucketAlgorithm : profileDefault.getMatrixBucketAlgorithm());
+                convertedProfile.setGraphDataAccess(profile.graphDataAccess != null ? profile.graphDataAccess : profileDefault.getGraphDataAccess());
                 if (profile.elevation != null && profile.elevation || profileDefault.isElevation()) {
                     convertedProfile.setElevationProvider(elevation.getProvider());
                     convertedProfile.setElevationCachePath(elevation.getCachePath());
@@ -227,6 +253,14 @@ public class EngineProperties {
         private Integer locationIndexSearchIterations = 4;
         private Boolean forceTurnCosts;
         private String gtfsFile;
+        private Integer searchWorkspacePoolSize = 4;
+        private Long searchWorkspacePoolTimeout = 50L;
+        private Integer snappingCacheSize = 10000;
+        private Long snappingCacheTtl = 3600L;
+        private Integer snappingThreads = 1;
+        private Integer matrixThreads = 1;
+        private Boolean matrixBucketAlgorithm = false;
+        private String graphDataAccess = "RAM_STORE";
 
         public String getProfile() {
             return profile;
@@ -474,6 +508,70 @@ public class EngineProperties {
             this.gtfsFile = gtfsFile;
         }
 
+        public int getSearchWorkspacePoolSize() {
+            return searchWorkspacePoolSize != null ? searchWorkspacePoolSize : 0;
+        }
+
+        public void setSearchWorkspacePoolSize(Integer searchWorkspacePoolSize) {
+            this.searchWorkspacePoolSize = searchWorkspacePoolSize;
+        }
+
+        public long getSearchWorkspacePoolTimeout() {
+            return searchWorkspacePoolTimeout != null ? searchWorkspacePoolTimeout : 0;
+        }
+
+        public void setSearchWorkspacePoolTimeout(Long searchWorkspacePoolTimeout) {
+            this.searchWorkspacePoolTimeout = searchWorkspacePoolTimeout;
+        }
+
+        public int getSnappingCacheSize() {
+            return snappingCacheSize != null ? snappingCacheSize : 0;
+        }
+
+        public void setSnappingCacheSize(Integer snappingCacheSize) {
+            this.snappingCacheSize = snappingCacheSize;
+        }
+
+        public long getSnappingCacheTtl() {
+            return snappingCacheTtl != null ? snappingCacheTtl : 0;
+        }
+
+        public void setSnappingCacheTtl(Long snappingCacheTtl) {
+            this.snappingCacheTtl = snappingCacheTtl;
+        }
+
+        public int getSnappingThreads() {
+            return snappingThreads != null ? snappingThreads : 1;
+        }
+
+        public void setSnappingThreads(Integer snappingThreads) {
+            this.snappingThreads = snappingThreads;
+        }
+
+        public int getMatrixThreads() {
+            return matrixThreads != null ? matrixThreads : 1;
+        }
+
+        public void setMatrixThreads(Integer matrixThreads) {
+            this.matrixThreads = matrixThreads;
+        }
+
+        public boolean getMatrixBucketAlgorithm() {
+            return matrixBucketAlgorithm != null && matrixBucketAlgorithm;
+        }
+
+        public void setMatrixBucketAlgorithm(Boolean matrixBucketAlgorithm) {
+            this.matrixBucketAlgorithm = matrixBucketAlgorithm;
+        }
+
+        public String getGraphDataAccess() {
+            return graphDataAccess != null ? graphDataAccess : "RAM_STORE";
+        }
+
+        public void setGraphDataAccess(String graphDataAccess) {
+            this.graphDataAccess = graphDataAccess;
+        }
+
 //        For later use when refactoring RoutingManagerConfiguration
 //        public static class PreparationProperties {
 //            private int minNetworkSize;
@@ -31,6 +31,7 @@ import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.SystemMessageProperties;
 import org.heigit.ors.api.errors.CommonResponseEntityExceptionHandler;
 import org.heigit.ors.api.requests.matrix.MatrixRequest;
+import org.heigit.ors.api.responses.matrix.binary.BinaryMatrixResponse;
 import org.heigit.ors.api.responses.matrix.json.JSONMatrixResponse;
 import org.heigit.ors.api.services.MatrixService;
 import org.heigit.ors.api.util.AppConfigMigration;
@@ -45,6 +46,8 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "Matrix Service", description = "Obtain one-to-many, many-to-one and many-to-many matrices for time and distance")
 @RequestMapping("/v2/matrix")
@@ -133,6 +136,37 @@ public class MatrixAPI {
         return new JSONMatrixResponse(matrixResult, originalRequest, systemMessageProperties, endpointsProperties);
     }
 
+    @PostMapping(value = "/{profile}/binary", produces = {BinaryMatrixResponse.CONTENT_TYPE})
+    @Operation(
+            description = """
+                    Returns duration or distance matrix for multiple source and destination points as little-endian binary data.
+                    The response starts with a 20 byte header consisting of the magic bytes `ORSM` followed by the int32 values format version, number of sources, number of destinations and the bitmask of the contained metrics (1 = duration, 2 = distance). \
+                    It is followed by one table per metric in the order of the bitmask, each consisting of a row of float32 values per source. Unreachable destinations are encoded as NaN.\
+                    """,
+            summary = "Get a matrix calculation from the specified profile as binary data"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Standard response for successfully processed requests. Returns binary data.",
+            content = {@Content(
+                    mediaType = BinaryMatrixResponse.CONTENT_TYPE,
+                    schema = @Schema(type = "string", format = "binary")
+            )
+            })
+    public void getBinaryMime(
+            @Parameter(description = "Specifies the matrix profile.", required = true, example = "driving-car") @PathVariable APIEnums.Profile profile,
+            @Parameter(description = "The request payload", required = true) @RequestBody MatrixRequest originalRequest,
+            HttpServletResponse response) throws StatusCodeException, IOException {
+        originalRequest.setProfile(profile);
+        originalRequest.setResponseType(APIEnums.MatrixResponseType.BINARY);
+        MatrixResult matrixResult = matrixService.generateMatrixFromRequest(originalRequest);
+
+        BinaryMatrixResponse binaryResponse = new BinaryMatrixResponse(matrixResult);
+        response.setContentType(BinaryMatrixResponse.CONTENT_TYPE);
+        response.setContentLengthLong(binaryResponse.getContentLength());
+        binaryResponse.write(response.getOutputStream());
+    }
+
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<Object> handleMissingParams(final MissingServletRequestParameterException e) {
         return errorHandler.handleStatusCodeException(new MissingParameterException(MatrixErrorCodes.MISSING_PARAMETER, e.getParameterName()));
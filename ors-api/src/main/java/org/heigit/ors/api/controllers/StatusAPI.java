@@ -22,9 +22,11 @@ import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.util.AppConfigMigration;
 import org.heigit.ors.api.util.AppInfo;
 import org.heigit.ors.localization.LocalizationManager;
+import org.heigit.ors.matrix.SnappingCache;
 import org.heigit.ors.routing.RoutingProfile;
 import org.heigit.ors.routing.RoutingProfileManager;
 import org.heigit.ors.routing.RoutingProfileManagerStatus;
+import org.heigit.ors.routing.algorithms.SearchWorkspacePool;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -104,6 +106,26 @@ public class StatusAPI {
                     if (jProfileLimits.length() > 0)
                         jProfileProps.put("limits", jProfileLimits);
 
+                    SearchWorkspacePool workspacePool = rp.getSearchWorkspacePool();
+                    if (workspacePool != null) {
+                        org.json.JSONObject jWorkspacePool = new org.json.JSONObject(true);
+                        jWorkspacePool.put("size", workspacePool.getMaxSize());
+                        jWorkspacePool.put("hits", workspacePool.getHits());
+                        jWorkspacePool.put("misses", workspacePool.getMisses());
+                        jWorkspacePool.put("wait_time", workspacePool.getWaitTime());
+                        jProfileProps.put("search_workspace_pool", jWorkspacePool);
+                    }
+
+                    SnappingCache snappingCache = rp.getSnappingCache();
+                    if (snappingCache != null) {
+                        org.json.JSONObject jSnappingCache = new org.json.JSONObject(true);
+                        jSnappingCache.put("size", snappingCache.getSize());
+                        jSnappingCache.put("max_size", snappingCache.getMaxSize());
+                        jSnappingCache.put("hits", snappingCache.getHits());
+                        jSnappingCache.put("misses", snappingCache.getMisses());
+                        jProfileProps.put("snapping_cache", jSnappingCache);
+                    }
+
                     jProfiles.put("profile " + i, jProfileProps);
 
                     i++;
@@ -28,6 +28,7 @@ import org.heigit.ors.exceptions.ParameterValueException;
 import org.heigit.ors.isochrones.IsochroneMapCollection;
 import org.heigit.ors.isochrones.IsochroneRequest;
 import org.heigit.ors.isochrones.IsochronesErrorCodes;
+import org.heigit.ors.isochrones.IsochronesIntersection;
 import org.heigit.ors.routing.APIEnums;
 import org.heigit.ors.routing.RoutingProfileType;
 
@@ -178,6 +179,8 @@ public class IsochronesRequest extends APIRequest {
     @JsonIgnore
     private IsochroneMapCollection isoMaps;
     @JsonIgnore
+    private List<IsochronesIntersection> isoIntersections;
+    @JsonIgnore
     private IsochroneRequest isochroneRequest;
 
     @JsonCreator
@@ -372,6 +375,14 @@ public class IsochronesRequest extends APIRequest {
         this.isoMaps = isoMaps;
     }
 
+    public List<IsochronesIntersection> getIsoIntersections() {
+        return isoIntersections;
+    }
+
+    public void setIsoIntersections(List<IsochronesIntersection> isoIntersections) {
+        this.isoIntersections = isoIntersections;
+    }
+
     public IsochroneRequest getIsochroneRequest() {
         return isochroneRequest;
     }
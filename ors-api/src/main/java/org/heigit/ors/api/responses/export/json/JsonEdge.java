@@ -3,9 +3,6 @@ package org.heigit.ors.api.responses.export.json;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
-import org.heigit.ors.common.Pair;
-
-import java.util.Map;
 
 public class JsonEdge {
     @Schema(description = "Id of the start point of the edge", example = "1")
@@ -24,9 +21,9 @@ public class JsonEdge {
     @JsonFormat(shape = JsonFormat.Shape.NUMBER_FLOAT)
     protected Double weight;
 
-    JsonEdge(Map.Entry<Pair<Integer, Integer>, Double> weightedEdge) {
-        this.fromId = weightedEdge.getKey().first;
-        this.toId = weightedEdge.getKey().second;
-        this.weight = weightedEdge.getValue();
+    JsonEdge(int fromId, int toId, double weight) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.weight = weight;
     }
 }
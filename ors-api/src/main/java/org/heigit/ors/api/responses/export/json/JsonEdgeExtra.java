@@ -3,7 +3,6 @@ package org.heigit.ors.api.responses.export.json;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
-import org.heigit.ors.common.Pair;
 
 import java.util.Map;
 
@@ -20,9 +19,9 @@ public class JsonEdgeExtra {
     @JsonFormat()
     protected Object extra;
 
-    JsonEdgeExtra(Map.Entry<Pair<Integer, Integer>, Map<String, Object>> edge) {
-        this.nodeId = edge.getKey().first.toString() + "->" + edge.getKey().second.toString();
-        this.extra = edge.getValue();
+    JsonEdgeExtra(int fromId, int toId, Map<String, Object> extra) {
+        this.nodeId = fromId + "->" + toId;
+        this.extra = extra;
     }
 }
 
@@ -5,14 +5,12 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.heigit.ors.api.responses.export.ExportResponse;
 import org.heigit.ors.api.responses.routing.json.JSONWarning;
-import org.heigit.ors.common.Pair;
 import org.heigit.ors.export.ExportResult;
 import org.heigit.ors.export.ExportWarning;
-import org.locationtech.jts.geom.Coordinate;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.IntFunction;
 
 @Schema(description = "The Export Response contains nodes and edge weights from the requested BBox")
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -39,23 +37,18 @@ public class JsonExportResponse extends ExportResponse {
     public JsonExportResponse(ExportResult exportResult) {
         super(exportResult);
 
-        nodes = new ArrayList<>();
-        for (Map.Entry<Integer, Coordinate> location : exportResult.getLocations().entrySet()) {
-            nodes.add(new JsonNode(location));
-        }
-        nodesCount = nodes.stream().count();
+        // the elements are created on access while the response is serialized instead of being materialized up front
+        nodes = new LazyList<>(exportResult.getLocationCount(),
+                i -> new JsonNode(exportResult.getLocationNode(i), exportResult.getLocation(i)));
+        nodesCount = (long) nodes.size();
 
-        edges = new ArrayList<>();
-        for (Map.Entry<Pair<Integer, Integer>, Double> edgeWeight : exportResult.getEdgeWeigths().entrySet()) {
-            edges.add(new JsonEdge(edgeWeight));
-        }
-        edgesCount = edges.stream().count();
+        edges = new LazyList<>(exportResult.getEdgeCount(),
+                i -> new JsonEdge(exportResult.getEdgeFrom(i), exportResult.getEdgeTo(i), exportResult.getEdgeWeight(i)));
+        edgesCount = (long) edges.size();
 
         if (exportResult.hasEdgeExtras()) {
-            edgesExtra = new ArrayList<>();
-            for (Map.Entry<Pair<Integer, Integer>, Map<String, Object>> edge : exportResult.getEdgeExtras().entrySet()) {
-                edgesExtra.add(new JsonEdgeExtra(edge));
-            }
+            edgesExtra = new LazyList<>(exportResult.getEdgeCount(),
+                    i -> new JsonEdgeExtra(exportResult.getEdgeFrom(i), exportResult.getEdgeTo(i), exportResult.getEdgeExtra(i)));
         }
 
         if (exportResult.hasWarning()) {
@@ -63,4 +56,24 @@ public class JsonExportResponse extends ExportResponse {
             this.warning = new JSONWarning(warning.getWarningCode(), warning.getWarningMessage());
         }
     }
+
+    private static class LazyList<T> extends AbstractList<T> {
+        private final int size;
+        private final IntFunction<T> factory;
+
+        LazyList(int size, IntFunction<T> factory) {
+            this.size = size;
+            this.factory = factory;
+        }
+
+        @Override
+        public T get(int index) {
+            return factory.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
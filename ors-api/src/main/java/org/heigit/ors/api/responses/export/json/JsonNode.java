@@ -6,8 +6,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.heigit.ors.util.FormatUtility;
 import org.locationtech.jts.geom.Coordinate;
 
-import java.util.Map;
-
 public class JsonNode {
     protected static final int COORDINATE_DECIMAL_PLACES = 6;
 
@@ -22,9 +20,9 @@ public class JsonNode {
     @JsonFormat(shape = JsonFormat.Shape.ARRAY)
     protected Coordinate location;
 
-    JsonNode(Map.Entry<Integer, Coordinate> location) {
-        this.nodeId = location.getKey();
-        this.location = location.getValue();
+    JsonNode(int nodeId, Coordinate location) {
+        this.nodeId = nodeId;
+        this.location = location;
     }
 
     public Double[] getLocation() {
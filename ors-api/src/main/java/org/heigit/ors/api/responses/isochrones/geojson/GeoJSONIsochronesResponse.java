@@ -57,7 +57,9 @@ public class GeoJSONIsochronesResponse extends IsochronesResponse {
         }
 
         if (request.hasIntersections() && request.getIntersections()) {
-            List<IsochronesIntersection> isoIntersections = IsochroneUtility.computeIntersections(isoMaps);
+            List<IsochronesIntersection> isoIntersections = request.getIsoIntersections();
+            if (isoIntersections == null)
+                isoIntersections = IsochroneUtility.computeIntersections(isoMaps);
             if (isoIntersections != null && !isoIntersections.isEmpty()) {
                 for (IsochronesIntersection isoIntersection : isoIntersections) {
                     this.isochroneResults.add(new GeoJSONIsochronesIntersection(isoIntersection, request));
@@ -0,0 +1,89 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.responses.matrix.binary;
+
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a matrix result as little-endian binary data so that clients can read the tables without parsing JSON.
+ * <p>
+ * The response starts with a header of five 4 byte fields: the magic bytes {@code ORSM}, the format version, the
+ * number of sources, the number of destinations and the bitmask of the contained metrics (1 = duration,
+ * 2 = distance). It is followed by one table per metric in the order of the bitmask, each consisting of a row of
+ * float32 values per source. Unreachable destinations are encoded as NaN; values are not rounded.
+ */
+public class BinaryMatrixResponse {
+    public static final String CONTENT_TYPE = "application/octet-stream";
+    public static final int VERSION = 1;
+    static final byte[] MAGIC = "ORSM".getBytes(StandardCharsets.US_ASCII);
+    static final int HEADER_SIZE = 20;
+    private static final int[] METRICS = {MatrixMetricsType.DURATION, MatrixMetricsType.DISTANCE};
+
+    private final MatrixResult matrixResult;
+
+    public BinaryMatrixResponse(MatrixResult result) {
+        this.matrixResult = result;
+    }
+
+    public int getMetrics() {
+        int metrics = 0;
+        for (int metric : METRICS) {
+            if (matrixResult.getTable(metric) != null)
+                metrics |= metric;
+        }
+        return metrics;
+    }
+
+    public long getContentLength() {
+        long tableSize = 4L * matrixResult.getSources().length * matrixResult.getDestinations().length;
+        return HEADER_SIZE + Integer.bitCount(getMetrics()) * tableSize;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        int sourceCount = matrixResult.getSources().length;
+        int destinationCount = matrixResult.getDestinations().length;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putInt(VERSION).putInt(sourceCount).putInt(destinationCount).putInt(getMetrics());
+        out.write(header.array());
+
+        ByteBuffer row = ByteBuffer.allocate(4 * destinationCount).order(ByteOrder.LITTLE_ENDIAN);
+        FloatBuffer rowValues = row.asFloatBuffer();
+        for (int metric : METRICS) {
+            float[] table = matrixResult.getTable(metric);
+            if (table == null)
+                continue;
+            for (int i = 0; i < sourceCount; i++) {
+                rowValues.clear();
+                int offset = i * destinationCount;
+                for (int j = 0; j < destinationCount; j++) {
+                    float value = table[offset + j];
+                    rowValues.put(value == -1 ? Float.NaN : value);
+                }
+                out.write(row.array());
+            }
+        }
+        out.flush();
+    }
+}
@@ -21,20 +21,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.heigit.ors.api.requests.matrix.MatrixRequest;
 import org.heigit.ors.matrix.MatrixMetricsType;
 import org.heigit.ors.matrix.MatrixResult;
-import org.heigit.ors.util.FormatUtility;
 
 import java.util.List;
 
 @JsonInclude(JsonInclude.Include.NON_DEFAULT)
 @Schema(name = "JSONIndividualMatrixResponse", description = "An individual JSON based route created by the service")
 public class JSONIndividualMatrixResponse extends JSONBasedIndividualMatrixResponse {
-    @Schema(description = "The durations of the matrix calculations.", example = "[[0,25],[25,0]]")
+    @Schema(description = "The durations of the matrix calculations.", example = "[[0,25],[25,0]]", implementation = Double[][].class)
     @JsonProperty("durations")
-    private Double[][] durations;
+    private JSONMatrixTable durations;
 
-    @Schema(description = "The distances of the matrix calculations.", example = "[[0,0.25],[0.25,0]]")
+    @Schema(description = "The distances of the matrix calculations.", example = "[[0,0.25],[0.25,0]]", implementation = Double[][].class)
     @JsonProperty("distances")
-    private Double[][] distances;
+    private JSONMatrixTable distances;
 
     @Schema(description = "The individual destinations of the matrix calculations.")
     @JsonProperty("destinations")
@@ -62,26 +61,11 @@ public class JSONIndividualMatrixResponse extends JSONBasedIndividualMatrixRespo
         }
     }
 
-    private Double[][] constructMetric(float[] table, MatrixResult result) {
-        int sourceCount = result.getSources().length;
-        int destinationCount = result.getDestinations().length;
-
-        Double[][] constructedTable = new Double[sourceCount][destinationCount];
-
-        for (int i = 0; i < sourceCount; i++) {
-            for (int j = 0; j < destinationCount; j++) {
-                double value = table[(i * destinationCount) + j];
-                if (value == -1)
-                    constructedTable[i][j] = null;
-                else
-                    constructedTable[i][j] = FormatUtility.roundToDecimals(value, 2);
-            }
-        }
-
-        return constructedTable;
+    private JSONMatrixTable constructMetric(float[] table, MatrixResult result) {
+        return new JSONMatrixTable(table, result.getSources().length, result.getDestinations().length);
     }
 
-    public Double[][] getDurations() {
+    public JSONMatrixTable getDurations() {
         return durations;
     }
 
@@ -93,15 +77,15 @@ public class JSONIndividualMatrixResponse extends JSONBasedIndividualMatrixRespo
         return sources;
     }
 
-    public Double[][] getDistances() {
+    public JSONMatrixTable getDistances() {
         return distances;
     }
 
-    public void setDistances(Double[][] distances) {
+    public void setDistances(JSONMatrixTable distances) {
         this.distances = distances;
     }
 
-    public void setDurations(Double[][] durations) {
+    public void setDurations(JSONMatrixTable durations) {
         this.durations = durations;
     }
 
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.responses.matrix.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.heigit.ors.util.FormatUtility;
+
+import java.io.IOException;
+
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+
+/**
+ * A metric table of a matrix result, serialised as an array of rows directly from the flat {@code float[]} table of the
+ * {@link org.heigit.ors.matrix.MatrixResult} so that no boxed copy of the table is needed. Values are rounded to two
+ * decimals and unreachable cells are written as null.
+ */
+public class JSONMatrixTable extends JsonSerializable.Base {
+    private final float[] values;
+    private final int sourceCount;
+    private final int destinationCount;
+
+    public JSONMatrixTable(float[] values, int sourceCount, int destinationCount) {
+        this.values = values;
+        this.sourceCount = sourceCount;
+        this.destinationCount = destinationCount;
+    }
+
+    public int getSourceCount() {
+        return sourceCount;
+    }
+
+    public int getDestinationCount() {
+        return destinationCount;
+    }
+
+    /**
+     * @return the rounded value of the given cell, or null if the destination is unreachable
+     */
+    public Double getValue(int source, int destination) {
+        double value = values[source * destinationCount + destination];
+        return value == -1 ? null : FormatUtility.roundToDecimals(value, 2);
+    }
+
+    public Double[] getRow(int source) {
+        Double[] row = new Double[destinationCount];
+        for (int j = 0; j < destinationCount; j++)
+            row[j] = getValue(source, j);
+        return row;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray();
+        writeRows(gen);
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(this, START_ARRAY));
+        writeRows(gen);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    private void writeRows(JsonGenerator gen) throws IOException {
+        for (int i = 0; i < sourceCount; i++) {
+            gen.writeStartArray();
+            int offset = i * destinationCount;
+            for (int j = 0; j < destinationCount; j++) {
+                double value = values[offset + j];
+                if (value == -1)
+                    gen.writeNull();
+                else
+                    gen.writeNumber(FormatUtility.roundToDecimals(value, 2));
+            }
+            gen.writeEndArray();
+        }
+    }
+}
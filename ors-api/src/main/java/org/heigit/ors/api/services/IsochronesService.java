@@ -1,5 +1,6 @@
 package org.heigit.ors.api.services;
 
+import jakarta.annotation.PreDestroy;
 import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.requests.isochrones.IsochronesRequest;
 import org.heigit.ors.api.requests.isochrones.IsochronesRequestEnums;
@@ -24,10 +25,12 @@ import org.locationtech.jts.geom.Coordinate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.heigit.ors.api.requests.isochrones.IsochronesRequest.convertAttributes;
 import static org.heigit.ors.api.requests.isochrones.IsochronesRequest.convertToIsochronesProfileType;
@@ -37,14 +40,34 @@ import static org.heigit.ors.common.TravelRangeType.DISTANCE;
 
 @Service
 public class IsochronesService extends ApiService {
+    private final ExecutorService travellerExecutor;
+    private final ExecutorService intervalExecutor;
 
     @Autowired
     public IsochronesService(EndpointsProperties endpointsProperties) {
         this.endpointsProperties = endpointsProperties;
+        EndpointsProperties.EndpointIsochroneProperties isochroneProperties = endpointsProperties.getIsochrone();
+        if (isochroneProperties != null && isochroneProperties.getTravellerThreads() > 1)
+            travellerExecutor = Executors.newFixedThreadPool(isochroneProperties.getTravellerThreads());
+        else
+            travellerExecutor = null;
+        if (isochroneProperties != null && isochroneProperties.getIntervalThreads() > 1)
+            intervalExecutor = Executors.newFixedThreadPool(isochroneProperties.getIntervalThreads());
+        else
+            intervalExecutor = null;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (travellerExecutor != null)
+            travellerExecutor.shutdownNow();
+        if (intervalExecutor != null)
+            intervalExecutor.shutdownNow();
     }
 
     public void generateIsochronesFromRequest(IsochronesRequest isochronesRequest) throws Exception {
         isochronesRequest.setIsochroneRequest(convertIsochroneRequest(isochronesRequest));
+        isochronesRequest.getIsochroneRequest().setIntervalExecutor(intervalExecutor);
         // request object is built, now check if ors config allows all settings
         List<TravellerInfo> travellers = isochronesRequest.getIsochroneRequest().getTravellers();
 
@@ -54,13 +77,67 @@ public class IsochronesService extends ApiService {
         if (!travellers.isEmpty()) {
             isochronesRequest.setIsoMaps(new IsochroneMapCollection());
 
-            for (int i = 0; i < travellers.size(); ++i) {
-                IsochroneSearchParameters searchParams = isochronesRequest.getIsochroneRequest().getSearchParameters(i);
-                IsochroneMap isochroneMap = RoutingProfileManager.getInstance().buildIsochrone(searchParams);
+            IsochroneMap[] isochroneMaps = buildIsochrones(isochronesRequest.getIsochroneRequest(), travellers.size());
+            for (IsochroneMap isochroneMap : isochroneMaps)
                 isochronesRequest.getIsoMaps().add(isochroneMap);
-            }
 
+            if (isochronesRequest.hasIntersections() && isochronesRequest.getIntersections())
+                isochronesRequest.setIsoIntersections(IsochroneUtility.computeIntersections(isochronesRequest.getIsoMaps(), travellerExecutor));
+        }
+    }
+
+    /**
+     * Builds the isochrone maps of all travellers. If the traveller executor is enabled, up to the configured number
+     * of travellers per request are computed concurrently. The maps are returned in the order of the travellers.
+     */
+    private IsochroneMap[] buildIsochrones(IsochroneRequest isochroneRequest, int travellerCount) throws Exception {
+        int tasks = travellerExecutor == null ? 1 : Math.min(travellerCount, endpointsProperties.getIsochrone().getTravellerThreadsPerRequest());
+        return buildIsochrones(travellerCount, travellerExecutor, tasks,
+                i -> RoutingProfileManager.getInstance().buildIsochrone(isochroneRequest.getSearchParameters(i)));
+    }
+
+    interface TravellerIsochroneBuilder {
+        IsochroneMap build(int traveller) throws Exception;
+    }
+
+    /**
+     * Builds the maps of the travellers on the given number of tasks. When a traveller fails, the remaining travellers
+     * are skipped and its exception is thrown.
+     */
+    static IsochroneMap[] buildIsochrones(int travellerCount, ExecutorService executor, int tasks, TravellerIsochroneBuilder builder) throws Exception {
+        IsochroneMap[] isochroneMaps = new IsochroneMap[travellerCount];
+        if (executor == null || tasks <= 1) {
+            for (int i = 0; i < travellerCount; ++i)
+                isochroneMaps[i] = builder.build(i);
+            return isochroneMaps;
+        }
+
+        AtomicInteger nextTraveller = new AtomicInteger();
+        List<Future<Void>> futures = new ArrayList<>(tasks);
+        try {
+            for (int t = 0; t < tasks; t++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        int i;
+                        while ((i = nextTraveller.getAndIncrement()) < travellerCount)
+                            isochroneMaps[i] = builder.build(i);
+                    } catch (Exception e) {
+                        nextTraveller.set(travellerCount);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures)
+                future.get();
+        } catch (ExecutionException e) {
+            nextTraveller.set(travellerCount);
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            for (Future<Void> future : futures)
+                future.cancel(true);
         }
+        return isochroneMaps;
     }
 
     Float convertSmoothing(Double smoothingValue) throws ParameterValueException {
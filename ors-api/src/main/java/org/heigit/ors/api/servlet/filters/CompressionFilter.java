@@ -18,30 +18,91 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.util.zip.Deflater;
 
+/**
+ * Compresses responses with gzip or deflate, depending on the Accept-Encoding header of the request. The filter can
+ * be configured with the init parameters {@code compression_level} (0-9, -1 for the default level) and
+ * {@code min_size} (bytes below which responses are sent uncompressed).
+ */
 public class CompressionFilter implements Filter {
+    private static final String[] SUPPORTED_ENCODINGS = {ContentEncodingType.GZIP, ContentEncodingType.DEFLATE};
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private int minSize = DEFAULT_MIN_SIZE;
+
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
         if (req instanceof HttpServletRequest request) {
             HttpServletResponse response = (HttpServletResponse) res;
-            String acceptEncoding = request.getHeader("accept-encoding");
-
-            if (acceptEncoding != null) {
-                if (acceptEncoding.contains(ContentEncodingType.GZIP)) {
-                    GZIPResponseWrapper wrappedResponse = new GZIPResponseWrapper(response);
-                    chain.doFilter(req, wrappedResponse);
-                    wrappedResponse.finishResponse();
-                    return;
-                } else if (acceptEncoding.contains(ContentEncodingType.DEFLATE)) {
-                    // not implemented
-                }
+            // the content depends on Accept-Encoding even if this response ends up uncompressed
+            response.addHeader("Vary", "Accept-Encoding");
+            String encoding = negotiateEncoding(request.getHeader("accept-encoding"));
+
+            if (encoding != null) {
+                CompressionResponseWrapper wrappedResponse = new CompressionResponseWrapper(response, encoding, compressionLevel, minSize);
+                chain.doFilter(req, wrappedResponse);
+                wrappedResponse.finishResponse();
+                return;
             }
             chain.doFilter(req, res);
         }
     }
 
+    /**
+     * Selects the supported encoding with the highest quality value in the given Accept-Encoding header. On equal
+     * quality gzip is preferred over deflate.
+     *
+     * @return the selected encoding, or null if the response should not be compressed
+     */
+    static String negotiateEncoding(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+
+        String selected = null;
+        double selectedQuality = 0.0;
+        for (String supported : SUPPORTED_ENCODINGS) {
+            double quality = getQuality(acceptEncoding, supported);
+            if (quality > selectedQuality) {
+                selected = supported;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    private static double getQuality(String acceptEncoding, String encoding) {
+        double wildcardQuality = 0.0;
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.trim().split(";");
+            String coding = parts[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(encoding))
+                return quality;
+            if ("*".equals(coding))
+                wildcardQuality = quality;
+        }
+        return wildcardQuality;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) {
-        // nothing to do
+        String value = filterConfig.getInitParameter("compression_level");
+        if (value != null)
+            compressionLevel = Integer.parseInt(value.trim());
+        value = filterConfig.getInitParameter("min_size");
+        if (value != null)
+            minSize = Integer.parseInt(value.trim());
     }
 
     @Override
@@ -0,0 +1,158 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.api.servlet.filters;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream which compresses the response on the fly. Content is buffered only until it exceeds the minimum
+ * size; smaller responses are sent uncompressed with a Content-Length, larger ones are compressed and streamed to
+ * the client in chunks as they are written.
+ */
+class CompressionResponseStream extends ServletOutputStream {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final HttpServletResponse servletResponse;
+    private final String encoding;
+    private final int compressionLevel;
+    private final int minSize;
+    private byte[] buffer = new byte[0];
+    private int count = 0;
+    private OutputStream compressedStream = null;
+    private Deflater deflater = null;
+    private boolean closed = false;
+
+    public CompressionResponseStream(HttpServletResponse response, String encoding, int compressionLevel, int minSize) {
+        super();
+
+        this.servletResponse = response;
+        this.encoding = encoding;
+        this.compressionLevel = compressionLevel;
+        this.minSize = minSize;
+    }
+
+    private void startCompression() throws IOException {
+        servletResponse.addHeader("Content-Encoding", encoding);
+
+        OutputStream out = servletResponse.getOutputStream();
+        if (ContentEncodingType.DEFLATE.equals(encoding)) {
+            deflater = new Deflater(compressionLevel);
+            compressedStream = new DeflaterOutputStream(out, deflater, STREAM_BUFFER_SIZE, true);
+        } else {
+            compressedStream = new GZIPOutputStream(out, STREAM_BUFFER_SIZE, true) {
+                {
+                    def.setLevel(compressionLevel);
+                }
+            };
+        }
+
+        if (count > 0)
+            compressedStream.write(buffer, 0, count);
+        buffer = null;
+        count = 0;
+    }
+
+    /**
+     * @return true if the content has exceeded the minimum size and is sent compressed
+     */
+    public boolean isCompressing() {
+        return compressedStream != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            throw new IOException("This output stream has already been closed");
+
+        closed = true;
+        if (compressedStream == null) {
+            ServletOutputStream servletOutputStream = servletResponse.getOutputStream();
+            servletResponse.setContentLength(count);
+            servletOutputStream.write(buffer, 0, count);
+            servletOutputStream.close();
+        } else {
+            try {
+                compressedStream.close();
+            } finally {
+                if (deflater != null)
+                    deflater.end();
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed)
+            return; // already closed, nothing to do
+
+        // content below the minimum size is kept back until it is known whether it will be compressed
+        if (compressedStream != null)
+            compressedStream.flush();
+    }
+
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed)
+            throw new IOException("Cannot write to a closed output stream");
+
+        if (compressedStream == null) {
+            if (count + len <= minSize) {
+                if (count + len > buffer.length)
+                    buffer = Arrays.copyOf(buffer, Math.min(Math.max(count + len, buffer.length * 2), minSize));
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            startCompression();
+        }
+
+        compressedStream.write(b, off, len);
+    }
+
+    public void reset() {
+        // nothing to do
+    }
+
+    @Override
+    public boolean isReady() {
+        return false;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener arg0) {
+        // nothing to do
+    }
+}
@@ -22,18 +22,24 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 
-class GZIPResponseWrapper extends HttpServletResponseWrapper {
+class CompressionResponseWrapper extends HttpServletResponseWrapper {
     protected HttpServletResponse origResponse;
-    protected GZIPResponseStream responseStream = null;
+    protected CompressionResponseStream responseStream = null;
     protected PrintWriter writer = null;
+    private final String encoding;
+    private final int compressionLevel;
+    private final int minSize;
 
-    public GZIPResponseWrapper(HttpServletResponse response) {
+    public CompressionResponseWrapper(HttpServletResponse response, String encoding, int compressionLevel, int minSize) {
         super(response);
         origResponse = response;
+        this.encoding = encoding;
+        this.compressionLevel = compressionLevel;
+        this.minSize = minSize;
     }
 
-    public GZIPResponseStream createOutputStream() throws IOException {
-        return new GZIPResponseStream(origResponse);
+    public CompressionResponseStream createOutputStream() {
+        return new CompressionResponseStream(origResponse, encoding, compressionLevel, minSize);
     }
 
     public void finishResponse() {
@@ -51,6 +57,8 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
 
     @Override
     public void flushBuffer() throws IOException {
+        if (writer != null)
+            writer.flush();
         if (responseStream != null && !responseStream.isClosed())
             responseStream.flush();
     }
@@ -83,4 +91,9 @@ class GZIPResponseWrapper extends HttpServletResponseWrapper {
     public void setContentLength(int length) {
         // nothing to do
     }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        // nothing to do
+    }
 }
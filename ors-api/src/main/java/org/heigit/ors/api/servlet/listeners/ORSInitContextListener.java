@@ -55,7 +55,9 @@ public class ORSInitContextListener implements ServletContextListener {
         }
         final EngineConfig config = EngineConfig.EngineConfigBuilder.init()
             .setInitializationThreads(engineProperties.getInitThreads())
+            .setRouteSegmentThreads(engineProperties.getRouteSegmentThreads())
             .setPreparationMode(engineProperties.isPreparationMode())
+            .setSharedOsmImport(engineProperties.isSharedOsmImport())
             .setElevationPreprocessed(engineProperties.getElevation().isPreprocessed())
             .setSourceFile(engineProperties.getSourceFile())
             .setGraphsRootPath(engineProperties.getGraphsRootPath())
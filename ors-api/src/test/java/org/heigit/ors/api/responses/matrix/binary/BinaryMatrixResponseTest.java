@@ -0,0 +1,57 @@
+package org.heigit.ors.api.responses.matrix.binary;
+
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryMatrixResponseTest {
+
+    @Test
+    void write() throws IOException {
+        MatrixResult result = new MatrixResult(new ResolvedLocation[2], new ResolvedLocation[3]);
+        result.setTable(MatrixMetricsType.DURATION, new float[]{0, 1, -1, 3, 0, 5});
+        result.setTable(MatrixMetricsType.DISTANCE, new float[]{0, 10, -1, 30, 0, 50});
+        BinaryMatrixResponse response = new BinaryMatrixResponse(result);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.write(out);
+        byte[] bytes = out.toByteArray();
+        assertEquals(response.getContentLength(), bytes.length);
+        assertEquals(BinaryMatrixResponse.HEADER_SIZE + 2 * 6 * 4, bytes.length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertArrayEquals(BinaryMatrixResponse.MAGIC, magic);
+        assertEquals(BinaryMatrixResponse.VERSION, buffer.getInt());
+        assertEquals(2, buffer.getInt());
+        assertEquals(3, buffer.getInt());
+        assertEquals(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE, buffer.getInt());
+
+        float[] expected = {0, 1, Float.NaN, 3, 0, 5, 0, 10, Float.NaN, 30, 0, 50};
+        for (float value : expected)
+            assertEquals(value, buffer.getFloat());
+    }
+
+    @Test
+    void writeSingleMetric() throws IOException {
+        MatrixResult result = new MatrixResult(new ResolvedLocation[1], new ResolvedLocation[1]);
+        result.setTable(MatrixMetricsType.DISTANCE, new float[]{42});
+        BinaryMatrixResponse response = new BinaryMatrixResponse(result);
+        assertEquals(MatrixMetricsType.DISTANCE, response.getMetrics());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.write(out);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(BinaryMatrixResponse.HEADER_SIZE + 4, buffer.remaining());
+        assertEquals(42f, buffer.getFloat(BinaryMatrixResponse.HEADER_SIZE));
+    }
+}
@@ -0,0 +1,25 @@
+package org.heigit.ors.api.responses.matrix.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONMatrixTableTest {
+
+    @Test
+    void serializeRows() throws JsonProcessingException {
+        JSONMatrixTable table = new JSONMatrixTable(new float[]{0, 1.234f, -1, 25.5f, 0, 7}, 2, 3);
+        assertEquals("[[0.0,1.23,null],[25.5,0.0,7.0]]", new ObjectMapper().writeValueAsString(table));
+    }
+
+    @Test
+    void getRow() {
+        JSONMatrixTable table = new JSONMatrixTable(new float[]{0, 1.234f, -1, 25.5f, 0, 7}, 2, 3);
+        assertEquals(2, table.getSourceCount());
+        assertEquals(3, table.getDestinationCount());
+        assertArrayEquals(new Double[]{0.0, 1.23, null}, table.getRow(0));
+        assertArrayEquals(new Double[]{25.5, 0.0, 7.0}, table.getRow(1));
+    }
+}
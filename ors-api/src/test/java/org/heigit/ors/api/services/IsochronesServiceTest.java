@@ -11,7 +11,9 @@ import org.heigit.ors.common.TravelRangeType;
 import org.heigit.ors.common.TravellerInfo;
 import org.heigit.ors.exceptions.ParameterOutOfRangeException;
 import org.heigit.ors.exceptions.ParameterValueException;
+import org.heigit.ors.isochrones.IsochroneMap;
 import org.heigit.ors.isochrones.IsochroneRequest;
+import org.heigit.ors.isochrones.IsochronesErrorCodes;
 import org.heigit.ors.routing.*;
 import org.heigit.ors.routing.pathprocessors.BordersExtractor;
 import org.json.simple.JSONArray;
@@ -28,6 +30,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -191,6 +196,43 @@ public class IsochronesServiceTest {
         });
     }
 
+    @Test
+    void buildIsochronesConcurrentlyInTravellerOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            int travellerCount = 10;
+            IsochroneMap[] maps = IsochronesService.buildIsochrones(travellerCount, executor, 3, i -> {
+                // let later travellers finish first
+                Thread.sleep(travellerCount - i);
+                return new IsochroneMap(i, new Coordinate(i, i));
+            });
+            assertEquals(travellerCount, maps.length);
+            for (int i = 0; i < travellerCount; i++)
+                assertEquals(i, maps[i].getTravellerId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void buildIsochronesConcurrentlyPropagatesFailure() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AtomicInteger built = new AtomicInteger();
+        try {
+            assertThrows(ParameterValueException.class, () -> IsochronesService.buildIsochrones(1000, executor, 3, i -> {
+                if (i == 2)
+                    throw new ParameterValueException(IsochronesErrorCodes.INVALID_PARAMETER_VALUE, IsochronesRequest.PARAM_LOCATIONS);
+                Thread.sleep(1);
+                built.incrementAndGet();
+                return new IsochroneMap(i, new Coordinate(i, i));
+            }));
+            // the other tasks stop taking travellers after the failure
+            assertTrue(built.get() < 100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void setRangeAndIntervals() throws ParameterValueException, ParameterOutOfRangeException {
         TravellerInfo info = new TravellerInfo();
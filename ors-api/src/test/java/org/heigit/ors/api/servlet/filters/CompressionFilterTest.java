@@ -0,0 +1,91 @@
+package org.heigit.ors.api.servlet.filters;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest {
+
+    @Test
+    void negotiateEncoding() {
+        assertNull(CompressionFilter.negotiateEncoding(null));
+        assertNull(CompressionFilter.negotiateEncoding("identity"));
+        assertNull(CompressionFilter.negotiateEncoding("br"));
+        assertNull(CompressionFilter.negotiateEncoding("gzip;q=0"));
+        assertEquals("gzip", CompressionFilter.negotiateEncoding("gzip, deflate, br"));
+        assertEquals("gzip", CompressionFilter.negotiateEncoding("*"));
+        assertEquals("deflate", CompressionFilter.negotiateEncoding("deflate"));
+        assertEquals("deflate", CompressionFilter.negotiateEncoding("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals("deflate", CompressionFilter.negotiateEncoding("gzip;q=0, *"));
+    }
+
+    @Test
+    void smallResponseIsSentUncompressed() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompressionResponseStream stream = new CompressionResponseStream(response, ContentEncodingType.GZIP, 6, 16);
+        stream.write("small".getBytes());
+        stream.close();
+
+        assertFalse(stream.isCompressing());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(5, response.getContentLength());
+        assertEquals("small", response.getContentAsString());
+    }
+
+    @Test
+    void largeResponseIsStreamedWithGzip() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompressionResponseStream stream = new CompressionResponseStream(response, ContentEncodingType.GZIP, 6, 16);
+        byte[] content = new byte[10000];
+        Arrays.fill(content, (byte) 'a');
+        stream.write(content, 0, 10);
+        stream.write(content, 10, content.length - 10);
+        stream.flush();
+        assertTrue(response.getContentAsByteArray().length > 0);
+        stream.close();
+
+        assertTrue(stream.isCompressing());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void largeResponseIsStreamedWithDeflate() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompressionResponseStream stream = new CompressionResponseStream(response, ContentEncodingType.DEFLATE, 9, 0);
+        byte[] content = "deflate me".repeat(100).getBytes();
+        stream.write(content);
+        stream.close();
+
+        assertEquals("deflate", response.getHeader("Content-Encoding"));
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void varyHeaderIsSetOnEveryResponse() throws Exception {
+        CompressionFilter filter = new CompressionFilter();
+        for (String acceptEncoding : new String[]{null, "identity", "gzip"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            if (acceptEncoding != null)
+                request.addHeader("Accept-Encoding", acceptEncoding);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+
+            assertEquals("Accept-Encoding", response.getHeader("Vary"));
+            assertNull(response.getHeader("Content-Encoding"));
+        }
+    }
+}
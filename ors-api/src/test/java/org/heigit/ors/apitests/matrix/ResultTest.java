@@ -24,10 +24,16 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
 import static io.restassured.RestAssured.given;
 import static io.restassured.config.JsonConfig.jsonConfig;
 import static org.hamcrest.Matchers.*;
+import static org.heigit.ors.apitests.utils.CommonHeaders.binaryContent;
 import static org.heigit.ors.apitests.utils.CommonHeaders.jsonContent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.heigit.ors.matrix.MatrixErrorCodes.MAX_VISITED_NODES_EXCEEDED;
 
 @EndPointAnnotation(name = "matrix")
@@ -308,6 +314,42 @@ class ResultTest extends ServiceTest {
                 .statusCode(200);
     }
 
+    @Test
+    void expectBinaryDurationsAndDistances() {
+        JSONObject body = new JSONObject();
+        body.put("locations", getParameter("locations"));
+        body.put("metrics", getParameter("metricsAll"));
+
+        byte[] response = given()
+                .headers(binaryContent)
+                .pathParam("profile", getParameter("carProfile"))
+                .body(body.toString())
+                .when()
+                .post(getEndPointPath() + "/{profile}/binary")
+                .then()
+                .assertThat()
+                .contentType("application/octet-stream")
+                .statusCode(200)
+                .extract().asByteArray();
+
+        // header of magic bytes, version, sources, destinations and metrics followed by a 3x3 duration and distance table
+        assertEquals(20 + 2 * 9 * 4, response.length);
+        ByteBuffer data = ByteBuffer.wrap(response).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("ORSM", new String(response, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals(1, data.getInt(4));
+        assertEquals(3, data.getInt(8));
+        assertEquals(3, data.getInt(12));
+        assertEquals(3, data.getInt(16));
+
+        int durations = 20;
+        int distances = durations + 9 * 4;
+        assertEquals(0.0, data.getFloat(durations), 0.001);
+        assertEquals(212.67, data.getFloat(durations + 4), 2);
+        assertEquals(102.53, data.getFloat(durations + (3 + 2) * 4), 1);
+        assertEquals(479.08, data.getFloat(distances + (3 + 2) * 4), 5);
+        assertEquals(1274.4, data.getFloat(distances + 2 * 3 * 4), 13);
+    }
+
     @Test
     void expectAllMetrics() {
         JSONObject body = new JSONObject();
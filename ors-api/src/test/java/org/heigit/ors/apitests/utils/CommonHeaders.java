@@ -8,8 +8,10 @@ public class CommonHeaders {
     public static Header acceptApplicationGeoJson = new Header("Accept", "application/geo+json");
     public static Header acceptApplicationJson = new Header("Accept", "application/json");
     public static Header acceptApplicationGpx = new Header("Accept", "application/gpx+xml");
+    public static Header acceptApplicationOctetStream = new Header("Accept", "application/octet-stream");
 
     public static Headers jsonContent = new Headers(contentTypeJson, acceptApplicationJson);
     public static Headers geoJsonContent = new Headers(contentTypeJson, acceptApplicationGeoJson);
     public static Headers gpxContent = new Headers(contentTypeJson, acceptApplicationGpx);
+    public static Headers binaryContent = new Headers(contentTypeJson, acceptApplicationOctetStream);
 }
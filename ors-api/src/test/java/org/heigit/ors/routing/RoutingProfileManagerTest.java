@@ -0,0 +1,85 @@
+package org.heigit.ors.routing;
+
+import org.heigit.ors.api.Application;
+import org.heigit.ors.apitests.common.InitializeGraphsOnce;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Coordinate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = Application.class)
+@ExtendWith(InitializeGraphsOnce.class)
+@ActiveProfiles("test")
+class RoutingProfileManagerTest {
+    private static final Coordinate[] WAY_POINTS = {
+            new Coordinate(8.678613, 49.411721),
+            new Coordinate(8.714733, 49.393267),
+            new Coordinate(8.687782, 49.424597),
+            new Coordinate(8.676023, 49.416809)
+    };
+
+    private final ThreadPoolExecutor segmentExecutor = new ThreadPoolExecutor(3, 3, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+
+    @AfterEach
+    void shutDownSegmentExecutor() {
+        RoutingProfileManager.getInstance().setSegmentExecutor(null);
+        segmentExecutor.shutdownNow();
+    }
+
+    private static RouteResult[] computeRoute(ThreadPoolExecutor segmentExecutor, boolean continueStraight) throws Exception {
+        RoutingRequest req = new RoutingRequest();
+        req.setCoordinates(WAY_POINTS);
+        req.getSearchParameters().setProfileType(RoutingProfileType.DRIVING_CAR);
+        req.setContinueStraight(continueStraight);
+        RoutingProfileManager.getInstance().setSegmentExecutor(segmentExecutor);
+        return RoutingProfileManager.getInstance().computeRoute(req);
+    }
+
+    @Test
+    void testParallelSegmentsMatchSequentialRoute() throws Exception {
+        RouteResult[] sequential = computeRoute(null, false);
+        RouteResult[] parallel = computeRoute(segmentExecutor, false);
+
+        assertEquals(WAY_POINTS.length - 1, segmentExecutor.getTaskCount());
+        assertEquals(WAY_POINTS.length - 1, sequential[0].getSegments().size());
+        assertSameRoutes(sequential, parallel);
+    }
+
+    @Test
+    void testContinueStraightWithoutBearingsIsSequential() throws Exception {
+        RouteResult[] sequential = computeRoute(null, true);
+        RouteResult[] parallel = computeRoute(segmentExecutor, true);
+
+        // the heading of each segment depends on the previous one, so no segment is computed by the executor
+        assertEquals(0, segmentExecutor.getTaskCount());
+        assertSameRoutes(sequential, parallel);
+    }
+
+    private static void assertSameRoutes(RouteResult[] expected, RouteResult[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getSummary().getDistance(), actual[i].getSummary().getDistance());
+            assertEquals(expected[i].getSummary().getDuration(), actual[i].getSummary().getDuration());
+            assertEquals(expected[i].getWayPointsIndices(), actual[i].getWayPointsIndices());
+            assertArrayEquals(expected[i].getGeometry(), actual[i].getGeometry());
+            assertEquals(expected[i].getSegments().size(), actual[i].getSegments().size());
+            for (int j = 0; j < expected[i].getSegments().size(); j++) {
+                RouteSegment expectedSegment = expected[i].getSegments().get(j);
+                RouteSegment actualSegment = actual[i].getSegments().get(j);
+                assertEquals(expectedSegment.getDistance(), actualSegment.getDistance());
+                assertEquals(expectedSegment.getDuration(), actualSegment.getDuration());
+                assertEquals(expectedSegment.getSteps().size(), actualSegment.getSteps().size());
+                for (int k = 0; k < expectedSegment.getSteps().size(); k++)
+                    assertArrayEquals(expectedSegment.getSteps().get(k).getWayPoints(), actualSegment.getSteps().get(k).getWayPoints());
+            }
+        }
+    }
+}
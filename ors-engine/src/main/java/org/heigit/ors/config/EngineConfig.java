@@ -9,7 +9,9 @@ import java.util.Map;
 public class EngineConfig {
     // Migration guide: 1. add field and getter, assign in constructor
     private final int initializationThreads;
+    private final int routeSegmentThreads;
     private final boolean preparationMode;
+    private final boolean sharedOsmImport;
     private final String sourceFile;
     private final String graphsRootPath;
     private final boolean elevationPreprocessed;
@@ -19,10 +21,18 @@ public class EngineConfig {
         return initializationThreads;
     }
 
+    public int getRouteSegmentThreads() {
+        return routeSegmentThreads;
+    }
+
     public boolean isPreparationMode() {
         return preparationMode;
     }
 
+    public boolean isSharedOsmImport() {
+        return sharedOsmImport;
+    }
+
     public String getSourceFile() {
         return sourceFile;
     }
@@ -41,7 +51,9 @@ public class EngineConfig {
 
     public EngineConfig(EngineConfigBuilder builder) {
         this.initializationThreads = builder.initializationThreads;
+        this.routeSegmentThreads = builder.routeSegmentThreads;
         this.preparationMode = builder.preparationMode;
+        this.sharedOsmImport = builder.sharedOsmImport;
         this.sourceFile = builder.sourceFile;
         this.elevationPreprocessed = builder.elevationPreprocessed;
         this.graphsRootPath = builder.graphsRootPath;
@@ -52,7 +64,9 @@ public class EngineConfig {
     public static class EngineConfigBuilder {
         // Migration guide: 2. add corresponding field (without final)
         private int initializationThreads = 1;
+        private int routeSegmentThreads = 1;
         private boolean preparationMode;
+        private boolean sharedOsmImport;
         private String sourceFile;
         private String graphsRootPath;
         private boolean elevationPreprocessed;
@@ -68,11 +82,21 @@ public class EngineConfig {
             return this;
         }
 
+        public EngineConfigBuilder setRouteSegmentThreads(int routeSegmentThreads) {
+            this.routeSegmentThreads = routeSegmentThreads;
+            return this;
+        }
+
         public EngineConfigBuilder setPreparationMode(boolean preparationMode) {
             this.preparationMode = preparationMode;
             return this;
         }
 
+        public EngineConfigBuilder setSharedOsmImport(boolean sharedOsmImport) {
+            this.sharedOsmImport = sharedOsmImport;
+            return this;
+        }
+
         public EngineConfigBuilder setSourceFile(String sourceFile) {
             this.sourceFile = sourceFile;
             return this;
@@ -106,10 +130,18 @@ public class EngineConfig {
             if (value != null)
                 this.initializationThreads = Integer.parseInt(value);
 
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "route_segment_threads");
+            if (value != null)
+                this.routeSegmentThreads = Integer.parseInt(value);
+
             value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "mode");
             if (value != null)
                 this.preparationMode = "preparation".equalsIgnoreCase(value);
 
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "shared_osm_import");
+            if (value != null)
+                this.sharedOsmImport = "true".equalsIgnoreCase(value);
+
             List<String> sources = deprecatedAppConfig.getServiceParametersList(SERVICE_NAME_ROUTING, "sources");
             if (!sources.isEmpty())
                 this.sourceFile = sources.get(0);
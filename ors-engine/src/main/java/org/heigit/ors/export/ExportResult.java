@@ -1,46 +1,78 @@
 package org.heigit.ors.export;
 
-import org.heigit.ors.common.Pair;
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
 import org.locationtech.jts.geom.Coordinate;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Nodes and edges of an export stored in flat primitive lists, so that large bounding boxes do not need an object per
+ * node or edge. Nodes and edges are addressed by their index in the order they were added.
+ */
 public class ExportResult {
-    private Map<Integer, Coordinate> locations;
-    private Map<Pair<Integer, Integer>, Double> edgeWeigths;
-    private Map<Pair<Integer, Integer>, Map<String, Object>> edgeExtras;
+    private final IntArrayList nodeIds;
+    private final DoubleArrayList nodeCoordinates; // lon, lat per node
+    private final IntArrayList edgeNodes; // from, to per edge
+    private final DoubleArrayList edgeWeights;
+    private List<Map<String, Object>> edgeExtras;
     private ExportWarning warning;
 
 
     public ExportResult() {
-        this.locations = new HashMap<>();
-        this.edgeWeigths = new HashMap<>();
+        this.nodeIds = new IntArrayList();
+        this.nodeCoordinates = new DoubleArrayList();
+        this.edgeNodes = new IntArrayList();
+        this.edgeWeights = new DoubleArrayList();
         this.warning = null;
     }
 
-    public Map<Pair<Integer, Integer>, Double> getEdgeWeigths() {
-        return edgeWeigths;
+    public void addLocation(int node, double lon, double lat) {
+        nodeIds.add(node);
+        nodeCoordinates.add(lon, lat);
     }
 
-    public void setEdgeWeigths(Map<Pair<Integer, Integer>, Double> edgeWeigths) {
-        this.edgeWeigths = edgeWeigths;
+    public int getLocationCount() {
+        return nodeIds.size();
     }
 
-    public void addEdge(Pair<Integer, Integer> edge, Double weight) {
-        this.edgeWeigths.put(edge, weight);
+    public int getLocationNode(int index) {
+        return nodeIds.get(index);
     }
 
-    public Map<Integer, Coordinate> getLocations() {
-        return locations;
+    public Coordinate getLocation(int index) {
+        return new Coordinate(nodeCoordinates.get(2 * index), nodeCoordinates.get(2 * index + 1));
     }
 
-    public void setLocations(Map<Integer, Coordinate> locations) {
-        this.locations = locations;
+    /**
+     * @return the index of the added edge
+     */
+    public int addEdge(int from, int to, double weight) {
+        edgeNodes.add(from, to);
+        edgeWeights.add(weight);
+        return edgeWeights.size() - 1;
     }
 
-    public void addLocation(Integer node, Coordinate coord) {
-        this.locations.put(node, coord);
+    public void setEdgeWeight(int index, double weight) {
+        edgeWeights.set(index, weight);
+    }
+
+    public int getEdgeCount() {
+        return edgeWeights.size();
+    }
+
+    public int getEdgeFrom(int index) {
+        return edgeNodes.get(2 * index);
+    }
+
+    public int getEdgeTo(int index) {
+        return edgeNodes.get(2 * index + 1);
+    }
+
+    public double getEdgeWeight(int index) {
+        return edgeWeights.get(index);
     }
 
     public ExportWarning getWarning() {
@@ -55,15 +87,20 @@ public class ExportResult {
         return this.warning != null;
     }
 
-    public Map<Pair<Integer, Integer>, Map<String, Object>> getEdgeExtras() {
-        return edgeExtras;
+    /**
+     * @return the extra info of the edge, or null if none has been set
+     */
+    public Map<String, Object> getEdgeExtra(int index) {
+        return edgeExtras == null || index >= edgeExtras.size() ? null : edgeExtras.get(index);
     }
 
-    public void addEdgeExtra(Pair<Integer, Integer> edge, Map<String, Object> extra) {
+    public void setEdgeExtra(int index, Map<String, Object> extra) {
         if (edgeExtras == null) {
-            edgeExtras = new HashMap<>();
+            edgeExtras = new ArrayList<>();
         }
-        this.edgeExtras.put(edge, extra);
+        while (edgeExtras.size() <= index)
+            edgeExtras.add(null);
+        this.edgeExtras.set(index, extra);
     }
 
     public boolean hasEdgeExtras() {
@@ -201,15 +201,7 @@ public class Contour {
         for (Coordinate coordinate : coordinates)
             addPoint(visitor, points, qtree, searchEnv, treeSet, coordinate.x, coordinate.y, defaultSearchWidth, defaulPointWidth, true);
 
-        GeometryFactory geomFactory = new GeometryFactory();
-        int size = points.size();
-        Geometry[] geometries = new Geometry[size];
-        int g = 0;
-        for (Coordinate point : points)
-            geometries[g++] = geomFactory.createPoint(point);
-        GeometryCollection treePoints = new GeometryCollection(geometries, geomFactory);
-
-        ConcaveHullOpenSphere ch = new ConcaveHullOpenSphere(treePoints, CONCAVE_HULL_THRESHOLD, false);
+        ConcaveHullOpenSphere ch = new ConcaveHullOpenSphere(points.toArray(new Coordinate[0]), CONCAVE_HULL_THRESHOLD, new GeometryFactory());
         return ch.getConcaveHull();
     }
 
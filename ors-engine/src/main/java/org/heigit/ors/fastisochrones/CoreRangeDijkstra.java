@@ -17,7 +17,12 @@
  */
 package org.heigit.ors.fastisochrones;
 
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntObjectCursor;
+import com.graphhopper.coll.GHIntObjectHashMap;
 import com.graphhopper.routing.SPTEntry;
+import com.graphhopper.routing.querygraph.EdgeIteratorStateHelper;
 import com.graphhopper.routing.util.AccessFilter;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
@@ -27,6 +32,9 @@ import org.heigit.ors.fastisochrones.partitioning.storage.IsochroneNodeStorage;
 import org.heigit.ors.fastisochrones.storage.BorderNodeDistanceSet;
 import org.heigit.ors.fastisochrones.storage.BorderNodeDistanceStorage;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.CORERANGEDIJKSTRA;
 
 /**
@@ -39,6 +47,10 @@ public class CoreRangeDijkstra extends AbstractIsochroneDijkstra {
     protected IsochroneNodeStorage isochroneNodeStorage;
     protected BorderNodeDistanceStorage borderNodeDistanceStorage;
     private double isochroneLimit = 0;
+    private boolean recordRelaxations = false;
+    // every edge relaxation in the order of the search, as the entry it would have created, and the id it belongs to
+    private final IntArrayList relaxedIds = new IntArrayList();
+    private final List<SPTEntry> relaxedEntries = new ArrayList<>();
 
     public CoreRangeDijkstra(Graph graph, Weighting weighting, IsochroneNodeStorage isochroneNodeStorage, BorderNodeDistanceStorage borderNodeDistanceStorage) {
         super(graph, weighting);
@@ -72,6 +84,8 @@ public class CoreRangeDijkstra extends AbstractIsochroneDijkstra {
                 // ORS-GH MOD END
                 if (Double.isInfinite(tmpWeight))
                     continue;
+                if (recordRelaxations)
+                    recordRelaxation(iter, traversalId, tmpWeight);
 
                 SPTEntry nEdge = fromMap.get(traversalId);
                 if (nEdge == null) {
@@ -120,6 +134,54 @@ public class CoreRangeDijkstra extends AbstractIsochroneDijkstra {
         }
     }
 
+    private void recordRelaxation(EdgeIterator iter, int traversalId, double tmpWeight) {
+        SPTEntry relaxedEntry = new SPTEntry(iter.getEdge(), iter.getAdjNode(), tmpWeight);
+        relaxedEntry.parent = currEdge;
+        relaxedEntry.originalEdge = EdgeIteratorStateHelper.getOriginalEdge(iter);
+        relaxedIds.add(traversalId);
+        relaxedEntries.add(relaxedEntry);
+    }
+
+    /**
+     * Returns the entries a search bound by the given smaller limit would have found. The nodes within the limit have
+     * the same entries as in this search. The nodes beyond it get the best entry of the edges relaxed from a node within
+     * the limit, which can differ from their entry in this search. Requires the relaxations to be recorded for limits
+     * smaller than the limit of this search.
+     *
+     * @param limit the limit to select, must not be greater than the limit of this search
+     */
+    public IntObjectMap<SPTEntry> getFromMap(double limit) {
+        IntObjectMap<SPTEntry> entries = new GHIntObjectHashMap<>(fromMap.size());
+        if (limit >= isochroneLimit) {
+            entries.putAll(fromMap);
+            return entries;
+        }
+        if (!recordRelaxations)
+            throw new IllegalStateException("Relaxations have not been recorded");
+        for (IntObjectCursor<SPTEntry> entry : fromMap) {
+            if (entry.value.getWeightOfVisitedPath() <= limit)
+                entries.put(entry.key, entry.value);
+        }
+        // shortcuts between border nodes are only taken within the limit, so the nodes they reach are already selected
+        for (int i = 0; i < relaxedEntries.size(); i++) {
+            SPTEntry relaxedEntry = relaxedEntries.get(i);
+            if (relaxedEntry.getWeightOfVisitedPath() <= limit || relaxedEntry.parent.getWeightOfVisitedPath() > limit)
+                continue;
+            SPTEntry entry = entries.get(relaxedIds.get(i));
+            if (entry == null || entry.getWeightOfVisitedPath() > relaxedEntry.getWeightOfVisitedPath())
+                entries.put(relaxedIds.get(i), relaxedEntry);
+        }
+        return entries;
+    }
+
+    /**
+     * Keeps every relaxed edge, so that the entries of smaller limits can be taken from this search with
+     * {@link #getFromMap(double)}.
+     */
+    public void setRecordRelaxations(boolean recordRelaxations) {
+        this.recordRelaxations = recordRelaxations;
+    }
+
     @Override
     protected boolean finished() {
         return isLimitExceeded();
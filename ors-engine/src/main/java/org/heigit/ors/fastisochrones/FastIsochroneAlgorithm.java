@@ -32,6 +32,9 @@ import java.util.*;
 /**
  * Implementation of Fast Isochrones
  * <p>
+ * The start cell and the core are searched once up to the isochrone limit. The nodes of any smaller limit can afterwards
+ * be selected with {@link #selectIsochroneLimit(double)}, which reuses this search so that several ranges can be built
+ * from it. Only the active cells, which are bounded by the cell size, are searched again for each selected limit.
  *
  * @author Hendrik Leuschner
  */
@@ -43,6 +46,10 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
     protected Set<Integer> fullyReachableCells;
     protected Map<Integer, Map<Integer, Double>> upAndCoreGraphDistMap;
     protected Map<Integer, IntObjectMap<SPTEntry>> activeCellMaps;
+    // search up to the isochrone limit, from which the start cell and core nodes of each selected limit are taken
+    private CoreRangeDijkstra coreRangeDijkstra;
+    private boolean recordRelaxations = false;
+    private double selectedLimit = Double.NaN;
     int from;
     int fromNonVirtual;
 
@@ -67,16 +74,12 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
         this.from = from;
         this.fromNonVirtual = fromNonVirtual;
         this.isochroneLimit = isochroneLimit;
-        activeBorderNodes = new HashSet<>();
-        inactiveBorderNodes = new HashSet<>();
-        fullyReachableCells = new HashSet<>();
-        upAndCoreGraphDistMap = new HashMap<>();
     }
 
     @Override
     void runStartCellPhase() {
         int startCell = isochroneNodeStorage.getCellId(fromNonVirtual);
-        CoreRangeDijkstra coreRangeDijkstra = new CoreRangeDijkstra(graph, weighting, isochroneNodeStorage, borderNodeDistanceStorage);
+        coreRangeDijkstra = new CoreRangeDijkstra(graph, weighting, isochroneNodeStorage, borderNodeDistanceStorage);
         EdgeFilterSequence edgeFilterSequence = new EdgeFilterSequence();
         if (additionalEdgeFilter != null)
             edgeFilterSequence.add(additionalEdgeFilter);
@@ -87,10 +90,42 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
         );
         coreRangeDijkstra.setEdgeFilter(edgeFilterSequence);
         coreRangeDijkstra.setIsochroneLimit(isochroneLimit);
+        coreRangeDijkstra.setRecordRelaxations(recordRelaxations);
         coreRangeDijkstra.initFrom(from);
         coreRangeDijkstra.runAlgo();
-        startCellMap = coreRangeDijkstra.getFromMap();
-        findFullyReachableCells(startCellMap);
+    }
+
+    /**
+     * Keeps the relaxations of the search, which is needed to select limits smaller than the search limit. Has to be
+     * set before calcIsochroneNodes. The search limit is then not selected by calcIsochroneNodes, so that the active
+     * cells are only searched for the limits selected with {@link #selectIsochroneLimit(double)}.
+     */
+    public void setRecordRelaxations(boolean recordRelaxations) {
+        this.recordRelaxations = recordRelaxations;
+    }
+
+    /**
+     * Selects the nodes, fully reachable cells and active cells for a limit up to the one the search was run with.
+     * Active cells are searched for each selected limit from the border nodes that are active for it. Selecting the
+     * limit that is already selected keeps the current selection.
+     *
+     * @param limit the isochrone limit, must not be greater than the limit passed to calcIsochroneNodes
+     */
+    public void selectIsochroneLimit(double limit) {
+        if (limit > isochroneLimit)
+            throw new IllegalArgumentException("Limit " + limit + " exceeds the search limit " + isochroneLimit);
+        if (limit == selectedLimit)
+            return;
+        selectedLimit = limit;
+
+        activeBorderNodes = new HashSet<>();
+        inactiveBorderNodes = new HashSet<>();
+        fullyReachableCells = new HashSet<>();
+        upAndCoreGraphDistMap = new HashMap<>();
+
+        int startCell = isochroneNodeStorage.getCellId(fromNonVirtual);
+        startCellMap = coreRangeDijkstra.getFromMap(limit);
+        findFullyReachableCells(startCellMap, limit);
 
         for (int inactiveBorderNode : inactiveBorderNodes) {
             startCellMap.remove(inactiveBorderNode);
@@ -98,7 +133,7 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
         }
 
         for (int sweepEndNode : activeBorderNodes) {
-            double dist = coreRangeDijkstra.fromMap.get(sweepEndNode).getWeightOfVisitedPath();
+            double dist = startCellMap.get(sweepEndNode).getWeightOfVisitedPath();
             int cell = isochroneNodeStorage.getCellId(sweepEndNode);
             if (cell == startCell)
                 continue;
@@ -107,6 +142,20 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
             upAndCoreGraphDistMap.get(cell).put(sweepEndNode, dist);
             startCellMap.remove(sweepEndNode);
         }
+
+        activeCellMaps = new HashMap<>(upAndCoreGraphDistMap.entrySet().size());
+        activeCellMaps.put(startCell, startCellMap);
+        for (Map.Entry<Integer, Map<Integer, Double>> entry : upAndCoreGraphDistMap.entrySet()) {
+            ActiveCellDijkstra activeCellDijkstra = new ActiveCellDijkstra(graph, weighting, isochroneNodeStorage, entry.getKey());
+            activeCellDijkstra.setIsochroneLimit(limit);
+            //Add all the start points with their respective already visited weight
+            for (int nodeId : entry.getValue().keySet()) {
+                activeCellDijkstra.addInitialBordernode(nodeId, entry.getValue().get(nodeId));
+            }
+            activeCellDijkstra.init();
+            activeCellDijkstra.runAlgo();
+            activeCellMaps.put(entry.getKey(), activeCellDijkstra.getFromMap());
+        }
     }
 
     @Override
@@ -130,19 +179,8 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
 
     @Override
     void runActiveCellPhase() {
-        activeCellMaps = new HashMap<>(upAndCoreGraphDistMap.entrySet().size());
-        activeCellMaps.put(isochroneNodeStorage.getCellId(fromNonVirtual), startCellMap);
-        for (Map.Entry<Integer, Map<Integer, Double>> entry : upAndCoreGraphDistMap.entrySet()) {
-            ActiveCellDijkstra activeCellDijkstra = new ActiveCellDijkstra(graph, weighting, isochroneNodeStorage, entry.getKey());
-            activeCellDijkstra.setIsochroneLimit(isochroneLimit);
-            //Add all the start points with their respective already visited weight
-            for (int nodeId : entry.getValue().keySet()) {
-                activeCellDijkstra.addInitialBordernode(nodeId, entry.getValue().get(nodeId));
-            }
-            activeCellDijkstra.init();
-            activeCellDijkstra.runAlgo();
-            activeCellMaps.put(entry.getKey(), activeCellDijkstra.getFromMap());
-        }
+        if (!recordRelaxations)
+            selectIsochroneLimit(isochroneLimit);
     }
 
     @Override
@@ -150,7 +188,7 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
         return false;
     }
 
-    private void findFullyReachableCells(IntObjectMap<SPTEntry> entryMap) {
+    private void findFullyReachableCells(IntObjectMap<SPTEntry> entryMap, double limit) {
         for (IntObjectCursor<SPTEntry> entry : entryMap) {
             int baseNode = entry.key;
             if (!isochroneNodeStorage.getBorderness(baseNode))
@@ -158,7 +196,7 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
             SPTEntry sptEntry = entry.value;
             int baseCell = isochroneNodeStorage.getCellId(baseNode);
             int eccentricity = eccentricityStorage.getEccentricity(baseNode);
-            if (isWithinLimit(sptEntry, eccentricity)
+            if (isWithinLimit(sptEntry, eccentricity, limit)
                     && eccentricityStorage.getFullyReachable(baseNode)) {
                 addFullyReachableCell(baseCell);
                 addInactiveBorderNode(baseNode);
@@ -176,6 +214,8 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
      * @param approximation factor of approximation. 1 means all nodes must be found, 0 means no nodes have to be found.
      */
     public void approximateActiveCells(double approximation) {
+        // the selection is changed, so selecting the same limit again has to search the active cells again
+        selectedLimit = Double.NaN;
         Iterator<Map.Entry<Integer, IntObjectMap<SPTEntry>>> activeCellIterator = getActiveCellMaps().entrySet().iterator();
         while (activeCellIterator.hasNext()) {
             Map.Entry<Integer, IntObjectMap<SPTEntry>> activeCell = activeCellIterator.next();
@@ -186,8 +226,8 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
         }
     }
 
-    private boolean isWithinLimit(SPTEntry sptEntry, int eccentricity) {
-        return sptEntry.getWeightOfVisitedPath() + eccentricity <= isochroneLimit;
+    private boolean isWithinLimit(SPTEntry sptEntry, int eccentricity, double limit) {
+        return sptEntry.getWeightOfVisitedPath() + eccentricity <= limit;
     }
 
     private void addFullyReachableCell(int cellId) {
@@ -22,6 +22,7 @@ import org.heigit.ors.routing.WeightingMethod;
 import org.locationtech.jts.geom.Coordinate;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 public class IsochroneRequest extends ServiceRequest {
     private final List<TravellerInfo> travellers;
@@ -43,6 +44,7 @@ public class IsochroneRequest extends ServiceRequest {
     private int maximumRangeTimeDefaultFastisochrones;
     private Map<Integer, Integer> profileMaxRangeTimesFastisochrones;
     private Map<String, StatisticsProviderConfiguration> statsProviders;
+    private ExecutorService intervalExecutor;
 
     public IsochroneRequest() {
         travellers = new ArrayList<>();
@@ -150,6 +152,7 @@ public class IsochroneRequest extends ServiceRequest {
             parameters.setReverseDirection(true);
         parameters.setSmoothingFactor(smoothingFactor);
         parameters.setStatsProviders(statsProviders);
+        parameters.setIntervalExecutor(intervalExecutor);
         return parameters;
     }
 
@@ -273,4 +276,12 @@ public class IsochroneRequest extends ServiceRequest {
     public void setStatsProviders(Map<String, StatisticsProviderConfiguration> statsProviders) {
         this.statsProviders = statsProviders;
     }
+
+    public ExecutorService getIntervalExecutor() {
+        return intervalExecutor;
+    }
+
+    public void setIntervalExecutor(ExecutorService intervalExecutor) {
+        this.intervalExecutor = intervalExecutor;
+    }
 }
@@ -19,6 +19,7 @@ import org.heigit.ors.routing.RouteSearchParameters;
 import org.locationtech.jts.geom.Coordinate;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 public class IsochroneSearchParameters {
     private final int travellerId;
@@ -33,6 +34,7 @@ public class IsochroneSearchParameters {
     private String units;
     private String areaUnits;
     private Map<String, StatisticsProviderConfiguration> statsProviders;
+    private ExecutorService intervalExecutor;
 
     public boolean hasAttribute(String attr) {
         if (attributes == null || attr == null)
@@ -161,4 +163,16 @@ public class IsochroneSearchParameters {
     public void setStatsProviders(Map<String, StatisticsProviderConfiguration> statsProviders) {
         this.statsProviders = statsProviders;
     }
+
+    /**
+     * @return the executor used to compute the intervals of the isochrone concurrently, or null to compute them one
+     * after another
+     */
+    public ExecutorService getIntervalExecutor() {
+        return intervalExecutor;
+    }
+
+    public void setIntervalExecutor(ExecutorService intervalExecutor) {
+        this.intervalExecutor = intervalExecutor;
+    }
 }
@@ -14,13 +14,24 @@
 package org.heigit.ors.isochrones;
 
 import org.heigit.ors.common.Pair;
-import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+/**
+ * Computes the pairwise intersections of the isochrones of different maps. Candidate pairs are found with an STR-tree
+ * over the envelopes of all isochrones and checked with a prepared geometry before the intersection is computed, so
+ * that only isochrones which actually overlap are intersected.
+ */
 public class IsochroneUtility {
     private IsochroneUtility() {
     }
@@ -30,74 +41,109 @@ public class IsochroneUtility {
         if (isochroneMaps.size() == 1)
             return result;
 
-        int im = 0;
-        for (IsochroneMap isoMap : isochroneMaps.getIsochroneMaps()) {
-            int ii = 0;
-            for (Isochrone isoLine : isoMap.getIsochrones()) {
-                List<IsochronesIntersection> isoIntersection = computeIntersection(isoLine, ii, isoMap, im, isochroneMaps);
-                if (!isoIntersection.isEmpty()) {
-                    result.addAll(isoIntersection);
-                }
-                ii++;
+        List<IndexedIsochrone> isochrones = listIsochrones(isochroneMaps);
+        STRtree index = createIndex(isochrones);
+        for (IndexedIsochrone isochrone : isochrones)
+            result.addAll(computeIntersections(isochrone, index));
+        return result;
+    }
+
+    /**
+     * Computes the intersections with each isochrone in a separate task on the given executor. The result is the same
+     * as that of {@link #computeIntersections(IsochroneMapCollection)}.
+     */
+    public static List<IsochronesIntersection> computeIntersections(IsochroneMapCollection isochroneMaps, ExecutorService executor) throws Exception {
+        if (executor == null || isochroneMaps.size() == 1)
+            return computeIntersections(isochroneMaps);
+
+        List<IndexedIsochrone> isochrones = listIsochrones(isochroneMaps);
+        STRtree index = createIndex(isochrones);
+        List<Future<List<IsochronesIntersection>>> futures = new ArrayList<>(isochrones.size());
+        try {
+            for (IndexedIsochrone isochrone : isochrones) {
+                // the isochrones of the last map have no successors to intersect with
+                if (isochrone.mapIndex < isochroneMaps.size() - 1)
+                    futures.add(executor.submit(() -> computeIntersections(isochrone, index)));
             }
-            im++;
+
+            List<IsochronesIntersection> result = new ArrayList<>();
+            for (Future<List<IsochronesIntersection>> future : futures)
+                result.addAll(future.get());
+            return result;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            for (Future<List<IsochronesIntersection>> future : futures)
+                future.cancel(true);
         }
+    }
 
-        // Find intersections between IsochronesIntersection objects
-        if (result.size() > 1) {
-            List<IsochronesIntersection> isoIntersections = new ArrayList<>();
-            int i = 0;
-            for (IsochronesIntersection isoIntersection : result) {
-                List<IsochronesIntersection> overlaps = computeIntersection(isoIntersection, i, result);
-                if (!overlaps.isEmpty()) {
-                    isoIntersections.addAll(overlaps);
-                }
-                i++;
-            }
-            if (!isoIntersections.isEmpty())
-                result.addAll(isoIntersections);
+    private static List<IndexedIsochrone> listIsochrones(IsochroneMapCollection isochroneMaps) {
+        List<IndexedIsochrone> result = new ArrayList<>();
+        for (int im = 0; im < isochroneMaps.size(); im++) {
+            IsochroneMap isoMap = isochroneMaps.getIsochrone(im);
+            int ii = 0;
+            for (Isochrone isoLine : isoMap.getIsochrones())
+                result.add(new IndexedIsochrone(result.size(), im, ii++, isoMap, isoLine));
         }
         return result;
     }
 
-    private static List<IsochronesIntersection> computeIntersection(IsochronesIntersection isoIntersection, Integer intersectionIndex, List<IsochronesIntersection> intersections) {
+    private static STRtree createIndex(List<IndexedIsochrone> isochrones) {
+        STRtree index = new STRtree();
+        for (IndexedIsochrone isochrone : isochrones)
+            index.insert(isochrone.isochrone.getEnvelope(), isochrone);
+        // build the tree before it is queried by several tasks
+        index.build();
+        return index;
+    }
+
+    /**
+     * @return the intersections of the given isochrone with the isochrones of the following maps, in the order of
+     * their maps and isochrones
+     */
+    private static List<IsochronesIntersection> computeIntersections(IndexedIsochrone isochrone, STRtree index) {
         List<IsochronesIntersection> result = new ArrayList<>();
-        for (int i = intersectionIndex + 1; i < intersections.size(); i++) {
-            IsochronesIntersection isoIntersection2 = intersections.get(i);
-            if (isoIntersection.intersects(isoIntersection2)) {
-                Geometry geomIntersection = isoIntersection.getGeometry().intersection(isoIntersection2.getGeometry());
-                if (geomIntersection != null) {
-                    IsochronesIntersection isoIntersectionNew = new IsochronesIntersection(geomIntersection);
-                    isoIntersectionNew.addContourRefs(isoIntersection.getContourRefs());
-                    isoIntersectionNew.addContourRefs(isoIntersection2.getContourRefs());
-                }
+        List<IndexedIsochrone> candidates = new ArrayList<>();
+        index.query(isochrone.isochrone.getEnvelope(), item -> {
+            IndexedIsochrone candidate = (IndexedIsochrone) item;
+            if (candidate.mapIndex > isochrone.mapIndex && !Objects.equals(candidate.map, isochrone.map))
+                candidates.add(candidate);
+        });
+        if (candidates.isEmpty())
+            return result;
+        candidates.sort(Comparator.comparingInt(candidate -> candidate.position));
+
+        Geometry isoGeometry = isochrone.isochrone.getGeometry();
+        PreparedGeometry preparedGeometry = PreparedGeometryFactory.prepare(isoGeometry);
+        for (IndexedIsochrone candidate : candidates) {
+            Geometry candidateGeometry = candidate.isochrone.getGeometry();
+            if (!preparedGeometry.intersects(candidateGeometry))
+                continue;
+            Geometry geomIntersection = isoGeometry.intersection(candidateGeometry);
+            if (geomIntersection != null && !geomIntersection.isEmpty()) {
+                IsochronesIntersection isoIntersection = new IsochronesIntersection(geomIntersection);
+                isoIntersection.addContourRefs(new Pair<>(isochrone.mapIndex, isochrone.isoIndex));
+                isoIntersection.addContourRefs(new Pair<>(candidate.mapIndex, candidate.isoIndex));
+                result.add(isoIntersection);
             }
         }
         return result;
     }
 
-    private static List<IsochronesIntersection> computeIntersection(Isochrone isoLine, Integer isoIndex, IsochroneMap isoMap, Integer isoMapIndex, IsochroneMapCollection isochroneMaps) {
-        List<IsochronesIntersection> result = new ArrayList<>();
-        Envelope isoEnvelope = isoLine.getEnvelope();
-        Geometry isoGeometry = isoLine.getGeometry();
-        for (int im = isoMapIndex + 1; im < isochroneMaps.size(); im++) {
-            IsochroneMap isoMap2 = isochroneMaps.getIsochrone(im);
-            if (!Objects.equals(isoMap2, isoMap) && isoMap2.getEnvelope().intersects(isoEnvelope)) {
-                int ii = 0;
-                for (Isochrone isoLine2 : isoMap2.getIsochrones()) {
-                    if (isoEnvelope.intersects(isoLine2.getEnvelope())) {
-                        Geometry geomIntersection = isoGeometry.intersection(isoLine2.getGeometry());
-                        if (geomIntersection != null && !geomIntersection.isEmpty()) {
-                            IsochronesIntersection isoIntersection = new IsochronesIntersection(geomIntersection);
-                            isoIntersection.addContourRefs(new Pair<>(isoMapIndex, isoIndex));
-                            isoIntersection.addContourRefs(new Pair<>(im, ii));
-                            result.add(isoIntersection);
-                        }
-                    }
-                    ii++;
-                }
-            }
+    private static class IndexedIsochrone {
+        private final int position;
+        private final int mapIndex;
+        private final int isoIndex;
+        private final IsochroneMap map;
+        private final Isochrone isochrone;
+
+        private IndexedIsochrone(int position, int mapIndex, int isoIndex, IsochroneMap map, Isochrone isochrone) {
+            this.position = position;
+            this.mapIndex = mapIndex;
+            this.isoIndex = isoIndex;
+            this.map = map;
+            this.isochrone = isochrone;
         }
-        return result;
     }
 }
@@ -44,19 +44,16 @@ import org.opensphere.geometry.algorithm.ConcaveHullOpenSphere;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
     private static final Logger LOGGER = Logger.getLogger(ConcaveBallsIsochroneMapBuilder.class.getName());
     private static final boolean BUFFERED_OUTPUT = true;
     private static final DistanceCalc dcFast = new DistancePlaneProjection();
-    private double searchWidth = 0.0007;
-    private double pointWidth = 0.0005;
-    private double visitorThreshold = 0.0013;
-    private final Envelope searchEnv = new Envelope();
     private GeometryFactory geometryFactory;
-    private PointItemVisitor visitor = null;
     private List<Coordinate> prevIsoPoints = null;
-    private TreeSet<Coordinate> treeSet;
 
     private RouteSearchContext searchContext;
 
@@ -118,10 +115,6 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
         if (edgeMap.isEmpty())
             return isochroneMap;
 
-        treeSet = new TreeSet<>();
-
-        List<Coordinate> isoPoints = new ArrayList<>((int) (1.2 * edgeMap.getMap().size()));
-
         if (LOGGER.isDebugEnabled()) {
             sw = new StopWatch();
             sw.start();
@@ -140,48 +133,70 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
         // only needed for reachfactor property
         double meanMetersPerSecond = meanSpeed / 3.6;
 
-        double prevCost = 0;
-        for (int i = 0; i < nRanges; i++) {
-            double isoValue = parameters.getRanges()[i];
-            double isochronesDifference = parameters.getRanges()[i];
-            if (i > 0)
-                isochronesDifference = isochronesDifference - parameters.getRanges()[i - 1];
+        // The points of each interval only depend on the edge map, so with an interval executor they are collected
+        // concurrently. The hulls are built one after another, as each one includes the hull of the previous interval.
+        ExecutorService intervalExecutor = parameters.getIntervalExecutor();
+        List<Future<List<Coordinate>>> futures = new ArrayList<>(nRanges);
+        try {
+            if (intervalExecutor != null && nRanges > 1) {
+                for (int i = 0; i < nRanges; i++) {
+                    int interval = i;
+                    futures.add(intervalExecutor.submit(() -> buildIntervalPoints(edgeMap, parameters, interval, loc, metersPerSecond)));
+                }
+            }
 
-            float smoothingFactor = parameters.getSmoothingFactor();
-            TravelRangeType isochroneType = parameters.getRangeType();
+            for (int i = 0; i < nRanges; i++) {
+                double isoValue = parameters.getRanges()[i];
+                float smoothingFactor = parameters.getSmoothingFactor();
 
-            if (LOGGER.isDebugEnabled()) {
-                sw = new StopWatch();
-                sw.start();
-            }
+                if (LOGGER.isDebugEnabled()) {
+                    sw = new StopWatch();
+                    sw.start();
+                }
 
-            double maxRadius;
-            double meanRadius;
-            if (isochroneType == TravelRangeType.DISTANCE) {
-                maxRadius = isoValue;
-                meanRadius = isoValue;
-            } else {
-                maxRadius = metersPerSecond * isoValue;
-                meanRadius = meanMetersPerSecond * isoValue;
-                isochronesDifference = metersPerSecond * isochronesDifference;
-            }
+                double maxRadius;
+                double meanRadius;
+                if (parameters.getRangeType() == TravelRangeType.DISTANCE) {
+                    maxRadius = isoValue;
+                    meanRadius = isoValue;
+                } else {
+                    maxRadius = metersPerSecond * isoValue;
+                    meanRadius = meanMetersPerSecond * isoValue;
+                }
 
-            Coordinate[] points = buildIsochrone(edgeMap, isoPoints, loc.x, loc.y, isoValue, prevCost, isochronesDifference, 0.85);
+                List<Coordinate> intervalPoints;
+                if (futures.isEmpty()) {
+                    intervalPoints = buildIntervalPoints(edgeMap, parameters, i, loc, metersPerSecond);
+                } else {
+                    try {
+                        intervalPoints = futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        throw e.getCause() instanceof Exception cause ? cause : e;
+                    }
+                }
 
-            if (LOGGER.isDebugEnabled()) {
-                sw.stop();
-                LOGGER.debug(i + " Find points: " + sw.getSeconds() + " " + points.length);
+                List<Coordinate> isoPoints = new ArrayList<>((prevIsoPoints == null ? 0 : prevIsoPoints.size()) + intervalPoints.size());
+                if (prevIsoPoints != null)
+                    isoPoints.addAll(prevIsoPoints);
+                isoPoints.addAll(intervalPoints);
+                Coordinate[] points = isoPoints.toArray(new Coordinate[0]);
 
-                sw = new StopWatch();
-                sw.start();
-            }
+                if (LOGGER.isDebugEnabled()) {
+                    sw.stop();
+                    LOGGER.debug(i + " Find points: " + sw.getSeconds() + " " + points.length);
 
-            addIsochrone(isochroneMap, points, isoValue, maxRadius, meanRadius, smoothingFactor);
+                    sw = new StopWatch();
+                    sw.start();
+                }
 
-            if (LOGGER.isDebugEnabled())
-                LOGGER.debug("Build concave hull total: " + sw.stop().getSeconds());
+                addIsochrone(isochroneMap, points, isoValue, maxRadius, meanRadius, smoothingFactor);
 
-            prevCost = isoValue;
+                if (LOGGER.isDebugEnabled())
+                    LOGGER.debug("Build concave hull total: " + sw.stop().getSeconds());
+            }
+        } finally {
+            for (Future<List<Coordinate>> future : futures)
+                future.cancel(true);
         }
 
         if (LOGGER.isDebugEnabled())
@@ -190,6 +205,20 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
         return isochroneMap;
     }
 
+    /**
+     * Collects the points of the given interval, without the points of the previous hull.
+     */
+    private List<Coordinate> buildIntervalPoints(AccessibilityMap edgeMap, IsochroneSearchParameters parameters, int interval, Coordinate loc, double metersPerSecond) {
+        double[] ranges = parameters.getRanges();
+        double isoValue = ranges[interval];
+        double prevCost = interval > 0 ? ranges[interval - 1] : 0;
+        double isochronesDifference = isoValue - prevCost;
+        if (parameters.getRangeType() != TravelRangeType.DISTANCE)
+            isochronesDifference = metersPerSecond * isochronesDifference;
+
+        return buildIsochrone(edgeMap, loc.x, loc.y, isoValue, prevCost, isochronesDifference, 0.85);
+    }
+
     /**
      * Converts the smoothing factor into a distance (which can be used in algorithms for generating isochrone polygons).
      * The distance value returned is dependent on the radius and smoothing factor.
@@ -222,13 +251,6 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
     }
 
     private void addIsochrone(IsochroneMap isochroneMap, Coordinate[] points, double isoValue, double maxRadius, double meanRadius, float smoothingFactor) {
-        Geometry[] geometries = new Geometry[points.length];
-        for (int i = 0; i < points.length; ++i) {
-            Coordinate c = points[i];
-            geometries[i] = geometryFactory.createPoint(c);
-        }
-        GeometryCollection geometry = new GeometryCollection(geometries, geometryFactory);
-
         if (points.length == 0)
             return;
         StopWatch sw = new StopWatch();
@@ -236,7 +258,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
             sw = new StopWatch();
             sw.start();
         }
-        ConcaveHullOpenSphere concaveHullShell = new ConcaveHullOpenSphere(geometry, convertSmoothingFactorToDistance(smoothingFactor, maxRadius), false);
+        ConcaveHullOpenSphere concaveHullShell = new ConcaveHullOpenSphere(points, convertSmoothingFactorToDistance(smoothingFactor, maxRadius), geometryFactory);
         Geometry shellGeometry = concaveHullShell.getConcaveHull();
         if (shellGeometry instanceof GeometryCollection geomColl) {
             if (geomColl.isEmpty())
@@ -285,72 +307,11 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
         }
     }
 
-    public Boolean addPoint(List<Coordinate> points, Quadtree tree, double lon, double lat, boolean checkNeighbours) {
-        if (checkNeighbours) {
-            visitor.setPoint(lon, lat);
-            searchEnv.init(lon - searchWidth, lon + searchWidth, lat - searchWidth, lat + searchWidth);
-            tree.query(searchEnv, visitor);
-            if (!visitor.isNeighbourFound()) {
-                Coordinate p = new Coordinate(lon, lat);
-
-                if (!treeSet.contains(p)) {
-                    Envelope env = new Envelope(lon - pointWidth, lon + pointWidth, lat - pointWidth, lat + pointWidth);
-                    tree.insert(env, p);
-                    points.add(p);
-                    treeSet.add(p);
-
-                    return true;
-                }
-            }
-        } else {
-            Coordinate p = new Coordinate(lon, lat);
-            if (!treeSet.contains(p)) {
-                Envelope env = new Envelope(lon - pointWidth, lon + pointWidth, lat - pointWidth, lat + pointWidth);
-                tree.insert(env, p);
-                points.add(p);
-                treeSet.add(p);
-
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    private void addBufferPoints(List<Coordinate> points, Quadtree tree, double lon0, double lat0, double lon1,
-                                 double lat1, boolean addLast, boolean checkNeighbours, double bufferSize) {
-        double dx = (lon0 - lon1);
-        double dy = (lat0 - lat1);
-        double normLength = Math.sqrt((dx * dx) + (dy * dy));
-        double scale = bufferSize / normLength;
-
-        double dx2 = -dy * scale;
-        double dy2 = dx * scale;
-
-        addPoint(points, tree, lon0 + dx2, lat0 + dy2, checkNeighbours);
-        addPoint(points, tree, lon0 - dx2, lat0 - dy2, checkNeighbours);
-
-        // add a middle point if two points are too far from each other
-        if (normLength > 2 * bufferSize) {
-            addPoint(points, tree, (lon0 + lon1) / 2.0 + dx2, (lat0 + lat1) / 2.0 + dy2, checkNeighbours);
-            addPoint(points, tree, (lon0 + lon1) / 2.0 - dx2, (lat0 + lat1) / 2.0 - dy2, checkNeighbours);
-        }
-
-        if (addLast) {
-            addPoint(points, tree, lon1 + dx2, lat1 + dy2, checkNeighbours);
-            addPoint(points, tree, lon1 - dx2, lat1 - dy2, checkNeighbours);
-        }
-    }
-
-    private Coordinate[] buildIsochrone(AccessibilityMap edgeMap, List<Coordinate> points, double lon, double lat,
-                                        double isolineCost, double prevCost, double isochronesDifference, double detailedGeomFactor) {
+    private List<Coordinate> buildIsochrone(AccessibilityMap edgeMap, double lon, double lat,
+                                            double isolineCost, double prevCost, double isochronesDifference, double detailedGeomFactor) {
         IntObjectMap<SPTEntry> map = edgeMap.getMap();
 
-        points.clear();
-        treeSet.clear();
-
-        if (prevIsoPoints != null)
-            points.addAll(prevIsoPoints);
+        IntervalPoints points = new IntervalPoints(lon, lat, (int) (1.2 * map.size()));
 
         GraphHopperStorage graph = searchContext.getGraphHopper().getGraphHopperStorage();
         NodeAccess nodeAccess = graph.getNodeAccess();
@@ -358,8 +319,6 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
         int maxEdgeId = graph.getEdges() - 1;
 
         double bufferSize = 0.0018;
-        Quadtree qtree = new Quadtree();
-        visitor = new PointItemVisitor(lon, lat, visitorThreshold);
         double detailedZone = isolineCost * detailedGeomFactor;
 
         double defaultSearchWidth = 0.0008;
@@ -403,11 +362,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
             if (minCost < prevCost && isochronesDifference > 1000)
                 continue;
 
-            searchWidth = defaultSearchWidth;
-            visitorThreshold = defaultVisitorThreshold;
-            pointWidth = defaulPointWidth;
-
-            visitor.setThreshold(visitorThreshold);
+            points.setWidths(defaultSearchWidth, defaulPointWidth, defaultVisitorThreshold);
 
             EdgeIteratorState iter = graph.getEdgeIteratorState(edgeId, nodeId);
 
@@ -445,7 +400,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
                                     lat1 = pl.getLat(i);
                                     lon1 = pl.getLon(i);
 
-                                    addBufferPoints(points, qtree, lon0, lat0, lon1, lat1, goalEdge.edge < 0 && i == size - 1, true, bufferSize);
+                                    points.addBufferPoints(lon0, lat0, lon1, lat1, goalEdge.edge < 0 && i == size - 1, true, bufferSize);
 
                                     lon0 = lon1;
                                     lat0 = lat1;
@@ -455,9 +410,9 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
                                     lat1 = pl.getLat(i);
                                     lon1 = pl.getLon(i);
 
-                                    addPoint(points, qtree, lon0, lat0, true);
+                                    points.addPoint(lon0, lat0, true);
                                     if (i == size - 1)
-                                        addPoint(points, qtree, lon1, lat1, true);
+                                        points.addPoint(lon1, lat1, true);
 
                                     lon0 = lon1;
                                     lat0 = lat1;
@@ -465,7 +420,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
                             }
                         }
                     } else {
-                        addPoint(points, qtree, nodeAccess.getLon(nodeId), nodeAccess.getLat(nodeId), true);
+                        points.addPoint(nodeAccess.getLon(nodeId), nodeAccess.getLat(nodeId), true);
                     }
                 }
             } else {
@@ -509,14 +464,14 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
                                     double lon2 = lon0 + segLength * (lon1 - lon0);
                                     double lat2 = lat0 + segLength * (lat1 - lat0);
 
-                                    addBufferPoints(points, qtree, lon0, lat0, lon2, lat2, true, false, bufferSize);
+                                    points.addBufferPoints(lon0, lat0, lon2, lat2, true, false, bufferSize);
 
                                     break;
                                 } else {
-                                    addBufferPoints(points, qtree, lon0, lat0, lon1, lat1, false, true, bufferSize);
+                                    points.addBufferPoints(lon0, lat0, lon1, lat1, false, true, bufferSize);
                                 }
                             } else {
-                                addPoint(points, qtree, lon0, lat0, true);
+                                points.addPoint(lon0, lat0, true);
                             }
 
                             lat0 = lat1;
@@ -529,13 +484,7 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
         if (LOGGER.isDebugEnabled())
             LOGGER.debug("Expanding edges " + sw.getSeconds());
 
-        Coordinate[] coordinates = new Coordinate[points.size()];
-
-        for (int i = 0; i < points.size(); ++i) {
-            Coordinate c = points.get(i);
-            coordinates[i] = c;
-        }
-        return coordinates;
+        return points.points;
     }
 
     private void copyConvexHullPoints(Polygon poly) {
@@ -577,4 +526,75 @@ public class ConcaveBallsIsochroneMapBuilder implements IsochroneMapBuilder {
             }
         }
     }
+
+    /**
+     * Points collected for one interval. Points which are too close to an already added point are skipped; each
+     * interval has its own instance, so that several intervals can be collected at the same time.
+     */
+    private static class IntervalPoints {
+        private final List<Coordinate> points;
+        private final Quadtree tree = new Quadtree();
+        private final TreeSet<Coordinate> treeSet = new TreeSet<>();
+        private final Envelope searchEnv = new Envelope();
+        private final PointItemVisitor visitor;
+        private double searchWidth = 0.0007;
+        private double pointWidth = 0.0005;
+
+        IntervalPoints(double lon, double lat, int capacity) {
+            points = new ArrayList<>(capacity);
+            visitor = new PointItemVisitor(lon, lat, 0.0013);
+        }
+
+        void setWidths(double searchWidth, double pointWidth, double visitorThreshold) {
+            this.searchWidth = searchWidth;
+            this.pointWidth = pointWidth;
+            visitor.setThreshold(visitorThreshold);
+        }
+
+        boolean addPoint(double lon, double lat, boolean checkNeighbours) {
+            if (checkNeighbours) {
+                visitor.setPoint(lon, lat);
+                searchEnv.init(lon - searchWidth, lon + searchWidth, lat - searchWidth, lat + searchWidth);
+                tree.query(searchEnv, visitor);
+                if (visitor.isNeighbourFound())
+                    return false;
+            }
+
+            Coordinate p = new Coordinate(lon, lat);
+            if (!treeSet.contains(p)) {
+                Envelope env = new Envelope(lon - pointWidth, lon + pointWidth, lat - pointWidth, lat + pointWidth);
+                tree.insert(env, p);
+                points.add(p);
+                treeSet.add(p);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        void addBufferPoints(double lon0, double lat0, double lon1, double lat1, boolean addLast, boolean checkNeighbours, double bufferSize) {
+            double dx = (lon0 - lon1);
+            double dy = (lat0 - lat1);
+            double normLength = Math.sqrt((dx * dx) + (dy * dy));
+            double scale = bufferSize / normLength;
+
+            double dx2 = -dy * scale;
+            double dy2 = dx * scale;
+
+            addPoint(lon0 + dx2, lat0 + dy2, checkNeighbours);
+            addPoint(lon0 - dx2, lat0 - dy2, checkNeighbours);
+
+            // add a middle point if two points are too far from each other
+            if (normLength > 2 * bufferSize) {
+                addPoint((lon0 + lon1) / 2.0 + dx2, (lat0 + lat1) / 2.0 + dy2, checkNeighbours);
+                addPoint((lon0 + lon1) / 2.0 - dx2, (lat0 + lat1) / 2.0 - dy2, checkNeighbours);
+            }
+
+            if (addLast) {
+                addPoint(lon1 + dx2, lat1 + dy2, checkNeighbours);
+                addPoint(lon1 - dx2, lat1 - dy2, checkNeighbours);
+            }
+        }
+    }
 }
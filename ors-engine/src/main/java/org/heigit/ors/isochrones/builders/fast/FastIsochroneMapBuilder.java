@@ -157,22 +157,31 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
         int nRanges = parameters.getRanges().length;
         IsochroneMap isochroneMap = null;
 
+        //Account for snapping distance
+        double[] isolimits = new double[nRanges];
+        double maxIsolimit = 0;
         for (int i = 0; i < nRanges; i++) {
-            FastIsochroneAlgorithm fastIsochroneAlgorithm = new FastIsochroneAlgorithm(
-                    queryGraph,
-                    weighting,
-                    TraversalMode.NODE_BASED,
-                    cellStorage,
-                    isochroneNodeStorage,
-                    ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getEccentricityStorage(weighting),
-                    ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getBorderNodeDistanceStorage(weighting),
-                    edgeFilterSequence);
-            //Account for snapping distance
-            double isolimit = parameters.getRanges()[i] - weighting.getMinWeight(res.getQueryDistance());
-            if (isolimit <= 0)
+            isolimits[i] = parameters.getRanges()[i] - weighting.getMinWeight(res.getQueryDistance());
+            if (isolimits[i] <= 0)
                 throw new IllegalStateException("Distance of query to snapped position is greater than isochrone limit!");
+            maxIsolimit = Math.max(maxIsolimit, isolimits[i]);
+        }
+
+        //Search once up to the largest range, the nodes of all ranges are selected from this search
+        FastIsochroneAlgorithm fastIsochroneAlgorithm = new FastIsochroneAlgorithm(
+                queryGraph,
+                weighting,
+                TraversalMode.NODE_BASED,
+                cellStorage,
+                isochroneNodeStorage,
+                ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getEccentricityStorage(weighting),
+                ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getBorderNodeDistanceStorage(weighting),
+                edgeFilterSequence);
+        fastIsochroneAlgorithm.setRecordRelaxations(nRanges > 1);
+        fastIsochroneAlgorithm.calcIsochroneNodes(from, nonvirtualClosestNode, maxIsolimit);
 
-            fastIsochroneAlgorithm.calcIsochroneNodes(from, nonvirtualClosestNode, isolimit);
+        for (int i = 0; i < nRanges; i++) {
+            fastIsochroneAlgorithm.selectIsochroneLimit(isolimits[i]);
 
             Set<Geometry> isochroneGeometries = new HashSet<>();
 
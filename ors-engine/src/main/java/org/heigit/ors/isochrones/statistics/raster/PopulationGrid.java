@@ -0,0 +1,320 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.statistics.raster;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.plugins.tiff.TIFFDirectory;
+import javax.imageio.plugins.tiff.TIFFField;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Population counts on a regular grid, which can be summed up over polygons given in the coordinates of the grid.
+ * <p>
+ * Every row of the grid is stored as summed-area table, i.e. entry {@code c} holds the sum of the cells left of column
+ * {@code c}, so that the sum of any run of cells in a row is the difference of two entries. The sum over a polygon is
+ * computed by intersecting it with the centre line of every row it covers and adding up the runs of cells whose
+ * centres lie inside, like the default (not touched) behaviour of {@code ST_Clip}.
+ * <p>
+ * Grids are either read from a GeoTIFF or memory mapped from a file in the native format written by
+ * {@link #create(double, double, double, double, int, int, RowReader, Path)}: a header with the grid geometry followed
+ * by the summed rows as little endian doubles.
+ */
+public class PopulationGrid {
+    private static final int MAGIC = 0x4F525347;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+    private static final int MAX_CHUNK_DOUBLES = Integer.MAX_VALUE / Double.BYTES;
+    private static final int STRIP_ROWS = 256;
+    private static final int TAG_MODEL_PIXEL_SCALE = 33550;
+    private static final int TAG_MODEL_TIEPOINT = 33922;
+    private static final int TAG_GDAL_NODATA = 42113;
+
+    private final double west;
+    private final double north;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int cols;
+    private final int rows;
+    private final int rowsPerChunk;
+    private final DoubleBuffer[] chunks;
+
+    public interface RowReader {
+        /**
+         * Fills the given array with the values of the cells of a row, rows are read from north to south.
+         */
+        void readRow(int row, double[] values) throws IOException;
+    }
+
+    private PopulationGrid(double west, double north, double cellWidth, double cellHeight, int cols, int rows, DoubleBuffer[] chunks) {
+        this.west = west;
+        this.north = north;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.cols = cols;
+        this.rows = rows;
+        this.rowsPerChunk = getRowsPerChunk(cols);
+        this.chunks = chunks;
+    }
+
+    /**
+     * Creates a grid from the values of its cells. Values which are negative or not a number count as 0.
+     *
+     * @param west     x coordinate of the western edge of the grid
+     * @param north    y coordinate of the northern edge of the grid
+     * @param gridFile file the grid is written to and mapped from, or null to keep the grid on the heap
+     */
+    public static PopulationGrid create(double west, double north, double cellWidth, double cellHeight, int cols, int rows, RowReader reader, Path gridFile) throws IOException {
+        if (cols <= 0 || rows <= 0 || cellWidth <= 0 || cellHeight <= 0)
+            throw new IOException("Invalid population grid of %d x %d cells with a cell size of %f x %f.".formatted(cols, rows, cellWidth, cellHeight));
+
+        int rowsPerChunk = getRowsPerChunk(cols);
+        DoubleBuffer[] chunks = new DoubleBuffer[(rows + rowsPerChunk - 1) / rowsPerChunk];
+        MappedByteBuffer[] mapped = new MappedByteBuffer[chunks.length];
+        // the grid is written to a temporary file first, so that a failed read does not leave a valid but empty grid
+        Path tempFile = gridFile == null ? null : Files.createTempFile(gridFile.toAbsolutePath().getParent(), gridFile.getFileName().toString(), ".tmp");
+        try {
+            if (gridFile == null) {
+                for (int i = 0; i < chunks.length; i++)
+                    chunks[i] = DoubleBuffer.allocate(getChunkRows(i, rowsPerChunk, rows) * (cols + 1));
+            } else {
+                try (RandomAccessFile file = new RandomAccessFile(tempFile.toFile(), "rw"); FileChannel channel = file.getChannel()) {
+                    file.setLength(HEADER_BYTES + (long) rows * (cols + 1) * Double.BYTES);
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(MAGIC).putInt(VERSION).putInt(cols).putInt(rows);
+                    header.putDouble(west).putDouble(north).putDouble(cellWidth).putDouble(cellHeight);
+                    channel.write(header.flip(), 0);
+                    for (int i = 0; i < chunks.length; i++) {
+                        mapped[i] = mapChunk(channel, FileChannel.MapMode.READ_WRITE, i, rowsPerChunk, cols, rows);
+                        chunks[i] = mapped[i].asDoubleBuffer();
+                    }
+                }
+            }
+
+            double[] values = new double[cols];
+            for (int row = 0; row < rows; row++) {
+                reader.readRow(row, values);
+                DoubleBuffer chunk = chunks[row / rowsPerChunk];
+                int offset = (row % rowsPerChunk) * (cols + 1);
+                double sum = 0;
+                chunk.put(offset, 0);
+                for (int col = 0; col < cols; col++) {
+                    if (values[col] > 0)
+                        sum += values[col];
+                    chunk.put(offset + col + 1, sum);
+                }
+            }
+
+            for (MappedByteBuffer buffer : mapped) {
+                if (buffer != null)
+                    buffer.force();
+            }
+            if (tempFile != null)
+                Files.move(tempFile, gridFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (tempFile != null)
+                Files.deleteIfExists(tempFile);
+        }
+        return new PopulationGrid(west, north, cellWidth, cellHeight, cols, rows, chunks);
+    }
+
+    /**
+     * Memory maps a grid written by {@link #create}.
+     */
+    public static PopulationGrid load(Path gridFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(gridFile.toFile(), "r"); FileChannel channel = file.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException("%s is not a population grid.".formatted(gridFile));
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Population grid %s has version %d, expected %d.".formatted(gridFile, version, VERSION));
+            int cols = header.getInt();
+            int rows = header.getInt();
+            double west = header.getDouble();
+            double north = header.getDouble();
+            double cellWidth = header.getDouble();
+            double cellHeight = header.getDouble();
+            if (channel.size() != HEADER_BYTES + (long) rows * (cols + 1) * Double.BYTES)
+                throw new IOException("Population grid %s is truncated.".formatted(gridFile));
+
+            int rowsPerChunk = getRowsPerChunk(cols);
+            DoubleBuffer[] chunks = new DoubleBuffer[(rows + rowsPerChunk - 1) / rowsPerChunk];
+            for (int i = 0; i < chunks.length; i++)
+                chunks[i] = mapChunk(channel, FileChannel.MapMode.READ_ONLY, i, rowsPerChunk, cols, rows).asDoubleBuffer();
+            return new PopulationGrid(west, north, cellWidth, cellHeight, cols, rows, chunks);
+        }
+    }
+
+    /**
+     * Reads the first band of a GeoTIFF, the grid uses the coordinates of its model space. Cells with the GDAL no data
+     * value count as 0.
+     *
+     * @param gridFile file the grid is written to in the native format, or null to keep the grid on the heap
+     */
+    public static PopulationGrid readGeoTiff(Path tiffFile, Path gridFile) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(tiffFile.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext())
+                throw new IOException("%s is not a readable image.".formatted(tiffFile));
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input);
+                TIFFDirectory directory = TIFFDirectory.createFromMetadata(reader.getImageMetadata(0));
+                TIFFField scale = directory.getTIFFField(TAG_MODEL_PIXEL_SCALE);
+                TIFFField tiepoint = directory.getTIFFField(TAG_MODEL_TIEPOINT);
+                if (scale == null || tiepoint == null)
+                    throw new IOException("%s is not georeferenced.".formatted(tiffFile));
+                TIFFField noDataField = directory.getTIFFField(TAG_GDAL_NODATA);
+                double noData = noDataField == null ? Double.NaN : Double.parseDouble(noDataField.getAsString(0).trim());
+
+                double cellWidth = scale.getAsDouble(0);
+                double cellHeight = scale.getAsDouble(1);
+                double west = tiepoint.getAsDouble(3) - tiepoint.getAsDouble(0) * cellWidth;
+                double north = tiepoint.getAsDouble(4) + tiepoint.getAsDouble(1) * cellHeight;
+                int cols = reader.getWidth(0);
+                int rows = reader.getHeight(0);
+
+                // the image is read in strips of rows, so that it never has to be held in memory at once
+                Raster[] strip = new Raster[1];
+                return create(west, north, cellWidth, cellHeight, cols, rows, (row, values) -> {
+                    if (row % STRIP_ROWS == 0) {
+                        ImageReadParam param = reader.getDefaultReadParam();
+                        param.setSourceRegion(new Rectangle(0, row, cols, Math.min(STRIP_ROWS, rows - row)));
+                        strip[0] = reader.read(0, param).getRaster();
+                    }
+                    strip[0].getSamples(0, row % STRIP_ROWS, cols, 1, 0, values);
+                    if (!Double.isNaN(noData)) {
+                        for (int col = 0; col < cols; col++) {
+                            if (values[col] == noData)
+                                values[col] = 0;
+                        }
+                    }
+                }, gridFile);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the cells whose centres lie inside the polygons of the given geometry
+     */
+    public double getSum(Geometry geometry) {
+        double sum = 0;
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            if (geometry.getGeometryN(i) instanceof Polygon polygon)
+                sum += getSum(polygon);
+        }
+        return sum;
+    }
+
+    private double getSum(Polygon polygon) {
+        Envelope envelope = polygon.getEnvelopeInternal();
+        int firstRow = Math.max(0, (int) Math.ceil((north - envelope.getMaxY()) / cellHeight - 0.5));
+        int lastRow = Math.min(rows - 1, (int) Math.floor((north - envelope.getMinY()) / cellHeight - 0.5));
+        if (firstRow > lastRow)
+            return 0;
+
+        List<Coordinate[]> rings = new ArrayList<>(polygon.getNumInteriorRing() + 1);
+        rings.add(polygon.getExteriorRing().getCoordinates());
+        int edges = rings.get(0).length;
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            rings.add(polygon.getInteriorRingN(i).getCoordinates());
+            edges += rings.get(i + 1).length;
+        }
+
+        double sum = 0;
+        double[] crossings = new double[edges];
+        for (int row = firstRow; row <= lastRow; row++) {
+            double y = north - (row + 0.5) * cellHeight;
+            int count = 0;
+            for (Coordinate[] ring : rings) {
+                for (int i = 1; i < ring.length; i++) {
+                    Coordinate from = ring[i - 1];
+                    Coordinate to = ring[i];
+                    if ((from.y > y) != (to.y > y))
+                        crossings[count++] = from.x + (y - from.y) * (to.x - from.x) / (to.y - from.y);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+
+            DoubleBuffer chunk = chunks[row / rowsPerChunk];
+            int offset = (row % rowsPerChunk) * (cols + 1);
+            for (int i = 0; i + 1 < count; i += 2) {
+                int fromCol = getColumn(crossings[i]);
+                int toCol = getColumn(crossings[i + 1]);
+                if (fromCol < toCol)
+                    sum += chunk.get(offset + toCol) - chunk.get(offset + fromCol);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the first column whose centre is not west of the given x coordinate, clamped to the grid
+     */
+    private int getColumn(double x) {
+        double col = Math.ceil((x - west) / cellWidth - 0.5);
+        return (int) Math.max(0, Math.min(cols, col));
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    private static int getRowsPerChunk(int cols) {
+        return Math.max(1, MAX_CHUNK_DOUBLES / (cols + 1));
+    }
+
+    private static int getChunkRows(int chunk, int rowsPerChunk, int rows) {
+        return Math.min(rowsPerChunk, rows - chunk * rowsPerChunk);
+    }
+
+    private static MappedByteBuffer mapChunk(FileChannel channel, FileChannel.MapMode mode, int chunk, int rowsPerChunk, int cols, int rows) throws IOException {
+        long rowBytes = (long) (cols + 1) * Double.BYTES;
+        long position = HEADER_BYTES + chunk * rowsPerChunk * rowBytes;
+        MappedByteBuffer buffer = channel.map(mode, position, getChunkRows(chunk, rowsPerChunk, rows) * rowBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
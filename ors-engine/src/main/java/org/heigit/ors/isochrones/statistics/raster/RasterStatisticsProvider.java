@@ -0,0 +1,105 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.statistics.raster;
+
+import com.graphhopper.util.Helper;
+import org.apache.log4j.Logger;
+import org.geotools.geometry.jts.JTS;
+import org.heigit.ors.exceptions.InternalServerException;
+import org.heigit.ors.isochrones.Isochrone;
+import org.heigit.ors.isochrones.IsochronesErrorCodes;
+import org.heigit.ors.isochrones.statistics.StatisticsProvider;
+import org.heigit.ors.util.GeomUtility;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.referencing.operation.MathTransform;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * This class handles the population statistic queries without a database. The population is summed up in-process
+ * from a {@link PopulationGrid}, which is read from a GeoTIFF or memory mapped from a grid file in the native format.
+ * <p>
+ * Parameters: {@code grid_file} is the path of the native grid. {@code geotiff_file} is the path of a GeoTIFF which is
+ * read if the grid file is not set or does not exist yet; in the latter case the grid file is written from it, so that
+ * it is mapped directly on the next start. {@code srid} is the coordinate system of the grid, either 4326 (default) or
+ * 54009 for the World Mollweide projection of the PostgreSQL provider.
+ */
+public class RasterStatisticsProvider implements StatisticsProvider {
+    private static final Logger LOGGER = Logger.getLogger(RasterStatisticsProvider.class.getName());
+
+    private static final String PARAM_KEY_GRID_FILE = "grid_file";
+    private static final String PARAM_KEY_GEOTIFF_FILE = "geotiff_file";
+    private static final String PARAM_KEY_SRID = "srid";
+    private static final int SRID_WGS84 = 4326;
+    private static final int SRID_MOLLWEIDE = 54009;
+
+    private PopulationGrid grid;
+    private MathTransform transform;
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        grid = null;
+        transform = null;
+
+        int srid = parameters.containsKey(PARAM_KEY_SRID) ? (Integer) parameters.get(PARAM_KEY_SRID) : SRID_WGS84;
+        if (srid == SRID_MOLLWEIDE) {
+            transform = GeomUtility.getWgs84MollweideTransform();
+        } else if (srid != SRID_WGS84) {
+            throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "'" + PARAM_KEY_SRID + "' parameter has to be " + SRID_WGS84 + " or " + SRID_MOLLWEIDE + ".");
+        }
+
+        String gridFile = (String) parameters.get(PARAM_KEY_GRID_FILE);
+        String tiffFile = (String) parameters.get(PARAM_KEY_GEOTIFF_FILE);
+        if (Helper.isEmpty(gridFile) && Helper.isEmpty(tiffFile))
+            throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Either '" + PARAM_KEY_GRID_FILE + "' or '" + PARAM_KEY_GEOTIFF_FILE + "' parameter has to be set.");
+
+        Path gridPath = Helper.isEmpty(gridFile) ? null : Path.of(gridFile);
+        if (gridPath != null && Files.exists(gridPath)) {
+            grid = PopulationGrid.load(gridPath);
+        } else if (!Helper.isEmpty(tiffFile)) {
+            grid = PopulationGrid.readGeoTiff(Path.of(tiffFile), gridPath);
+        } else {
+            throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "Population grid '" + gridFile + "' does not exist.");
+        }
+        LOGGER.info("Loaded population grid of %d x %d cells.".formatted(grid.getCols(), grid.getRows()));
+    }
+
+    @Override
+    public void close() {
+        grid = null;
+    }
+
+    /**
+     * Only total_pop can be asked for, values of other properties are 0 as with the PostgreSQL provider.
+     */
+    @Override
+    public double[] getStatistics(Isochrone isochrone, String[] properties) throws Exception {
+        double[] res = new double[properties.length];
+        Geometry geometry = isochrone.getGeometry();
+        if (transform != null)
+            geometry = JTS.transform(geometry, transform);
+        for (int i = 0; i < properties.length; i++) {
+            if ("total_pop".equals(properties[i]))
+                res[i] = Math.round(grid.getSum(geometry));
+        }
+        return res;
+    }
+
+    @Override
+    public String getName() {
+        return "raster";
+    }
+}
@@ -50,4 +50,14 @@ public class MatrixLocations {
     public boolean hasValidNodes() {
         return hasValidNodes;
     }
+
+    /**
+     * @return a copy of the locations from index from (inclusive) to index to (exclusive)
+     */
+    public MatrixLocations subset(int from, int to) {
+        MatrixLocations subset = new MatrixLocations(to - from);
+        for (int i = from; i < to; i++)
+            subset.setData(i - from, nodeIds[i], locations[i]);
+        return subset;
+    }
 }
@@ -30,14 +30,23 @@ import org.heigit.ors.exceptions.PointNotFoundException;
 import org.locationtech.jts.geom.Coordinate;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class MatrixSearchContextBuilder {
+    // minimum number of uncached locations per thread for which a lookup is split across threads
+    private static final int MIN_LOCATIONS_PER_THREAD = 64;
+
     private final boolean resolveNames;
     private final LocationIndex locIndex;
     private final EdgeFilter edgeFilter;
     private Map<Coordinate, LocationEntry> locationCache;
     private final GraphHopperStorage graphHopperStorage;
     private Weighting weighting;
+    private SnappingCache snappingCache;
+    private ExecutorService locateExecutor;
+    private int locateThreads = 1;
 
     public MatrixSearchContextBuilder(GraphHopperStorage graphHopperStorage, LocationIndex index, EdgeFilter edgeFilter, boolean resolveNames) {
         locIndex = index;
@@ -46,6 +55,23 @@ public class MatrixSearchContextBuilder {
         this.graphHopperStorage = graphHopperStorage;
     }
 
+    /**
+     * Sets a cache shared across requests from which locations are resolved before querying the location index.
+     */
+    public void setSnappingCache(SnappingCache snappingCache) {
+        this.snappingCache = snappingCache;
+    }
+
+    /**
+     * Sets an executor used to query the location index for large numbers of locations in parallel.
+     *
+     * @param threads the maximum number of tasks a single lookup is split into
+     */
+    public void setLocateExecutor(ExecutorService executor, int threads) {
+        this.locateExecutor = executor;
+        this.locateThreads = threads;
+    }
+
     public MatrixSearchContext create(Graph graph, RoutingCHGraph chGraph, Weighting weighting, String profileName, Coordinate[] sources, Coordinate[] destinations, double maxSearchRadius) throws Exception {
         if (locationCache == null)
             locationCache = new HashMap<>();
@@ -57,8 +83,8 @@ public class MatrixSearchContextBuilder {
 
         List<Snap> snaps = new ArrayList<>(sources.length + destinations.length);
 
-        resolveLocations(profileName, sources, snaps, maxSearchRadius);
-        resolveLocations(profileName, destinations, snaps, maxSearchRadius);
+        resolveLocations(profileName, graph, sources, snaps, maxSearchRadius);
+        resolveLocations(profileName, graph, destinations, snaps, maxSearchRadius);
 
         QueryGraph queryGraph = QueryGraph.create(graph, snaps);
         RoutingCHGraph routingCHGraph = null;
@@ -119,32 +145,95 @@ public class MatrixSearchContextBuilder {
         return idsArray;
     }
 
-    private void resolveLocations(String profileName, Coordinate[] coords, List<Snap> queryResults, double maxSearchRadius) {
+    private void resolveLocations(String profileName, Graph graph, Coordinate[] coords, List<Snap> queryResults, double maxSearchRadius) throws Exception {
+        List<Coordinate> newCoords = new ArrayList<>();
+        Set<Coordinate> seen = new HashSet<>();
         for (Coordinate p : coords) {
-            LocationEntry ld = locationCache.get(p);
-            if (ld == null) {
-                Snap qr = locIndex.findClosest(p.y, p.x, getSnapFilter(profileName));
+            if (!locationCache.containsKey(p) && seen.add(p))
+                newCoords.add(p);
+        }
 
-                ld = new LocationEntry();
-                ld.snap = qr;
+        Snap[] snaps = locate(profileName, graph, newCoords);
 
-                if (qr.isValid() && qr.getQueryDistance() < maxSearchRadius) {
-                    GHPoint3D pt = qr.getSnappedPoint();
-                    ld.nodeId = qr.getClosestNode();
-                    ld.location = new ResolvedLocation(new Coordinate(pt.getLon(), pt.getLat()), resolveNames ? qr.getClosestEdge().getName() : null, qr.getQueryDistance());
+        for (int i = 0; i < snaps.length; i++) {
+            Snap qr = snaps[i];
 
-                    queryResults.add(qr);
-                } else {
-                    ld.nodeId = -1;
-                }
-                locationCache.put(p, ld);
+            LocationEntry ld = new LocationEntry();
+            ld.snap = qr;
+
+            if (qr.isValid() && qr.getQueryDistance() < maxSearchRadius) {
+                GHPoint3D pt = qr.getSnappedPoint();
+                ld.nodeId = qr.getClosestNode();
+                ld.location = new ResolvedLocation(new Coordinate(pt.getLon(), pt.getLat()), resolveNames ? qr.getClosestEdge().getName() : null, qr.getQueryDistance());
+
+                queryResults.add(qr);
+            } else {
+                ld.nodeId = -1;
+            }
+            locationCache.put(newCoords.get(i), ld);
+        }
+    }
+
+    /**
+     * Looks up the snaps of the given coordinates, taking them from the snapping cache where possible. The remaining
+     * lookups are split across the locate executor if there are enough of them.
+     */
+    private Snap[] locate(String profileName, Graph graph, List<Coordinate> coords) throws Exception {
+        Snap[] snaps = new Snap[coords.size()];
+        // The key only needs the profile and the weighting because the snap filter of getSnapFilter ignores the edge
+        // filters of the request. If request dependent filters such as avoidables are added there, they must become
+        // part of this key, otherwise snaps computed for other requests are served from the cache.
+        String filterKey = profileName + "|" + weighting.getName();
+
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < snaps.length; i++) {
+            Coordinate p = coords.get(i);
+            if (snappingCache != null)
+                snaps[i] = snappingCache.get(filterKey, p.y, p.x, graph);
+            if (snaps[i] == null)
+                missing.add(i);
+        }
+
+        int tasks = Math.min(locateThreads, missing.size() / MIN_LOCATIONS_PER_THREAD);
+        if (locateExecutor != null && tasks > 1) {
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            for (int t = 0; t < tasks; t++) {
+                List<Integer> part = missing.subList(t * missing.size() / tasks, (t + 1) * missing.size() / tasks);
+                futures.add(locateExecutor.submit(() -> locate(profileName, coords, part, snaps)));
+            }
+            try {
+                for (Future<?> future : futures)
+                    future.get();
+            } catch (ExecutionException e) {
+                for (Future<?> future : futures)
+                    future.cancel(true);
+                throw e.getCause() instanceof Exception cause ? cause : e;
             }
+        } else {
+            locate(profileName, coords, missing, snaps);
+        }
+
+        if (snappingCache != null) {
+            for (int i : missing) {
+                Coordinate p = coords.get(i);
+                snappingCache.put(filterKey, p.y, p.x, snaps[i]);
+            }
+        }
+        return snaps;
+    }
+
+    private void locate(String profileName, List<Coordinate> coords, List<Integer> indices, Snap[] snaps) {
+        EdgeFilter snapFilter = getSnapFilter(profileName);
+        for (int i : indices) {
+            Coordinate p = coords.get(i);
+            snaps[i] = locIndex.findClosest(p.y, p.x, snapFilter);
         }
     }
 
     protected EdgeFilter getSnapFilter(String profileName) {
         EdgeFilter defaultSnapFilter = new DefaultSnapFilter(weighting, this.graphHopperStorage.getEncodingManager().getBooleanEncodedValue(Subnetwork.key(profileName)));
         //TODO when Matrix supports additional parameters such as avoidables in the future, the corresponding filters need to be added here for snapping
+        // and to the snapping cache key in locate
 //		if (edgeFilterFactory != null)
 //			return edgeFilterFactory.createEdgeFilter(request.getAdditionalHints(), weighting.getFlagEncoder(), ghStorage, defaultSnapFilter);
         return defaultSnapFilter;
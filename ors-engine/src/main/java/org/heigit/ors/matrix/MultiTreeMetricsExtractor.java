@@ -23,6 +23,8 @@ import com.graphhopper.storage.RoutingCHGraph;
 import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.routing.algorithms.MultiTreeSPState;
 import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntry;
 import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntryItem;
 import org.heigit.ors.util.DistanceUnitUtil;
@@ -85,11 +87,9 @@ public class MultiTreeMetricsExtractor {
         double pathTime;
         double pathDistance;
         double pathWeight;
-        long entryHash = 0;
         boolean calcTime = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION);
         boolean calcDistance = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE);
         boolean calcWeight = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT);
-        MetricsItem edgeMetricsItem;
         MultiTreeSPEntryItem sptItem;
 
         for (int i = 0; i < targets.length; ++i) {
@@ -116,66 +116,12 @@ public class MultiTreeMetricsExtractor {
 
                         if (sptItem.getParent() != null) {
                             while (EdgeIterator.Edge.isValid(sptItem.getEdge())) {
-                                edgeMetricsItem = null;
-                                if (edgeMetrics != null) {
-                                    entryHash = getMultiTreeSPEntryHash(targetEntry, srcNode);
-                                    edgeMetricsItem = edgeMetrics.get(entryHash);
-                                }
-
-                                if (edgeMetricsItem == null) {
-                                    if (chGraph != null) {
-                                        RoutingCHEdgeIteratorState iterState = chGraph.getEdgeIteratorState(sptItem.getEdge(), targetEntry.getAdjNode());
-
-                                        if (iterState.isShortcut()) {
-                                            if (chGraph.getLevel(iterState.getBaseNode()) >= chGraph.getLevel(iterState.getAdjNode())) {
-                                                reverseOrder = true;
-                                                extractEdgeValues(iterState, swap);
-                                            } else {
-                                                reverseOrder = false;
-                                                extractEdgeValues(iterState, !swap);
-                                            }
-                                        } else {
-                                            extractEdgeValues(iterState, swap);
-                                        }
-
-                                        edgeDistance = (distUnits == DistanceUnit.METERS) ? edgeDistance
-                                                : DistanceUnitUtil.convert(edgeDistance, DistanceUnit.METERS, distUnits);
-                                    } else {
-                                        EdgeIteratorState iter = graph.getEdgeIteratorState(sptItem.getEdge(),
-                                                targetEntry.getAdjNode());
-
-                                        if (calcDistance)
-                                            edgeDistance = (distUnits == DistanceUnit.METERS) ? iter.getDistance()
-                                                    : DistanceUnitUtil.convert(iter.getDistance(), DistanceUnit.METERS,
-                                                    distUnits);
-
-                                        if (calcTime)
-                                            edgeTime = timeWeighting.calcEdgeMillis(iter, false, EdgeIterator.NO_EDGE)
-                                                    / 1000.0;
-
-                                        if (calcWeight)
-                                            edgeWeight = weighting.calcEdgeWeight(iter, false, EdgeIterator.NO_EDGE);
-                                    }
-
-                                    if (edgeMetrics != null) {
-                                        edgeMetricsItem = new MetricsItem();
-                                        edgeMetricsItem.distance = edgeDistance;
-                                        edgeMetricsItem.time = edgeTime;
-                                        edgeMetricsItem.weight = edgeWeight;
-                                        edgeMetrics.put(entryHash, edgeMetricsItem);
-                                    }
-
-                                    pathDistance += edgeDistance;
-                                    pathTime += edgeTime;
-                                    pathWeight += edgeWeight;
-                                } else {
-                                    if (calcDistance)
-                                        pathDistance += edgeMetricsItem.distance;
-                                    if (calcTime)
-                                        pathTime += edgeMetricsItem.time;
-                                    if (calcWeight)
-                                        pathWeight += edgeMetricsItem.weight;
-                                }
+                                calcEdgeMetrics(sptItem.getEdge(), targetEntry.getAdjNode());
+
+                                pathDistance += edgeDistance;
+                                pathTime += edgeTime;
+                                pathWeight += edgeWeight;
+
                                 targetEntry = sptItem.getParent();
 
                                 if (targetEntry == null)
@@ -200,8 +146,139 @@ public class MultiTreeMetricsExtractor {
         }
     }
 
-    private long getMultiTreeSPEntryHash(MultiTreeSPEntry entry, int sptEntry) {
-        return entry.getAdjNode() * maxEdgeId + entry.getItem(sptEntry).getEdge();
+    /**
+     * Same as {@link #calcValues(MultiTreeSPEntry[], MatrixLocations, MatrixLocations, float[], float[], float[])},
+     * but reads the shortest path trees directly from the flat search state of a many-to-many search.
+     *
+     * @param targetSlots search state slot of every destination, -1 for destinations without a valid node
+     */
+    public void calcValues(MultiTreeSPState state, int[] targetSlots, MatrixLocations srcData, MatrixLocations dstData,
+                           float[] times, float[] distances, float[] weights) throws Exception {
+        if (targetSlots == null)
+            throw new IllegalStateException("Target destinations not set");
+
+        int index;
+        double pathTime;
+        double pathDistance;
+        double pathWeight;
+        boolean calcTime = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION);
+        boolean calcDistance = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE);
+        boolean calcWeight = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT);
+
+        for (int i = 0; i < targetSlots.length; ++i) {
+            int srcNode = 0;
+            for (int j = 0; j < srcData.size(); ++j) {
+                pathTime = -1;
+                pathDistance = -1;
+                pathWeight = -1;
+
+                index = j * dstData.size() + i;
+
+                if (srcData.getNodeId(j) != -1) {
+                    int slot = targetSlots[i];
+
+                    if (slot != -1) {
+                        //Only set values to 0 if target and start node are the same
+                        boolean hasParent = state.getParent(slot, srcNode) != -1;
+
+                        if (srcData.getNodeId(j) == state.getNode(slot) || hasParent) {
+                            pathTime = 0.0;
+                            pathDistance = 0.0;
+                            pathWeight = 0.0;
+                        }
+
+                        if (hasParent) {
+                            int edge = state.getEdge(slot, srcNode);
+                            while (EdgeIterator.Edge.isValid(edge)) {
+                                calcEdgeMetrics(edge, state.getNode(slot));
+
+                                pathDistance += edgeDistance;
+                                pathTime += edgeTime;
+                                pathWeight += edgeWeight;
+
+                                slot = state.getParent(slot, srcNode);
+
+                                if (slot == -1)
+                                    break;
+
+                                edge = state.getEdge(slot, srcNode);
+                            }
+                        }
+                    }
+                    srcNode++;
+                }
+
+                if (calcTime)
+                    times[index] = (float) pathTime;
+
+                if (calcDistance)
+                    distances[index] = (float) pathDistance;
+
+                if (calcWeight)
+                    weights[index] = (float) pathWeight;
+            }
+        }
+    }
+
+    /**
+     * Sets edgeDistance, edgeTime and edgeWeight to the values of the given edge, either from the cache or by
+     * unpacking it.
+     */
+    private void calcEdgeMetrics(int edge, int adjNode) throws StatusCodeException {
+        MetricsItem edgeMetricsItem = null;
+        long entryHash = 0;
+        if (edgeMetrics != null) {
+            entryHash = adjNode * maxEdgeId + edge;
+            edgeMetricsItem = edgeMetrics.get(entryHash);
+        }
+
+        if (edgeMetricsItem != null) {
+            edgeDistance = edgeMetricsItem.distance;
+            edgeTime = edgeMetricsItem.time;
+            edgeWeight = edgeMetricsItem.weight;
+            return;
+        }
+
+        if (chGraph != null) {
+            RoutingCHEdgeIteratorState iterState = chGraph.getEdgeIteratorState(edge, adjNode);
+
+            if (iterState.isShortcut()) {
+                if (chGraph.getLevel(iterState.getBaseNode()) >= chGraph.getLevel(iterState.getAdjNode())) {
+                    reverseOrder = true;
+                    extractEdgeValues(iterState, swap);
+                } else {
+                    reverseOrder = false;
+                    extractEdgeValues(iterState, !swap);
+                }
+            } else {
+                extractEdgeValues(iterState, swap);
+            }
+
+            edgeDistance = (distUnits == DistanceUnit.METERS) ? edgeDistance
+                    : DistanceUnitUtil.convert(edgeDistance, DistanceUnit.METERS, distUnits);
+        } else {
+            EdgeIteratorState iter = graph.getEdgeIteratorState(edge, adjNode);
+
+            if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
+                edgeDistance = (distUnits == DistanceUnit.METERS) ? iter.getDistance()
+                        : DistanceUnitUtil.convert(iter.getDistance(), DistanceUnit.METERS,
+                        distUnits);
+
+            if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
+                edgeTime = timeWeighting.calcEdgeMillis(iter, false, EdgeIterator.NO_EDGE)
+                        / 1000.0;
+
+            if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
+                edgeWeight = weighting.calcEdgeWeight(iter, false, EdgeIterator.NO_EDGE);
+        }
+
+        if (edgeMetrics != null) {
+            edgeMetricsItem = new MetricsItem();
+            edgeMetricsItem.distance = edgeDistance;
+            edgeMetricsItem.time = edgeTime;
+            edgeMetricsItem.weight = edgeWeight;
+            edgeMetrics.put(entryHash, edgeMetricsItem);
+        }
     }
 
     private void extractEdgeValues(RoutingCHEdgeIteratorState iterState, boolean reverse) {
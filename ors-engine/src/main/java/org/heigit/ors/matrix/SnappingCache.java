@@ -0,0 +1,178 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.matrix;
+
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.index.Snap;
+import com.graphhopper.util.DistanceCalcEarth;
+import com.graphhopper.util.EdgeIterator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, profile-wide cache of location index lookups. Entries are keyed by the snap filter and the coordinate
+ * quantised to 1e-7 degrees, and are evicted in least recently used order or when they are older than the time to
+ * live.
+ * <p>
+ * Only the raw lookup result is stored. {@link Snap} objects are modified when a query graph is created from them, so
+ * every request gets fresh instances via {@link #get}.
+ */
+public class SnappingCache {
+    private static final double COORDINATE_FACTOR = 1e7;
+
+    private final int maxSize;
+    private final long timeToLive;
+    private final LongSupplier clock;
+    private final Map<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize    maximum number of cached lookups
+     * @param timeToLive time in milliseconds after which an entry expires, 0 for no expiry
+     */
+    public SnappingCache(int maxSize, long timeToLive) {
+        this(maxSize, timeToLive, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock source of the current time in milliseconds used for the expiry
+     */
+    SnappingCache(int maxSize, long timeToLive, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SnappingCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return a new snap for the given coordinate restored from the cache, or null if there is no valid entry
+     */
+    public Snap get(String filter, double lat, double lon, Graph graph) {
+        Key key = new Key(filter, quantise(lat), quantise(lon));
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && timeToLive > 0 && clock.getAsLong() - entry.created > timeToLive) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.toSnap(lat, lon, graph);
+    }
+
+    /**
+     * Stores the result of a lookup. Must be called before the snap is used to create a query graph.
+     */
+    public void put(String filter, double lat, double lon, Snap snap) {
+        Key key = new Key(filter, quantise(lat), quantise(lon));
+        Entry entry = new Entry(snap, clock.getAsLong());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private static long quantise(double value) {
+        return Math.round(value * COORDINATE_FACTOR);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static class Key {
+        private final String filter;
+        private final long lat;
+        private final long lon;
+
+        Key(String filter, long lat, long lon) {
+            this.filter = filter;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key other))
+                return false;
+            return lat == other.lat && lon == other.lon && filter.equals(other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, lat, lon);
+        }
+    }
+
+    private static class Entry {
+        private final int closestNode;
+        private final int edgeKey;
+        private final int wayIndex;
+        private final Snap.Position position;
+        private final double queryDistance;
+        private final long created;
+
+        Entry(Snap snap, long created) {
+            this.closestNode = snap.getClosestNode();
+            this.edgeKey = snap.isValid() ? snap.getClosestEdge().getEdgeKey() : EdgeIterator.NO_EDGE;
+            this.wayIndex = snap.getWayIndex();
+            this.position = snap.getSnappedPosition();
+            this.queryDistance = snap.getQueryDistance();
+            this.created = created;
+        }
+
+        Snap toSnap(double lat, double lon, Graph graph) {
+            Snap snap = new Snap(lat, lon);
+            if (edgeKey == EdgeIterator.NO_EDGE)
+                return snap;
+            snap.setClosestNode(closestNode);
+            snap.setClosestEdge(graph.getEdgeIteratorStateForKey(edgeKey));
+            snap.setWayIndex(wayIndex);
+            snap.setSnappedPosition(position);
+            snap.setQueryDistance(queryDistance);
+            snap.calcSnappedPoint(DistanceCalcEarth.DIST_EARTH);
+            return snap;
+        }
+    }
+}
@@ -14,13 +14,26 @@
 package org.heigit.ors.matrix.algorithms;
 
 import com.graphhopper.GraphHopper;
+import com.graphhopper.util.DistanceCalcEarth;
 import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.algorithms.bucket.BucketMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.core.CoreMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
 import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.locationtech.jts.geom.Coordinate;
 
 public class MatrixAlgorithmFactory {
+    // rough number of nodes settled by a single upward search in a contraction hierarchy
+    private static final double SEARCH_SPACE = 500;
+    // distance in meters at which the upward searches of two locations are assumed to share only the top of the hierarchy
+    private static final double OVERLAP_DISTANCE = 50000;
+    private static final double MIN_OVERLAP = 0.25;
+    // costs of adding a node to the RPHAST target subgraph and of scanning a bucket entry, relative to updating one
+    // tree entry in the RPHAST sweeps
+    private static final double SUBGRAPH_NODE_COST = 4;
+    private static final double BUCKET_SCAN_COST = 2;
+
     private MatrixAlgorithmFactory() {
     }
 
@@ -34,4 +47,50 @@ public class MatrixAlgorithmFactory {
         }
         return new DijkstraMatrixAlgorithm();
     }
+
+    /**
+     * Compares the estimated costs of {@link RPHASTMatrixAlgorithm} and {@link BucketMatrixAlgorithm} for the given
+     * locations. Both are estimated from the number of search space nodes they touch. The share of nodes which the
+     * searches of different locations have in common decreases with the spread of the locations.
+     * <p>
+     * RPHAST builds a single target subgraph and sweeps it with one tree entry per source, which pays off for many
+     * sources close to each other. The bucket algorithm runs one search per location and only scans the buckets of
+     * the nodes shared with the target searches, which is cheaper for few sources or locations far apart.
+     * <p>
+     * The model is only consulted for profiles with {@code matrix_bucket_algorithm} enabled.
+     */
+    public static boolean isBucketAlgorithmPreferred(Coordinate[] sources, Coordinate[] destinations) {
+        if (sources == null || destinations == null || sources.length == 0 || destinations.length == 0)
+            return false;
+
+        double overlap = Math.max(MIN_OVERLAP, 1 - getSpread(sources, destinations) / OVERLAP_DISTANCE);
+        double sourceCount = sources.length;
+        double targetCount = destinations.length;
+        double sourceSearchSpace = SEARCH_SPACE * (1 + (sourceCount - 1) * (1 - overlap));
+        double targetSearchSpace = SEARCH_SPACE * (1 + (targetCount - 1) * (1 - overlap));
+
+        double rphastCost = sourceSearchSpace * sourceCount + targetSearchSpace * (SUBGRAPH_NODE_COST + sourceCount);
+        double bucketCost = (sourceCount + targetCount) * SEARCH_SPACE
+                + sourceCount * targetCount * SEARCH_SPACE * overlap * BUCKET_SCAN_COST;
+        return bucketCost < rphastCost;
+    }
+
+    /**
+     * @return the length in meters of the diagonal of the bounding box of all locations
+     */
+    private static double getSpread(Coordinate[] sources, Coordinate[] destinations) {
+        double minLat = Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE;
+        for (Coordinate[] locations : new Coordinate[][]{sources, destinations}) {
+            for (Coordinate c : locations) {
+                minLat = Math.min(minLat, c.y);
+                minLon = Math.min(minLon, c.x);
+                maxLat = Math.max(maxLat, c.y);
+                maxLon = Math.max(maxLon, c.x);
+            }
+        }
+        return DistanceCalcEarth.DIST_EARTH.calcDist(minLat, minLon, maxLat, maxLon);
+    }
 }
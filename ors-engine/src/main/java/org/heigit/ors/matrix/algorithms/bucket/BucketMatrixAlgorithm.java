@@ -0,0 +1,148 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.matrix.algorithms.bucket;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.ch.ShortcutUnpacker;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.util.EdgeIterator;
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.matrix.*;
+import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
+import org.heigit.ors.routing.algorithms.BucketManyToManyAlgorithm;
+import org.heigit.ors.util.DistanceUnitUtil;
+
+import java.util.Arrays;
+
+public class BucketMatrixAlgorithm extends AbstractMatrixAlgorithm {
+    private RoutingCHGraph chGraph;
+    private DistanceUnit units;
+    private ShortcutUnpacker shortcutUnpacker;
+    // metrics of unpacked edges, separately for edges of the forward and the backward searches
+    private final LongObjectHashMap<MetricsItem> forwardEdgeMetrics = new LongObjectHashMap<>();
+    private final LongObjectHashMap<MetricsItem> backwardEdgeMetrics = new LongObjectHashMap<>();
+    private MetricsItem edgeMetrics;
+    private double pathTime;
+    private double pathDistance;
+    private double pathWeight;
+
+    public void init(MatrixRequest req, GraphHopper gh, RoutingCHGraph chGraph, FlagEncoder encoder, Weighting weighting) {
+        super.init(req, gh, chGraph.getBaseGraph(), encoder, weighting);
+        this.chGraph = chGraph;
+        this.units = req.getUnits();
+        // shortcuts do not contain turn restrictions, so they can be unpacked node based
+        shortcutUnpacker = new ShortcutUnpacker(chGraph, (edge, reverse, prevOrNextEdgeId) -> {
+            edgeMetrics.distance += edge.getDistance();
+            edgeMetrics.time += this.weighting.calcEdgeMillis(edge, reverse) / 1000.0;
+            edgeMetrics.weight += this.weighting.calcEdgeWeight(edge, reverse);
+        }, false);
+    }
+
+    @Override
+    public MatrixResult compute(MatrixLocations srcData, MatrixLocations dstData, int metrics) throws Exception {
+        MatrixResult mtxResult = new MatrixResult(srcData.getLocations(), dstData.getLocations());
+
+        int tableSize = srcData.size() * dstData.size();
+        float[] times = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION) ? new float[tableSize] : null;
+        float[] distances = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE) ? new float[tableSize] : null;
+        float[] weights = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT) ? new float[tableSize] : null;
+
+        if (!srcData.hasValidNodes() || !dstData.hasValidNodes()) {
+            setEmptyValues(0, tableSize, times, distances, weights);
+        } else {
+            BucketManyToManyAlgorithm algorithm = new BucketManyToManyAlgorithm(chGraph);
+            algorithm.setMaxVisitedNodes(this.maxVisitedNodes);
+
+            if (graphHopper != null)
+                mtxResult.setGraphDate(graphHopper.getGraphHopperStorage().getProperties().get("datareader.import.date"));
+
+            algorithm.prepare(dstData.getNodeIds());
+
+            for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) {
+                int index = srcIndex * dstData.size();
+                int sourceId = srcData.getNodeId(srcIndex);
+                if (sourceId == -1) {
+                    setEmptyValues(index, index + dstData.size(), times, distances, weights);
+                    continue;
+                }
+
+                algorithm.calcPaths(sourceId);
+                for (int dstIndex = 0; dstIndex < dstData.size(); dstIndex++, index++) {
+                    pathTime = 0;
+                    pathDistance = 0;
+                    pathWeight = 0;
+                    if (!algorithm.visitPath(dstIndex, this::addEdgeMetrics)) {
+                        pathTime = -1;
+                        pathDistance = -1;
+                        pathWeight = -1;
+                    } else if (units != DistanceUnit.METERS) {
+                        pathDistance = DistanceUnitUtil.convert(pathDistance, DistanceUnit.METERS, units);
+                    }
+
+                    if (times != null)
+                        times[index] = (float) pathTime;
+                    if (distances != null)
+                        distances[index] = (float) pathDistance;
+                    if (weights != null)
+                        weights[index] = (float) pathWeight;
+                }
+            }
+        }
+
+        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
+            mtxResult.setTable(MatrixMetricsType.DURATION, times);
+        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
+            mtxResult.setTable(MatrixMetricsType.DISTANCE, distances);
+        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
+            mtxResult.setTable(MatrixMetricsType.WEIGHT, weights);
+
+        return mtxResult;
+    }
+
+    private void addEdgeMetrics(int edge, int adjNode, boolean reverse) {
+        LongObjectHashMap<MetricsItem> cache = reverse ? backwardEdgeMetrics : forwardEdgeMetrics;
+        long key = ((long) edge << 32) | adjNode;
+        MetricsItem item = cache.get(key);
+        if (item == null) {
+            item = new MetricsItem();
+            edgeMetrics = item;
+            if (reverse)
+                shortcutUnpacker.visitOriginalEdgesBwd(edge, adjNode, false, EdgeIterator.NO_EDGE);
+            else
+                shortcutUnpacker.visitOriginalEdgesFwd(edge, adjNode, false, EdgeIterator.NO_EDGE);
+            cache.put(key, item);
+        }
+        pathDistance += item.distance;
+        pathTime += item.time;
+        pathWeight += item.weight;
+    }
+
+    private static void setEmptyValues(int from, int to, float[] times, float[] distances, float[] weights) {
+        if (times != null)
+            Arrays.fill(times, from, to, -1);
+        if (distances != null)
+            Arrays.fill(distances, from, to, -1);
+        if (weights != null)
+            Arrays.fill(weights, from, to, -1);
+    }
+
+    private static class MetricsItem {
+        private double time;
+        private double distance;
+        private double weight;
+    }
+}
@@ -24,61 +24,75 @@ import org.heigit.ors.matrix.*;
 import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
 import org.heigit.ors.routing.algorithms.DijkstraOneToManyAlgorithm;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
+    // minimum number of sources per thread for which the searches are split across threads
+    private static final int MIN_SOURCES_PER_THREAD = 4;
+
     private PathMetricsExtractor pathMetricsExtractor;
+    private MatrixRequest request;
+    private ExecutorService executor;
+    private int threads = 1;
 
     @Override
     public void init(MatrixRequest req, GraphHopper gh, Graph graph, FlagEncoder encoder, Weighting weighting) {
         weighting = graph.wrapWeighting(weighting);
         super.init(req, gh, graph, encoder, weighting);
 
+        request = req;
         pathMetricsExtractor = new PathMetricsExtractor(req.getMetrics(), this.graph, this.weighting, req.getUnits());
     }
 
+    /**
+     * Runs the searches of different sources on the given executor. Every thread uses its own search and writes to
+     * the rows of its sources only, so at most the given number of threads is used for a single matrix.
+     */
+    public void setExecutor(ExecutorService executor, int threads) {
+        this.executor = executor;
+        this.threads = threads;
+    }
+
     @Override
     public MatrixResult compute(MatrixLocations srcData, MatrixLocations dstData, int metrics) throws Exception {
         MatrixResult mtxResult = new MatrixResult(srcData.getLocations(), dstData.getLocations());
 
-        float[] times = null;
-        float[] distances = null;
-        float[] weights = null;
-
         int tableSize = srcData.size() * dstData.size();
-        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
-            times = new float[tableSize];
-        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
-            distances = new float[tableSize];
-        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
-            weights = new float[tableSize];
+        float[] times = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION) ? new float[tableSize] : null;
+        float[] distances = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE) ? new float[tableSize] : null;
+        float[] weights = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT) ? new float[tableSize] : null;
 
         if (!srcData.hasValidNodes() || !dstData.hasValidNodes()) {
             for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++)
                 pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
         } else {
-            DijkstraOneToManyAlgorithm algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
-            //TODO Refactoring : Check whether this access filter is unnecessary
-            algorithm.setEdgeFilter(AccessFilter.allEdges(this.encoder.getAccessEnc()));
-            algorithm.prepare(srcData.getNodeIds(), dstData.getNodeIds());
-            algorithm.setMaxVisitedNodes(this.maxVisitedNodes);
-
-            int sourceId = -1;
-
-            for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++) {
-                sourceId = srcData.getNodeId(srcIndex);
-
-                if (sourceId == -1) {
-                    pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
-                } else {
-                    algorithm.reset();
-                    SPTEntry[] targets = algorithm.calcPaths(sourceId, dstData.getNodeIds());
-
-                    if (algorithm.getFoundTargets() != algorithm.getTargetsCount())
-                        throw new Exception("Some target nodes could not be found.");
-
-                    if (targets != null) {
-                        pathMetricsExtractor.calcValues(srcIndex, targets, dstData, times, distances, weights);
-                    }
+            AtomicInteger nextSource = new AtomicInteger();
+            int tasks = Math.min(threads, srcData.size() / MIN_SOURCES_PER_THREAD);
+            if (executor != null && tasks > 1) {
+                List<Future<?>> futures = new ArrayList<>(tasks);
+                for (int t = 0; t < tasks; t++) {
+                    PathMetricsExtractor extractor = new PathMetricsExtractor(request.getMetrics(), graph, weighting, request.getUnits());
+                    futures.add(executor.submit(() -> {
+                        computeSources(srcData, dstData, nextSource, extractor, times, distances, weights);
+                        return null;
+                    }));
+                }
+                try {
+                    for (Future<?> future : futures)
+                        future.get();
+                } catch (ExecutionException e) {
+                    nextSource.set(srcData.size());
+                    for (Future<?> future : futures)
+                        future.cancel(true);
+                    throw e.getCause() instanceof Exception cause ? cause : e;
                 }
+            } else {
+                computeSources(srcData, dstData, nextSource, pathMetricsExtractor, times, distances, weights);
             }
         }
 
@@ -91,4 +105,35 @@ public class DijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
 
         return mtxResult;
     }
+
+    /**
+     * Computes the rows of the sources claimed from the given counter until all sources are done.
+     */
+    private void computeSources(MatrixLocations srcData, MatrixLocations dstData, AtomicInteger nextSource, PathMetricsExtractor extractor, float[] times, float[] distances, float[] weights) throws Exception {
+        DijkstraOneToManyAlgorithm algorithm = null;
+        for (int srcIndex = nextSource.getAndIncrement(); srcIndex < srcData.size(); srcIndex = nextSource.getAndIncrement()) {
+            int sourceId = srcData.getNodeId(srcIndex);
+
+            if (sourceId == -1) {
+                extractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
+            } else {
+                if (algorithm == null) {
+                    algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
+                    //TODO Refactoring : Check whether this access filter is unnecessary
+                    algorithm.setEdgeFilter(AccessFilter.allEdges(this.encoder.getAccessEnc()));
+                    algorithm.prepare(srcData.getNodeIds(), dstData.getNodeIds());
+                    algorithm.setMaxVisitedNodes(this.maxVisitedNodes);
+                }
+                algorithm.reset();
+                SPTEntry[] targets = algorithm.calcPaths(sourceId, dstData.getNodeIds());
+
+                if (algorithm.getFoundTargets() != algorithm.getTargetsCount())
+                    throw new Exception("Some target nodes could not be found.");
+
+                if (targets != null) {
+                    extractor.calcValues(srcIndex, targets, dstData, times, distances, weights);
+                }
+            }
+        }
+    }
 }
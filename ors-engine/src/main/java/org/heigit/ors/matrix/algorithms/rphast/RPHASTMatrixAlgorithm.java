@@ -18,74 +18,93 @@ import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.util.TraversalMode;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.RoutingCHGraph;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
 import org.heigit.ors.matrix.*;
 import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
 import org.heigit.ors.routing.algorithms.RPHASTAlgorithm;
-import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntry;
+import org.heigit.ors.routing.algorithms.SearchWorkspace;
+import org.heigit.ors.routing.algorithms.SearchWorkspacePool;
+import org.heigit.ors.routing.algorithms.SubGraph;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RPHASTMatrixAlgorithm extends AbstractMatrixAlgorithm {
+    // number of sources searched together in one pass if the sources are split across threads
+    private static final int SOURCES_PER_TILE = 32;
+
     private MultiTreeMetricsExtractor pathMetricsExtractor;
+    private MatrixRequest request;
     private RoutingCHGraph chGraph;
+    private SearchWorkspacePool searchWorkspacePool;
+    private ExecutorService executor;
+    private int threads = 1;
 
     //        @Override
     public void init(MatrixRequest req, GraphHopper gh, RoutingCHGraph chGraph, FlagEncoder encoder, Weighting weighting) {
         //TODO Refactoring : check if base graph necessary. Probably not.
         super.init(req, gh, chGraph.getBaseGraph(), encoder, weighting);
         this.chGraph = chGraph;
+        this.request = req;
 
         pathMetricsExtractor = new MultiTreeMetricsExtractor(req.getMetrics(), chGraph, this.encoder, weighting,
                 req.getUnits());
     }
 
+    /**
+     * Run the searches in workspaces borrowed from the given pool instead of allocating new collections. A single pass
+     * borrows one workspace, a tiled matrix one per thread.
+     */
+    public void setSearchWorkspacePool(SearchWorkspacePool searchWorkspacePool) {
+        this.searchWorkspacePool = searchWorkspacePool;
+    }
+
+    /**
+     * Splits matrices with more than {@value #SOURCES_PER_TILE} sources into tiles of that many sources, which are
+     * searched on the given executor against a shared target graph. At most the given number of threads is used for
+     * a single matrix.
+     */
+    public void setExecutor(ExecutorService executor, int threads) {
+        this.executor = executor;
+        this.threads = threads;
+    }
+
     @Override
     public MatrixResult compute(MatrixLocations srcData, MatrixLocations dstData, int metrics) throws Exception {
         MatrixResult mtxResult = new MatrixResult(srcData.getLocations(), dstData.getLocations());
 
-        float[] times = null;
-        float[] distances = null;
-        float[] weights = null;
-
         int tableSize = srcData.size() * dstData.size();
-        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
-            times = new float[tableSize];
-        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE))
-            distances = new float[tableSize];
-        if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT))
-            weights = new float[tableSize];
+        float[] times = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION) ? new float[tableSize] : null;
+        float[] distances = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE) ? new float[tableSize] : null;
+        float[] weights = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT) ? new float[tableSize] : null;
 
         if (!srcData.hasValidNodes() || !dstData.hasValidNodes()) {
             for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++)
                 pathMetricsExtractor.setEmptyValues(srcIndex, dstData, times, distances, weights);
         } else {
-            RPHASTAlgorithm algorithm = new RPHASTAlgorithm(chGraph, chGraph.getWeighting(), TraversalMode.NODE_BASED);
-            algorithm.setMaxVisitedNodes(this.maxVisitedNodes);
-
-            int[] srcIds = getValidNodeIds(srcData.getNodeIds());
-            int[] destIds = getValidNodeIds(dstData.getNodeIds());
-
             if (graphHopper != null)
                 mtxResult.setGraphDate(graphHopper.getGraphHopperStorage().getProperties().get("datareader.import.date"));
 
-            algorithm.prepare(srcIds, destIds);
-
-            MultiTreeSPEntry[] destTrees = algorithm.calcPaths(srcIds, destIds);
-
-            MultiTreeSPEntry[] originalDestTrees = new MultiTreeSPEntry[dstData.size()];
-
-            int j = 0;
-            for (int i = 0; i < dstData.size(); i++) {
-                if (dstData.getNodeIds()[i] != -1) {
-                    originalDestTrees[i] = destTrees[j];
-                    ++j;
-                } else {
-                    originalDestTrees[i] = null;
+            int tiles = (srcData.size() + SOURCES_PER_TILE - 1) / SOURCES_PER_TILE;
+            int tasks = Math.min(threads, tiles);
+            if (executor != null && tasks > 1) {
+                computeTiles(srcData, dstData, tiles, tasks, times, distances, weights);
+            } else {
+                SearchWorkspace workspace = searchWorkspacePool != null ? searchWorkspacePool.borrow() : null;
+                try {
+                    RPHASTAlgorithm algorithm = new RPHASTAlgorithm(chGraph, chGraph.getWeighting(), TraversalMode.NODE_BASED, workspace);
+                    algorithm.setMaxVisitedNodes(this.maxVisitedNodes);
+                    algorithm.prepare(getValidNodeIds(srcData.getNodeIds()), getValidNodeIds(dstData.getNodeIds()));
+                    computeSources(algorithm, pathMetricsExtractor, srcData, dstData, times, distances, weights);
+                } finally {
+                    if (workspace != null)
+                        searchWorkspacePool.release(workspace);
                 }
             }
-
-            pathMetricsExtractor.calcValues(originalDestTrees, srcData, dstData, times, distances, weights);
         }
 
         if (MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION))
@@ -98,6 +117,99 @@ public class RPHASTMatrixAlgorithm extends AbstractMatrixAlgorithm {
         return mtxResult;
     }
 
+    /**
+     * Searches the tiles of the matrix on the executor. The limit of visited nodes applies to the whole matrix, so each
+     * tile is only searched with what is left of it, and the nodes visited by all tiles are checked against it.
+     */
+    private void computeTiles(MatrixLocations srcData, MatrixLocations dstData, int tiles, int tasks, float[] times, float[] distances, float[] weights) throws Exception {
+        SubGraph targetGraph = new RPHASTAlgorithm(chGraph, chGraph.getWeighting(), TraversalMode.NODE_BASED).createTargetGraph(getValidNodeIds(dstData.getNodeIds()));
+        AtomicInteger nextTile = new AtomicInteger();
+        AtomicInteger visitedNodes = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            futures.add(executor.submit(() -> {
+                SearchWorkspace workspace = searchWorkspacePool != null ? searchWorkspacePool.borrow() : new SearchWorkspace(Math.min(Math.max(200, chGraph.getNodes() / 10), 2000));
+                try {
+                    searchTiles(srcData, dstData, tiles, nextTile, visitedNodes, targetGraph, workspace, times, distances, weights);
+                } finally {
+                    if (searchWorkspacePool != null)
+                        searchWorkspacePool.release(workspace);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures)
+                future.get();
+        } catch (ExecutionException e) {
+            nextTile.set(tiles);
+            for (Future<?> future : futures)
+                future.cancel(true);
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Searches tiles in the given workspace until no tile is left.
+     */
+    private void searchTiles(MatrixLocations srcData, MatrixLocations dstData, int tiles, AtomicInteger nextTile, AtomicInteger visitedNodes, SubGraph targetGraph, SearchWorkspace workspace, float[] times, float[] distances, float[] weights) throws Exception {
+        MultiTreeMetricsExtractor extractor = new MultiTreeMetricsExtractor(request.getMetrics(), chGraph, encoder, weighting, request.getUnits());
+        for (int tile = nextTile.getAndIncrement(); tile < tiles; tile = nextTile.getAndIncrement()) {
+            int from = tile * SOURCES_PER_TILE;
+            int to = Math.min(from + SOURCES_PER_TILE, srcData.size());
+            MatrixLocations tileData = srcData.subset(from, to);
+            int tileSize = tileData.size() * dstData.size();
+            float[] tileTimes = times != null ? new float[tileSize] : null;
+            float[] tileDistances = distances != null ? new float[tileSize] : null;
+            float[] tileWeights = weights != null ? new float[tileSize] : null;
+
+            if (tileData.hasValidNodes()) {
+                RPHASTAlgorithm algorithm = new RPHASTAlgorithm(chGraph, chGraph.getWeighting(), TraversalMode.NODE_BASED, workspace);
+                algorithm.setMaxVisitedNodes(this.maxVisitedNodes - visitedNodes.get());
+                algorithm.prepare(getValidNodeIds(tileData.getNodeIds()), targetGraph);
+                computeSources(algorithm, extractor, tileData, dstData, tileTimes, tileDistances, tileWeights);
+                workspace.reset();
+                if (visitedNodes.addAndGet(algorithm.getVisitedNodes()) > this.maxVisitedNodes)
+                    throw new MaxVisitedNodesExceededException();
+            } else {
+                for (int srcIndex = 0; srcIndex < tileData.size(); srcIndex++)
+                    extractor.setEmptyValues(srcIndex, dstData, tileTimes, tileDistances, tileWeights);
+            }
+
+            // the rows of a tile are contiguous in the tables of the whole matrix
+            int offset = from * dstData.size();
+            if (times != null)
+                System.arraycopy(tileTimes, 0, times, offset, tileSize);
+            if (distances != null)
+                System.arraycopy(tileDistances, 0, distances, offset, tileSize);
+            if (weights != null)
+                System.arraycopy(tileWeights, 0, weights, offset, tileSize);
+        }
+    }
+
+    /**
+     * Runs the search of the prepared algorithm from the valid sources of srcData and writes the rows of all sources.
+     */
+    private void computeSources(RPHASTAlgorithm algorithm, MultiTreeMetricsExtractor extractor, MatrixLocations srcData, MatrixLocations dstData, float[] times, float[] distances, float[] weights) throws Exception {
+        int[] srcIds = getValidNodeIds(srcData.getNodeIds());
+        int[] destIds = getValidNodeIds(dstData.getNodeIds());
+        int[] destSlots = algorithm.calcPathSlots(srcIds, destIds);
+
+        int[] originalDestSlots = new int[dstData.size()];
+
+        int j = 0;
+        for (int i = 0; i < dstData.size(); i++) {
+            if (dstData.getNodeIds()[i] != -1) {
+                originalDestSlots[i] = destSlots[j];
+                ++j;
+            } else {
+                originalDestSlots[i] = -1;
+            }
+        }
+
+        extractor.calcValues(algorithm.getSearchState(), originalDestSlots, srcData, dstData, times, distances, weights);
+    }
+
     private int[] getValidNodeIds(int[] nodeIds) {
         List<Integer> nodeList = new ArrayList<>();
         for (int dst : nodeIds) {
@@ -122,7 +122,8 @@ public class APIEnums {
 
     @Schema(name = "Matrix response type", description = "Format of the Matrix response.")
     public enum MatrixResponseType {
-        JSON("json");
+        JSON("json"),
+        BINARY("binary");
 
         private final String value;
 
@@ -13,6 +13,9 @@
  */
 package org.heigit.ors.routing;
 
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.cursors.IntCursor;
 import com.graphhopper.GHRequest;
 import com.graphhopper.GHResponse;
 import com.graphhopper.GraphHopper;
@@ -32,7 +35,6 @@ import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.GHPoint;
 import com.typesafe.config.Config;
 import org.apache.log4j.Logger;
-import org.heigit.ors.common.Pair;
 import org.heigit.ors.config.EngineConfig;
 import org.heigit.ors.exceptions.IncompatibleParameterException;
 import org.heigit.ors.exceptions.InternalServerException;
@@ -46,9 +48,12 @@ import org.heigit.ors.isochrones.statistics.StatisticsProvider;
 import org.heigit.ors.isochrones.statistics.StatisticsProviderConfiguration;
 import org.heigit.ors.isochrones.statistics.StatisticsProviderFactory;
 import org.heigit.ors.matrix.*;
+import org.heigit.ors.matrix.algorithms.MatrixAlgorithmFactory;
+import org.heigit.ors.matrix.algorithms.bucket.BucketMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.core.CoreMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
+import org.heigit.ors.routing.algorithms.SearchWorkspacePool;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.graphhopper.extensions.*;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FlagEncoderNames;
@@ -64,7 +69,6 @@ import org.heigit.ors.util.DebugUtility;
 import org.heigit.ors.util.ProfileTools;
 import org.heigit.ors.util.StringUtility;
 import org.heigit.ors.util.TimeUtility;
-import org.locationtech.jts.geom.Coordinate;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -73,6 +77,8 @@ import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * This class generates {@link RoutingProfile} classes and is used by mostly all service classes e.g.
@@ -92,6 +98,10 @@ public class RoutingProfile {
     private Integer mUseCounter;
     private String astarApproximation;
     private Double astarEpsilon;
+    private SearchWorkspacePool searchWorkspacePool;
+    private SnappingCache snappingCache;
+    private ExecutorService snappingExecutor;
+    private ExecutorService matrixExecutor;
 
     public RoutingProfile(EngineConfig engineConfig, RouteProfileConfiguration rpc, RoutingProfileLoadContext loadCntx) throws Exception {
         mRoutePrefs = rpc.getProfilesTypes();
@@ -101,6 +111,18 @@ public class RoutingProfile {
 
         config = rpc;
 
+        if (config.getSearchWorkspacePoolSize() > 0) {
+            int workspaceCapacity = Math.min(Math.max(200, mGraphHopper.getGraphHopperStorage().getNodes() / 10), 2000);
+            searchWorkspacePool = new SearchWorkspacePool(config.getSearchWorkspacePoolSize(), config.getSearchWorkspacePoolTimeout(), workspaceCapacity);
+        }
+
+        if (config.getSnappingCacheSize() > 0)
+            snappingCache = new SnappingCache(config.getSnappingCacheSize(), config.getSnappingCacheTtl() * 1000);
+        if (config.getSnappingThreads() > 1)
+            snappingExecutor = Executors.newFixedThreadPool(config.getSnappingThreads());
+        if (config.getMatrixThreads() > 1)
+            matrixExecutor = Executors.newFixedThreadPool(config.getMatrixThreads());
+
         Config optsExecute = config.getExecutionOpts();
         if (optsExecute != null) {
             if (optsExecute.hasPath("methods.astar.approximation"))
@@ -150,6 +172,7 @@ public class RoutingProfile {
             loadCntx.setElevationProvider(gh.getElevationProvider());
         }
         gh.setGraphStorageFactory(new ORSGraphStorageFactory(gpc.getStorageBuilders()));
+        gh.setSharedOSMInput(loadCntx.getSharedOSMInput());
 
         gh.importOrLoad();
         // store CountryBordersReader for later use
@@ -176,9 +199,24 @@ public class RoutingProfile {
         return gh;
     }
 
+    /**
+     * Returns the data access type used for the graph and all storages in its directory. MMAP and MMAP_RO map the
+     * graph files instead of loading them onto the heap. As read-only mappings cannot be written, a graph which has
+     * not been built yet is mapped writable.
+     */
+    static String getGraphDataAccess(RouteProfileConfiguration config) {
+        String dataAccess = StringUtility.trimQuotes(config.getGraphDataAccess());
+        DAType type = DAType.fromString(dataAccess);
+        if (type.isMMap() && !type.isAllowWrites() && !Paths.get(config.getGraphPath(), "properties").toFile().exists()) {
+            LOGGER.warn("Graph in '%s' does not exist yet, building it with MMAP instead of %s.".formatted(config.getGraphPath(), dataAccess));
+            return "MMAP";
+        }
+        return dataAccess;
+    }
+
     private static ORSGraphHopperConfig createGHSettings(String sourceFile, RouteProfileConfiguration config) {
         ORSGraphHopperConfig ghConfig = new ORSGraphHopperConfig();
-        ghConfig.putObject("graph.dataaccess", "RAM_STORE");
+        ghConfig.putObject("graph.dataaccess", getGraphDataAccess(config));
         ghConfig.putObject("datareader.file", sourceFile);
         ghConfig.putObject("graph.location", config.getGraphPath());
         ghConfig.putObject("graph.bytes_for_flags", config.getEncoderFlagsSize());
@@ -445,6 +483,20 @@ public class RoutingProfile {
         return config;
     }
 
+    /**
+     * @return the pool of matrix search workspaces, or null if pooling is disabled for this profile
+     */
+    public SearchWorkspacePool getSearchWorkspacePool() {
+        return searchWorkspacePool;
+    }
+
+    /**
+     * @return the cache of matrix location lookups, or null if caching is disabled for this profile
+     */
+    public SnappingCache getSnappingCache() {
+        return snappingCache;
+    }
+
     public Integer[] getPreferences() {
         return mRoutePrefs;
     }
@@ -462,6 +514,10 @@ public class RoutingProfile {
     }
 
     public void close() {
+        if (snappingExecutor != null)
+            snappingExecutor.shutdownNow();
+        if (matrixExecutor != null)
+            matrixExecutor.shutdownNow();
         mGraphHopper.close();
     }
 
@@ -616,7 +672,8 @@ public class RoutingProfile {
     }
 
     /**
-     * Compute a matrix based on a contraction hierarchies graph using the RPHAST algorithm. This is fast, but inflexible.
+     * Compute a matrix based on a contraction hierarchies graph using the RPHAST algorithm, or the bucket based
+     * many-to-many algorithm if it is expected to be cheaper for the given locations. This is fast, but inflexible.
      *
      * @param req
      * @param gh
@@ -627,14 +684,31 @@ public class RoutingProfile {
      */
     private MatrixResult computeRPHASTMatrix(MatrixRequest req, GraphHopper gh, FlagEncoder flagEncoder, String profileName) throws Exception {
         RoutingCHGraph routingCHGraph = gh.getGraphHopperStorage().getRoutingCHGraph(profileName);
-        MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), AccessFilter.allEdges(flagEncoder.getAccessEnc()), req.getResolveLocations());
+        MatrixSearchContextBuilder builder = createMatrixSearchContextBuilder(gh, AccessFilter.allEdges(flagEncoder.getAccessEnc()), req.getResolveLocations());
         MatrixSearchContext mtxSearchCntx = builder.create(routingCHGraph.getBaseGraph(), routingCHGraph, routingCHGraph.getWeighting(), profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
 
+        if (config.isMatrixBucketAlgorithm() && MatrixAlgorithmFactory.isBucketAlgorithmPreferred(req.getSources(), req.getDestinations())) {
+            BucketMatrixAlgorithm algorithm = new BucketMatrixAlgorithm();
+            algorithm.init(req, gh, mtxSearchCntx.getRoutingCHGraph(), flagEncoder, routingCHGraph.getWeighting());
+            return algorithm.compute(mtxSearchCntx.getSources(), mtxSearchCntx.getDestinations(), req.getMetrics());
+        }
+
         RPHASTMatrixAlgorithm algorithm = new RPHASTMatrixAlgorithm();
         algorithm.init(req, gh, mtxSearchCntx.getRoutingCHGraph(), flagEncoder, routingCHGraph.getWeighting());
+        if (matrixExecutor != null)
+            algorithm.setExecutor(matrixExecutor, config.getMatrixThreads());
+        algorithm.setSearchWorkspacePool(searchWorkspacePool);
         return algorithm.compute(mtxSearchCntx.getSources(), mtxSearchCntx.getDestinations(), req.getMetrics());
     }
 
+    private MatrixSearchContextBuilder createMatrixSearchContextBuilder(GraphHopper gh, EdgeFilter edgeFilter, boolean resolveNames) {
+        MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), edgeFilter, resolveNames);
+        builder.setSnappingCache(snappingCache);
+        if (snappingExecutor != null)
+            builder.setLocateExecutor(snappingExecutor, config.getSnappingThreads());
+        return builder;
+    }
+
     /**
      * Compute a matrix based on a core contracted graph, which is slower than RPHAST, but offers all the flexibility of the core
      *
@@ -647,7 +721,7 @@ public class RoutingProfile {
         PMap additionalHints = searchCntx.getProperties();
         EdgeFilter edgeFilter = new ORSEdgeFilterFactory().createEdgeFilter(additionalHints, flagEncoder, gh.getGraphHopperStorage());
 
-        MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), edgeFilter, req.getResolveLocations());
+        MatrixSearchContextBuilder builder = createMatrixSearchContextBuilder(gh, edgeFilter, req.getResolveLocations());
         MatrixSearchContext mtxSearchCntx = builder.create(graph.getBaseGraph(), graph, weighting, profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
 
         CoreMatrixAlgorithm algorithm = new CoreMatrixAlgorithm();
@@ -669,20 +743,19 @@ public class RoutingProfile {
     private MatrixResult computeDijkstraMatrix(MatrixRequest req, GraphHopper gh, FlagEncoder flagEncoder, PMap hintsMap, String profileName) throws Exception {
         Graph graph = gh.getGraphHopperStorage().getBaseGraph();
         Weighting weighting = new ORSWeightingFactory(gh.getGraphHopperStorage(), gh.getEncodingManager()).createWeighting(gh.getProfile(profileName), hintsMap, false);
-        MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), AccessFilter.allEdges(flagEncoder.getAccessEnc()), req.getResolveLocations());
+        MatrixSearchContextBuilder builder = createMatrixSearchContextBuilder(gh, AccessFilter.allEdges(flagEncoder.getAccessEnc()), req.getResolveLocations());
         MatrixSearchContext mtxSearchCntx = builder.create(graph, null, weighting, profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
 
         DijkstraMatrixAlgorithm algorithm = new DijkstraMatrixAlgorithm();
         algorithm.init(req, gh, mtxSearchCntx.getGraph(), flagEncoder, weighting);
+        if (matrixExecutor != null)
+            algorithm.setExecutor(matrixExecutor, config.getMatrixThreads());
         return algorithm.compute(mtxSearchCntx.getSources(), mtxSearchCntx.getDestinations(), req.getMetrics());
     }
 
     public ExportResult computeExport(ExportRequest req) throws Exception {
-        ExportResult res = new ExportResult();
-
         GraphHopper gh = getGraphhopper();
         String encoderName = RoutingProfileType.getEncoderName(req.getProfileType());
-        Graph graph = gh.getGraphHopperStorage().getBaseGraph();
 
         PMap hintsMap = new PMap();
         int weightingMethod = WeightingMethod.FASTEST;
@@ -691,15 +764,32 @@ public class RoutingProfile {
         Weighting weighting = gh.createWeighting(gh.getProfile(profileName), hintsMap);
 
         FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
-        EdgeExplorer explorer = graph.createEdgeExplorer(AccessFilter.outEdges(flagEncoder.getAccessEnc()));
 
+        WheelchairAttributesGraphStorage wheelchairStorage = null;
+        OsmIdGraphStorage osmIdStorage = null;
+        if (req.debug()) {
+            wheelchairStorage = GraphStorageUtils.getGraphExtension(gh.getGraphHopperStorage(), WheelchairAttributesGraphStorage.class);
+            osmIdStorage = GraphStorageUtils.getGraphExtension(gh.getGraphHopperStorage(), OsmIdGraphStorage.class);
+        }
+        return computeExport(req, gh.getGraphHopperStorage().getBaseGraph(), gh.getLocationIndex(), weighting, flagEncoder, wheelchairStorage, osmIdStorage);
+    }
+
+    /**
+     * Exports the nodes in the bounding box of the request and the edges between them.
+     *
+     * @param wheelchairStorage the wheelchair attributes added to the edges in debug mode, may be null
+     * @param osmIdStorage      the OSM ids added to the edges in debug mode, may be null
+     */
+    static ExportResult computeExport(ExportRequest req, Graph graph, LocationIndex index, Weighting weighting, FlagEncoder flagEncoder,
+                                      WheelchairAttributesGraphStorage wheelchairStorage, OsmIdGraphStorage osmIdStorage) {
+        ExportResult res = new ExportResult();
+        EdgeExplorer explorer = graph.createEdgeExplorer(AccessFilter.outEdges(flagEncoder.getAccessEnc()));
 
         // filter graph for nodes in Bounding Box
-        LocationIndex index = gh.getLocationIndex();
         NodeAccess nodeAccess = graph.getNodeAccess();
         BBox bbox = req.getBoundingBox();
 
-        ArrayList<Integer> nodesInBBox = new ArrayList<>();
+        IntHashSet nodesInBBox = new IntHashSet();
         index.query(bbox, edgeId -> {
             // According to GHUtility.getEdgeFromEdgeKey, edgeIds are calculated as edgeKey/2.
             EdgeIteratorState edge = graph.getEdgeIteratorStateForKey(edgeId * 2);
@@ -722,38 +812,45 @@ public class RoutingProfile {
             return res;
         }
 
-        // calculate node coordinates
-        for (int from : nodesInBBox) {
-            Coordinate coord = new Coordinate(nodeAccess.getLon(from), nodeAccess.getLat(from));
-            res.addLocation(from, coord);
+        WheelchairAttributes attributes = new WheelchairAttributes();
+        byte[] buffer = new byte[WheelchairAttributesGraphStorage.BYTE_COUNT];
 
+        // calculate node coordinates and edges, parallel edges between two nodes are reported once with the weight
+        // of the last one as the export is keyed by node pairs
+        IntIntHashMap edgeIndexByAdjNode = new IntIntHashMap();
+        for (IntCursor cursor : nodesInBBox) {
+            int from = cursor.value;
+            res.addLocation(from, nodeAccess.getLon(from), nodeAccess.getLat(from));
+
+            edgeIndexByAdjNode.clear();
             EdgeIterator iter = explorer.setBaseNode(from);
             while (iter.next()) {
                 int to = iter.getAdjNode();
                 if (nodesInBBox.contains(to)) {
                     double weight = weighting.calcEdgeWeight(iter, false, EdgeIterator.NO_EDGE);
-                    Pair<Integer, Integer> p = new Pair<>(from, to);
-                    res.addEdge(p, weight);
+                    int edgeIndex = edgeIndexByAdjNode.getOrDefault(to, -1);
+                    if (edgeIndex == -1) {
+                        edgeIndex = res.addEdge(from, to, weight);
+                        edgeIndexByAdjNode.put(to, edgeIndex);
+                    } else {
+                        res.setEdgeWeight(edgeIndex, weight);
+                    }
 
                     if (req.debug()) {
                         Map<String, Object> extra = new HashMap<>();
                         extra.put("edge_id", iter.getEdge());
-                        WheelchairAttributesGraphStorage storage = GraphStorageUtils.getGraphExtension(gh.getGraphHopperStorage(), WheelchairAttributesGraphStorage.class);
-                        if (storage != null) {
-                            WheelchairAttributes attributes = new WheelchairAttributes();
-                            byte[] buffer = new byte[WheelchairAttributesGraphStorage.BYTE_COUNT];
-                            storage.getEdgeValues(iter.getEdge(), attributes, buffer);
+                        if (wheelchairStorage != null) {
+                            wheelchairStorage.getEdgeValues(iter.getEdge(), attributes, buffer);
                             if (attributes.hasValues()) {
                                 extra.put("incline", attributes.getIncline());
                                 extra.put("surface_quality_known", attributes.isSurfaceQualityKnown());
                                 extra.put("suitable", attributes.isSuitable());
                             }
                         }
-                        OsmIdGraphStorage storage2 = GraphStorageUtils.getGraphExtension(gh.getGraphHopperStorage(), OsmIdGraphStorage.class);
-                        if (storage2 != null) {
-                            extra.put("osm_id", storage2.getEdgeValue(iter.getEdge()));
+                        if (osmIdStorage != null) {
+                            extra.put("osm_id", osmIdStorage.getEdgeValue(iter.getEdge()));
                         }
-                        res.addEdgeExtra(p, extra);
+                        res.setEdgeExtra(edgeIndex, extra);
                     }
                 }
             }
@@ -894,7 +991,7 @@ public class RoutingProfile {
             //Overwrite algorithm selected in setSpeedups
             req.setAlgorithm(Parameters.Algorithms.ROUND_TRIP);
 
-            mGraphHopper.getRouterConfig().setSimplifyResponse(geometrySimplify);
+            req.getHints().putObject(ORSParameters.Routing.SIMPLIFY_GEOMETRY, geometrySimplify);
             resp = mGraphHopper.route(req);
 
             endUseGH();
@@ -1011,10 +1108,10 @@ public class RoutingProfile {
                 req.getHints().putObject("maximum_speed_lower_bound", config.getMaximumSpeedLowerBound());
             }
 
+            req.getHints().putObject(ORSParameters.Routing.SIMPLIFY_GEOMETRY, geometrySimplify);
             if (directedSegment) {
                 resp = mGraphHopper.constructFreeHandRoute(req);
             } else {
-                mGraphHopper.getRouterConfig().setSimplifyResponse(geometrySimplify);
                 resp = mGraphHopper.route(req);
             }
             if (DebugUtility.isDebug() && !directedSegment) {
@@ -14,6 +14,7 @@
 package org.heigit.ors.routing;
 
 import com.graphhopper.reader.dem.ElevationProvider;
+import org.heigit.ors.routing.graphhopper.extensions.SharedOSMInput;
 
 /**
  * Holds resources shared between instances of {@link RoutingProfile}.
@@ -22,6 +23,7 @@ import com.graphhopper.reader.dem.ElevationProvider;
 public class RoutingProfileLoadContext {
     // add here any other shared resources
     private ElevationProvider elevationProvider = null;
+    private SharedOSMInput sharedOSMInput = null;
 
     public ElevationProvider getElevationProvider() {
         return elevationProvider;
@@ -33,6 +35,14 @@ public class RoutingProfileLoadContext {
         }
     }
 
+    public SharedOSMInput getSharedOSMInput() {
+        return sharedOSMInput;
+    }
+
+    public void setSharedOSMInput(SharedOSMInput sharedOSMInput) {
+        this.sharedOSMInput = sharedOSMInput;
+    }
+
     public void releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed() {
         if (elevationProvider != null) {
             elevationProvider.release();
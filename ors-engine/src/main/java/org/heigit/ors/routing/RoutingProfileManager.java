@@ -34,6 +34,7 @@ import org.heigit.ors.matrix.MatrixRequest;
 import org.heigit.ors.matrix.MatrixResult;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.configuration.RoutingManagerConfiguration;
+import org.heigit.ors.routing.graphhopper.extensions.SharedOSMInput;
 import org.heigit.ors.routing.pathprocessors.ExtraInfoProcessor;
 import org.heigit.ors.util.FormatUtility;
 import org.heigit.ors.util.RuntimeUtility;
@@ -41,6 +42,8 @@ import org.heigit.ors.util.StringUtility;
 import org.heigit.ors.util.TimeUtility;
 import org.locationtech.jts.geom.Coordinate;
 
+import java.io.File;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -50,7 +53,9 @@ import java.util.stream.Collectors;
 public class RoutingProfileManager {
     private static final Logger LOGGER = Logger.getLogger(RoutingProfileManager.class.getName());
     public static final String KEY_SKIPPED_EXTRA_INFO = "skipped_extra_info";
+    private static final long SHARED_OSM_INPUT_GATHER_TIME = 10000;
     private RoutingProfilesCollection routingProfiles;
+    private ExecutorService segmentExecutor;
     private static RoutingProfileManager instance;
 
     public RoutingProfileManager(EngineConfig config) {
@@ -89,6 +94,8 @@ public class RoutingProfileManager {
             int nRouteInstances = routeProfileConfigurations.length;
 
             RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
+            if (config.isSharedOsmImport())
+                loadCntx.setSharedOSMInput(createSharedOSMInput(config, routeProfileConfigurations, initializationThreads));
             ExecutorService executor = Executors.newFixedThreadPool(initializationThreads);
             ExecutorCompletionService<RoutingProfile> compService = new ExecutorCompletionService<>(executor);
 
@@ -129,6 +136,9 @@ public class RoutingProfileManager {
             executor.shutdown();
             loadCntx.releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed();
 
+            if (config.getRouteSegmentThreads() > 1)
+                segmentExecutor = Executors.newFixedThreadPool(config.getRouteSegmentThreads());
+
             LOGGER.info("Total time: " + TimeUtility.getElapsedTime(startTime, true) + ".");
             LOGGER.info("========================================================================");
             RoutingProfileManagerStatus.setReady(true);
@@ -147,10 +157,36 @@ public class RoutingProfileManager {
             routingProfiles.printStatistics(LOGGER);
     }
 
+    /**
+     * Sets the executor the segments of linear routes are computed with, or null to compute them one after another.
+     */
+    void setSegmentExecutor(ExecutorService segmentExecutor) {
+        this.segmentExecutor = segmentExecutor;
+    }
+
     public void destroy() {
+        if (segmentExecutor != null)
+            segmentExecutor.shutdownNow();
         routingProfiles.destroy();
     }
 
+    /**
+     * Returns an input which decodes the source file once for all profiles whose graphs are built at the same time, or
+     * null if at most one graph is built at a time.
+     */
+    private static SharedOSMInput createSharedOSMInput(EngineConfig config, RouteProfileConfiguration[] profiles, int initializationThreads) {
+        int buildingProfiles = 0;
+        for (RouteProfileConfiguration rpc : profiles) {
+            if (rpc.getEnabled() && rpc.getProfilesTypes() != null && !Paths.get(rpc.getGraphPath(), "properties").toFile().exists())
+                buildingProfiles++;
+        }
+        int readers = Math.min(buildingProfiles, initializationThreads);
+        if (readers < 2)
+            return null;
+        LOGGER.info("Sharing the import of '%s' between up to %d profiles.".formatted(config.getSourceFile(), readers));
+        return new SharedOSMInput(new File(config.getSourceFile()), readers, SHARED_OSM_INPUT_GATHER_TIME);
+    }
+
     private void fail(String message) {
         LOGGER.error("");
         LOGGER.error(message);
@@ -254,194 +290,236 @@ public class RoutingProfileManager {
     }
 
     public RouteResult[] computeLinearRoute(RoutingRequest req) throws Exception {
-        List<Integer> skipSegments = req.getSkipSegments();
         List<GHResponse> routes = new ArrayList<>();
 
         RoutingProfile rp = getRouteProfile(req, false);
         RouteSearchParameters searchParams = req.getSearchParameters();
 
-        Coordinate[] coords = req.getCoordinates();
-        Coordinate c0 = coords[0];
-        Coordinate c1;
-        int nSegments = coords.length - 1;
+        int nSegments = req.getCoordinates().length - 1;
         GHResponse prevResp = null;
-        WayPointBearing[] bearings = (req.getContinueStraight() || searchParams.getBearings() != null) ? new WayPointBearing[2] : null;
-        int profileType = req.getSearchParameters().getProfileType();
-        double[] radiuses = null;
 
-        if (req.getSearchParameters().getAlternativeRoutesCount() > 1 && coords.length > 2) {
+        if (req.getSearchParameters().getAlternativeRoutesCount() > 1 && req.getCoordinates().length > 2) {
             throw new InternalServerException(RoutingErrorCodes.INVALID_PARAMETER_VALUE, "Alternative routes algorithm does not support more than two way points.");
         }
 
         int numberOfExpectedExtraInfoProcessors = req.getSearchParameters().getAlternativeRoutesCount() < 0 ? 1 : req.getSearchParameters().getAlternativeRoutesCount();
         ExtraInfoProcessor[] extraInfoProcessors = new ExtraInfoProcessor[numberOfExpectedExtraInfoProcessors];
 
-        for (int i = 1; i <= nSegments; ++i) {
-            c1 = coords[i];
+        // With continue_straight and without explicit bearings, the start heading of a segment is taken from the
+        // previous segment, so the segments have to be computed one after another.
+        boolean headingDependent = req.getContinueStraight() && searchParams.getBearings() == null;
+        List<Future<GHResponse>> segmentResults = null;
+        if (segmentExecutor != null && nSegments > 1 && !headingDependent) {
+            segmentResults = new ArrayList<>(nSegments);
+            for (int i = 1; i <= nSegments; ++i) {
+                final int segment = i;
+                segmentResults.add(segmentExecutor.submit(() -> computeSegment(req, rp, segment, null)));
+            }
+        }
 
-            if (bearings != null) {
-                bearings[0] = null;
-                if (prevResp != null && req.getContinueStraight()) {
-                    bearings[0] = new WayPointBearing(getHeadingDirection(prevResp));
+        try {
+            for (int i = 1; i <= nSegments; ++i) {
+                GHResponse gr = segmentResults == null ? computeSegment(req, rp, i, prevResp) : getSegmentResult(segmentResults.get(i - 1));
+
+                if (numberOfExpectedExtraInfoProcessors > 1) {
+                    int extraInfoProcessorIndex = 0;
+                    for (Object o : gr.getReturnObjects()) {
+                        if (o instanceof ExtraInfoProcessor processor) {
+                            extraInfoProcessors[extraInfoProcessorIndex] = processor;
+                            extraInfoProcessorIndex++;
+                            if (!StringUtility.isNullOrEmpty(processor.getSkippedExtraInfo())) {
+                                gr.getHints().putObject(KEY_SKIPPED_EXTRA_INFO, processor.getSkippedExtraInfo());
+                            }
+                        }
+                    }
+                } else {
+                    for (Object o : gr.getReturnObjects()) {
+                        if (o instanceof ExtraInfoProcessor processor) {
+                            if (extraInfoProcessors[0] == null) {
+                                extraInfoProcessors[0] = processor;
+                                if (!StringUtility.isNullOrEmpty(processor.getSkippedExtraInfo())) {
+                                    gr.getHints().putObject(KEY_SKIPPED_EXTRA_INFO, processor.getSkippedExtraInfo());
+                                }
+                            } else {
+                                extraInfoProcessors[0].appendData(processor);
+                            }
+                        }
+                    }
                 }
 
-                if (searchParams.getBearings() != null) {
-                    bearings[0] = searchParams.getBearings()[i - 1];
-                    bearings[1] = (i == nSegments && searchParams.getBearings().length != nSegments + 1) ? new WayPointBearing(Double.NaN) : searchParams.getBearings()[i];
-                }
+                prevResp = gr;
+                routes.add(gr);
+            }
+        } finally {
+            if (segmentResults != null) {
+                for (Future<GHResponse> segmentResult : segmentResults)
+                    segmentResult.cancel(true);
+            }
+        }
+        routes = enrichDirectRoutesTime(routes);
+
+        List<RouteExtraInfo>[] extraInfos = new List[numberOfExpectedExtraInfoProcessors];
+        int i = 0;
+        for (ExtraInfoProcessor e : extraInfoProcessors) {
+            extraInfos[i] = e != null ? e.getExtras() : null;
+            i++;
+        }
+        return new RouteResultBuilder().createRouteResults(routes, req, extraInfos);
+    }
+
+    /**
+     * Computes the route between the way points i - 1 and i of the request.
+     *
+     * @param prevResp the response of the previous segment, used to continue straight if requested. May be null.
+     */
+    private GHResponse computeSegment(RoutingRequest req, RoutingProfile rp, int i, GHResponse prevResp) throws Exception {
+        RouteSearchParameters searchParams = req.getSearchParameters();
+        Coordinate[] coords = req.getCoordinates();
+        Coordinate c0 = coords[i - 1];
+        Coordinate c1 = coords[i];
+        int nSegments = coords.length - 1;
+        WayPointBearing[] bearings = (req.getContinueStraight() || searchParams.getBearings() != null) ? new WayPointBearing[2] : null;
+        int profileType = searchParams.getProfileType();
+        double[] radiuses = null;
+
+        if (bearings != null) {
+            bearings[0] = null;
+            if (prevResp != null && req.getContinueStraight()) {
+                bearings[0] = new WayPointBearing(getHeadingDirection(prevResp));
             }
 
-            if (searchParams.getMaximumRadiuses() != null) {
+            if (searchParams.getBearings() != null) {
+                bearings[0] = searchParams.getBearings()[i - 1];
+                bearings[1] = (i == nSegments && searchParams.getBearings().length != nSegments + 1) ? new WayPointBearing(Double.NaN) : searchParams.getBearings()[i];
+            }
+        }
+
+        if (searchParams.getMaximumRadiuses() != null) {
+            radiuses = new double[2];
+            radiuses[0] = searchParams.getMaximumRadiuses()[i - 1];
+            radiuses[1] = searchParams.getMaximumRadiuses()[i];
+        } else {
+            try {
+                int maximumSnappingRadius = routingProfiles.getRouteProfile(profileType).getConfiguration().getMaximumSnappingRadius();
                 radiuses = new double[2];
-                radiuses[0] = searchParams.getMaximumRadiuses()[i - 1];
-                radiuses[1] = searchParams.getMaximumRadiuses()[i];
-            } else {
-                try {
-                    int maximumSnappingRadius = routingProfiles.getRouteProfile(profileType).getConfiguration().getMaximumSnappingRadius();
-                    radiuses = new double[2];
-                    radiuses[0] = maximumSnappingRadius;
-                    radiuses[1] = maximumSnappingRadius;
-                } catch (Exception ex) {
-                    // do nothing
-                }
+                radiuses[0] = maximumSnappingRadius;
+                radiuses[1] = maximumSnappingRadius;
+            } catch (Exception ex) {
+                // do nothing
             }
+        }
 
-            GHResponse gr = rp.computeRoute(c0.y, c0.x, c1.y, c1.x, bearings, radiuses, skipSegments.contains(i), searchParams, req.getGeometrySimplify());
-
-            if (gr.hasErrors()) {
-                if (!gr.getErrors().isEmpty()) {
-                    if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.ConnectionNotFoundException) {
-                        Map<String, Object> details = ((ConnectionNotFoundException) gr.getErrors().get(0)).getDetails();
-                        if (!details.isEmpty()) {
-                            int code = RoutingErrorCodes.ROUTE_NOT_FOUND;
-                            if (details.containsKey("entry_not_reached") && details.containsKey("exit_not_reached")) {
-                                code = RoutingErrorCodes.PT_NOT_REACHED;
-                            } else if (details.containsKey("entry_not_reached")) {
-                                code = RoutingErrorCodes.PT_ENTRY_NOT_REACHED;
-                            } else if (details.containsKey("exit_not_reached")) {
-                                code = RoutingErrorCodes.PT_EXIT_NOT_REACHED;
-                            } else if (details.containsKey("combined_not_reached")) {
-                                code = RoutingErrorCodes.PT_ROUTE_NOT_FOUND;
-                            }
-                            throw new RouteNotFoundException(
-                                    code,
-                                    "Unable to find a route between points %d (%s) and %d (%s). %s".formatted(
-                                            i,
-                                            FormatUtility.formatCoordinate(c0),
-                                            i + 1,
-                                            FormatUtility.formatCoordinate(c1),
-                                            details.values().stream().map(Object::toString).collect(Collectors.joining(" "))
-                                    )
-                            );
+        GHResponse gr = rp.computeRoute(c0.y, c0.x, c1.y, c1.x, bearings, radiuses, req.getSkipSegments().contains(i), searchParams, req.getGeometrySimplify());
+
+        if (gr.hasErrors()) {
+            if (!gr.getErrors().isEmpty()) {
+                if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.ConnectionNotFoundException) {
+                    Map<String, Object> details = ((ConnectionNotFoundException) gr.getErrors().get(0)).getDetails();
+                    if (!details.isEmpty()) {
+                        int code = RoutingErrorCodes.ROUTE_NOT_FOUND;
+                        if (details.containsKey("entry_not_reached") && details.containsKey("exit_not_reached")) {
+                            code = RoutingErrorCodes.PT_NOT_REACHED;
+                        } else if (details.containsKey("entry_not_reached")) {
+                            code = RoutingErrorCodes.PT_ENTRY_NOT_REACHED;
+                        } else if (details.containsKey("exit_not_reached")) {
+                            code = RoutingErrorCodes.PT_EXIT_NOT_REACHED;
+                        } else if (details.containsKey("combined_not_reached")) {
+                            code = RoutingErrorCodes.PT_ROUTE_NOT_FOUND;
                         }
                         throw new RouteNotFoundException(
-                                RoutingErrorCodes.ROUTE_NOT_FOUND,
-                                "Unable to find a route between points %d (%s) and %d (%s).".formatted(
-                                        i,
-                                        FormatUtility.formatCoordinate(c0),
-                                        i + 1,
-                                        FormatUtility.formatCoordinate(c1)
-                                )
-                        );
-                    } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.MaximumNodesExceededException) {
-                        Map<String, Object> details = ((MaximumNodesExceededException) gr.getErrors().get(0)).getDetails();
-                        throw new RouteNotFoundException(
-                                RoutingErrorCodes.PT_MAX_VISITED_NODES_EXCEEDED,
-                                "Unable to find a route between points %d (%s) and %d (%s). Maximum number of nodes exceeded: %s".formatted(
+                                code,
+                                "Unable to find a route between points %d (%s) and %d (%s). %s".formatted(
                                         i,
                                         FormatUtility.formatCoordinate(c0),
                                         i + 1,
                                         FormatUtility.formatCoordinate(c1),
-                                        details.get(MaximumNodesExceededException.NODES_KEY).toString()
+                                        details.values().stream().map(Object::toString).collect(Collectors.joining(" "))
                                 )
                         );
-                    } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.PointNotFoundException) {
-                        StringBuilder message = new StringBuilder();
-                        for (Throwable error : gr.getErrors()) {
-                            if (message.length() > 0)
-                                message.append("; ");
-                            if (error instanceof com.graphhopper.util.exceptions.PointNotFoundException pointNotFoundException) {
-                                int pointReference = (i - 1) + pointNotFoundException.getPointIndex();
-
-                                Coordinate pointCoordinate = (pointNotFoundException.getPointIndex() == 0) ? c0 : c1;
-                                double pointRadius = radiuses[pointNotFoundException.getPointIndex()];
-
-                                // -1 is used to indicate the use of internal limits instead of specifying it in the request.
-                                // we should therefore let them know that they are already using the limit.
-                                if (pointRadius == -1) {
-                                    pointRadius = routingProfiles.getRouteProfile(profileType).getConfiguration().getMaximumSnappingRadius();
-                                    message.append("Could not find routable point within the maximum possible radius of %.1f meters of specified coordinate %d: %s.".formatted(
-                                            pointRadius,
-                                            pointReference,
-                                            FormatUtility.formatCoordinate(pointCoordinate)));
-                                } else {
-                                    message.append("Could not find routable point within a radius of %.1f meters of specified coordinate %d: %s.".formatted(
-                                            pointRadius,
-                                            pointReference,
-                                            FormatUtility.formatCoordinate(pointCoordinate)));
-                                }
-
-                            } else {
-                                message.append(error.getMessage());
-                            }
-                        }
-                        throw new PointNotFoundException(message.toString());
-                    } else {
-                        throw new InternalServerException(RoutingErrorCodes.UNKNOWN, gr.getErrors().get(0).getMessage());
                     }
-                } else {
-                    // If there are no errors stored but there is indication that there are errors, something strange
-                    // has happened, so return that a route could not be found
                     throw new RouteNotFoundException(
                             RoutingErrorCodes.ROUTE_NOT_FOUND,
                             "Unable to find a route between points %d (%s) and %d (%s).".formatted(
                                     i,
                                     FormatUtility.formatCoordinate(c0),
                                     i + 1,
-                                    FormatUtility.formatCoordinate(c1))
+                                    FormatUtility.formatCoordinate(c1)
+                            )
                     );
-                }
-            }
-
-            if (numberOfExpectedExtraInfoProcessors > 1) {
-                int extraInfoProcessorIndex = 0;
-                for (Object o : gr.getReturnObjects()) {
-                    if (o instanceof ExtraInfoProcessor processor) {
-                        extraInfoProcessors[extraInfoProcessorIndex] = processor;
-                        extraInfoProcessorIndex++;
-                        if (!StringUtility.isNullOrEmpty(processor.getSkippedExtraInfo())) {
-                            gr.getHints().putObject(KEY_SKIPPED_EXTRA_INFO, processor.getSkippedExtraInfo());
-                        }
-                    }
-                }
-            } else {
-                for (Object o : gr.getReturnObjects()) {
-                    if (o instanceof ExtraInfoProcessor processor) {
-                        if (extraInfoProcessors[0] == null) {
-                            extraInfoProcessors[0] = processor;
-                            if (!StringUtility.isNullOrEmpty(processor.getSkippedExtraInfo())) {
-                                gr.getHints().putObject(KEY_SKIPPED_EXTRA_INFO, processor.getSkippedExtraInfo());
+                } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.MaximumNodesExceededException) {
+                    Map<String, Object> details = ((MaximumNodesExceededException) gr.getErrors().get(0)).getDetails();
+                    throw new RouteNotFoundException(
+                            RoutingErrorCodes.PT_MAX_VISITED_NODES_EXCEEDED,
+                            "Unable to find a route between points %d (%s) and %d (%s). Maximum number of nodes exceeded: %s".formatted(
+                                    i,
+                                    FormatUtility.formatCoordinate(c0),
+                                    i + 1,
+                                    FormatUtility.formatCoordinate(c1),
+                                    details.get(MaximumNodesExceededException.NODES_KEY).toString()
+                            )
+                    );
+                } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.PointNotFoundException) {
+                    StringBuilder message = new StringBuilder();
+                    for (Throwable error : gr.getErrors()) {
+                        if (message.length() > 0)
+                            message.append("; ");
+                        if (error instanceof com.graphhopper.util.exceptions.PointNotFoundException pointNotFoundException) {
+                            int pointReference = (i - 1) + pointNotFoundException.getPointIndex();
+
+                            Coordinate pointCoordinate = (pointNotFoundException.getPointIndex() == 0) ? c0 : c1;
+                            double pointRadius = radiuses[pointNotFoundException.getPointIndex()];
+
+                            // -1 is used to indicate the use of internal limits instead of specifying it in the request.
+                            // we should therefore let them know that they are already using the limit.
+                            if (pointRadius == -1) {
+                                pointRadius = routingProfiles.getRouteProfile(profileType).getConfiguration().getMaximumSnappingRadius();
+                                message.append("Could not find routable point within the maximum possible radius of %.1f meters of specified coordinate %d: %s.".formatted(
+                                        pointRadius,
+                                        pointReference,
+                                        FormatUtility.formatCoordinate(pointCoordinate)));
+                            } else {
+                                message.append("Could not find routable point within a radius of %.1f meters of specified coordinate %d: %s.".formatted(
+                                        pointRadius,
+                                        pointReference,
+                                        FormatUtility.formatCoordinate(pointCoordinate)));
                             }
+
                         } else {
-                            extraInfoProcessors[0].appendData(processor);
+                            message.append(error.getMessage());
                         }
                     }
+                    throw new PointNotFoundException(message.toString());
+                } else {
+                    throw new InternalServerException(RoutingErrorCodes.UNKNOWN, gr.getErrors().get(0).getMessage());
                 }
+            } else {
+                // If there are no errors stored but there is indication that there are errors, something strange
+                // has happened, so return that a route could not be found
+                throw new RouteNotFoundException(
+                        RoutingErrorCodes.ROUTE_NOT_FOUND,
+                        "Unable to find a route between points %d (%s) and %d (%s).".formatted(
+                                i,
+                                FormatUtility.formatCoordinate(c0),
+                                i + 1,
+                                FormatUtility.formatCoordinate(c1))
+                );
             }
-
-            prevResp = gr;
-            routes.add(gr);
-            c0 = c1;
         }
-        routes = enrichDirectRoutesTime(routes);
 
-        List<RouteExtraInfo>[] extraInfos = new List[numberOfExpectedExtraInfoProcessors];
-        int i = 0;
-        for (ExtraInfoProcessor e : extraInfoProcessors) {
-            extraInfos[i] = e != null ? e.getExtras() : null;
-            i++;
+        return gr;
+    }
+
+    private GHResponse getSegmentResult(Future<GHResponse> segmentResult) throws Exception {
+        try {
+            return segmentResult.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause)
+                throw cause;
+            throw new InternalServerException(RoutingErrorCodes.UNKNOWN, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "Route computation has been interrupted.");
         }
-        return new RouteResultBuilder().createRouteResults(routes, req, extraInfos);
     }
 
     /**
@@ -0,0 +1,244 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.storage.RoutingCHEdgeExplorer;
+import com.graphhopper.storage.RoutingCHEdgeIterator;
+import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.util.EdgeIterator;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.CHLevelEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.DownwardSearchEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.UpwardSearchEdgeFilter;
+
+import java.util.Arrays;
+
+/**
+ * Many-to-many search on a contraction hierarchy with node buckets.
+ * <p>
+ * In {@link #prepare} an upward search is run backwards from every target, and every node it settles is added to the
+ * bucket of that node together with its weight to the target. The upward search from a source in {@link #calcPaths}
+ * then finds the shortest paths to all targets by scanning the buckets of the nodes it settles. In contrast to
+ * {@link RPHASTAlgorithm} no target subgraph is built and the trees of different sources are not stored side by side,
+ * which is cheaper for matrices with few sources or locations far apart from each other.
+ */
+public class BucketManyToManyAlgorithm {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final RoutingCHEdgeExplorer inEdgeExplorer;
+    private final RoutingCHEdgeExplorer outEdgeExplorer;
+    private final UpwardSearchEdgeFilter upwardEdgeFilter;
+    private final DownwardSearchEdgeFilter downwardEdgeFilter;
+    private final IndexedMinHeap prioQueue = new IndexedMinHeap(INITIAL_CAPACITY);
+    private final IntIntHashMap nodeSlots = new IntIntHashMap();
+    private final IntIntHashMap buckets = new IntIntHashMap();
+    private int maxVisitedNodes = Integer.MAX_VALUE;
+    private int visitedNodes;
+
+    // nodes of the current search, the entry is only set by backward searches once the node is settled
+    private int slotCount;
+    private int[] slotNodes = new int[INITIAL_CAPACITY];
+    private int[] slotEdges = new int[INITIAL_CAPACITY];
+    private int[] slotParents = new int[INITIAL_CAPACITY];
+    private int[] slotEntries = new int[INITIAL_CAPACITY];
+    private double[] slotWeights = new double[INITIAL_CAPACITY];
+    private boolean[] slotSettled = new boolean[INITIAL_CAPACITY];
+
+    // settled nodes of all backward searches, linked to the next entry in the bucket of the same node
+    private int entryCount;
+    private int[] entryNodes = new int[INITIAL_CAPACITY];
+    private int[] entryTargets = new int[INITIAL_CAPACITY];
+    private int[] entryEdges = new int[INITIAL_CAPACITY];
+    private int[] entryParents = new int[INITIAL_CAPACITY];
+    private int[] entryNext = new int[INITIAL_CAPACITY];
+    private double[] entryWeights = new double[INITIAL_CAPACITY];
+
+    // shortest paths from the last source
+    private double[] weights;
+    private int[] meetingSlots;
+    private int[] meetingEntries;
+
+    public interface EdgeVisitor {
+        /**
+         * @param reverse true for edges found by the backward search of the target, whose adjNode is the first node
+         *                of the edge in travel direction
+         */
+        void visit(int edge, int adjNode, boolean reverse);
+    }
+
+    public BucketManyToManyAlgorithm(RoutingCHGraph graph) {
+        FlagEncoder encoder = graph.getWeighting().getFlagEncoder();
+        inEdgeExplorer = graph.createInEdgeExplorer();
+        outEdgeExplorer = graph.createOutEdgeExplorer();
+        upwardEdgeFilter = new UpwardSearchEdgeFilter(graph, encoder);
+        downwardEdgeFilter = new DownwardSearchEdgeFilter(graph, encoder);
+    }
+
+    public void setMaxVisitedNodes(int numberOfNodes) {
+        maxVisitedNodes = numberOfNodes;
+    }
+
+    public int getVisitedNodes() {
+        return visitedNodes;
+    }
+
+    /**
+     * Runs the backward searches of all targets and fills the buckets.
+     *
+     * @param targets target nodes, -1 for targets without a valid node
+     */
+    public void prepare(int[] targets) {
+        weights = new double[targets.length];
+        meetingSlots = new int[targets.length];
+        meetingEntries = new int[targets.length];
+        for (int target = 0; target < targets.length; target++) {
+            if (targets[target] != -1)
+                runSearch(targets[target], target, true);
+        }
+    }
+
+    /**
+     * Finds the shortest paths from the given node to all targets, see {@link #getWeight} and {@link #visitPath}.
+     */
+    public void calcPaths(int source) {
+        Arrays.fill(weights, Double.POSITIVE_INFINITY);
+        Arrays.fill(meetingSlots, -1);
+        runSearch(source, -1, false);
+    }
+
+    /**
+     * @return the weight of the shortest path from the last source to the given target, infinite if it was not reached
+     */
+    public double getWeight(int target) {
+        return weights[target];
+    }
+
+    /**
+     * Passes the edges of the shortest path from the last source to the given target to the visitor. Shortcuts are
+     * not unpacked.
+     *
+     * @return false if the target was not reached
+     */
+    public boolean visitPath(int target, EdgeVisitor visitor) {
+        if (meetingSlots[target] == -1)
+            return false;
+        for (int slot = meetingSlots[target]; slotEdges[slot] != EdgeIterator.NO_EDGE; slot = slotParents[slot])
+            visitor.visit(slotEdges[slot], slotNodes[slot], false);
+        for (int entry = meetingEntries[target]; entryEdges[entry] != EdgeIterator.NO_EDGE; entry = entryParents[entry])
+            visitor.visit(entryEdges[entry], entryNodes[entry], true);
+        return true;
+    }
+
+    private void runSearch(int start, int target, boolean backward) {
+        CHLevelEdgeFilter edgeFilter = backward ? downwardEdgeFilter : upwardEdgeFilter;
+        RoutingCHEdgeExplorer explorer = backward ? inEdgeExplorer : outEdgeExplorer;
+        nodeSlots.clear();
+        prioQueue.clear();
+        slotCount = 0;
+        prioQueue.update(createSlot(start, EdgeIterator.NO_EDGE, -1, 0), 0);
+
+        while (!prioQueue.isEmpty()) {
+            int currSlot = prioQueue.poll();
+            slotSettled[currSlot] = true;
+            if (++visitedNodes > maxVisitedNodes)
+                throw new MaxVisitedNodesExceededException();
+
+            int currNode = slotNodes[currSlot];
+            if (backward)
+                slotEntries[currSlot] = addEntry(currSlot, target);
+            else
+                scanBucket(currSlot);
+
+            edgeFilter.setBaseNode(currNode);
+            RoutingCHEdgeIterator iter = explorer.setBaseNode(currNode);
+            while (iter.next()) {
+                if (!edgeFilter.accept(iter))
+                    continue;
+
+                double weight = slotWeights[currSlot] + iter.getWeight(backward);
+                if (Double.isInfinite(weight))
+                    continue;
+
+                int adjSlot = nodeSlots.getOrDefault(iter.getAdjNode(), -1);
+                if (adjSlot == -1) {
+                    adjSlot = createSlot(iter.getAdjNode(), iter.getEdge(), currSlot, weight);
+                    prioQueue.update(adjSlot, weight);
+                } else if (!slotSettled[adjSlot] && weight < slotWeights[adjSlot]) {
+                    slotEdges[adjSlot] = iter.getEdge();
+                    slotParents[adjSlot] = currSlot;
+                    slotWeights[adjSlot] = weight;
+                    prioQueue.update(adjSlot, weight);
+                }
+            }
+        }
+    }
+
+    private void scanBucket(int slot) {
+        for (int entry = buckets.getOrDefault(slotNodes[slot], -1); entry != -1; entry = entryNext[entry]) {
+            int target = entryTargets[entry];
+            double weight = slotWeights[slot] + entryWeights[entry];
+            if (weight < weights[target]) {
+                weights[target] = weight;
+                meetingSlots[target] = slot;
+                meetingEntries[target] = entry;
+            }
+        }
+    }
+
+    private int createSlot(int node, int edge, int parent, double weight) {
+        if (slotCount == slotNodes.length) {
+            int capacity = slotCount * 2;
+            slotNodes = Arrays.copyOf(slotNodes, capacity);
+            slotEdges = Arrays.copyOf(slotEdges, capacity);
+            slotParents = Arrays.copyOf(slotParents, capacity);
+            slotEntries = Arrays.copyOf(slotEntries, capacity);
+            slotWeights = Arrays.copyOf(slotWeights, capacity);
+            slotSettled = Arrays.copyOf(slotSettled, capacity);
+        }
+        int slot = slotCount++;
+        slotNodes[slot] = node;
+        slotEdges[slot] = edge;
+        slotParents[slot] = parent;
+        slotEntries[slot] = -1;
+        slotWeights[slot] = weight;
+        slotSettled[slot] = false;
+        nodeSlots.put(node, slot);
+        return slot;
+    }
+
+    private int addEntry(int slot, int target) {
+        if (entryCount == entryNodes.length) {
+            int capacity = entryCount * 2;
+            entryNodes = Arrays.copyOf(entryNodes, capacity);
+            entryTargets = Arrays.copyOf(entryTargets, capacity);
+            entryEdges = Arrays.copyOf(entryEdges, capacity);
+            entryParents = Arrays.copyOf(entryParents, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+            entryWeights = Arrays.copyOf(entryWeights, capacity);
+        }
+        int node = slotNodes[slot];
+        int entry = entryCount++;
+        entryNodes[entry] = node;
+        entryTargets[entry] = target;
+        entryEdges[entry] = slotEdges[slot];
+        // the parent is settled before its children, so its entry already exists
+        entryParents[entry] = slotParents[slot] == -1 ? -1 : slotEntries[slotParents[slot]];
+        entryWeights[entry] = slotWeights[slot];
+        entryNext[entry] = buckets.getOrDefault(node, -1);
+        buckets.put(node, entry);
+        return entry;
+    }
+}
@@ -0,0 +1,147 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over non-negative int ids with double keys. In contrast to {@link java.util.PriorityQueue} the
+ * position of every id is tracked, so that the key of an element already in the heap can be changed in O(log n)
+ * without a linear remove. No objects are allocated per element.
+ */
+public class IndexedMinHeap {
+    private int[] heap;
+    private int[] positions;
+    private double[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        capacity = Math.max(capacity, 16);
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return id < positions.length && positions[id] != -1;
+    }
+
+    /**
+     * Inserts the id with the given key, or moves it to its new position if it is already contained.
+     */
+    public void update(int id, double key) {
+        ensureIdCapacity(id);
+        int pos = positions[id];
+        if (pos == -1) {
+            if (size == heap.length)
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            siftUp(size++);
+        } else {
+            double oldKey = keys[id];
+            keys[id] = key;
+            if (key < oldKey)
+                siftUp(pos);
+            else
+                siftDown(pos);
+        }
+    }
+
+    public int peek() {
+        if (size == 0)
+            throw new IllegalStateException("Heap is empty");
+        return heap[0];
+    }
+
+    public int poll() {
+        int id = peek();
+        positions[id] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return id;
+    }
+
+    /**
+     * Empties the heap in time proportional to the number of contained elements.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id < positions.length)
+            return;
+        int newCapacity = Math.max(id + 1, positions.length * 2);
+        int oldCapacity = positions.length;
+        positions = Arrays.copyOf(positions, newCapacity);
+        Arrays.fill(positions, oldCapacity, newCapacity, -1);
+        keys = Arrays.copyOf(keys, newCapacity);
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        double key = keys[id];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key)
+                break;
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+            int rightPos = childPos + 1;
+            if (rightPos < size && keys[heap[rightPos]] < keys[child]) {
+                childPos = rightPos;
+                child = heap[childPos];
+            }
+            if (key <= keys[child])
+                break;
+            heap[pos] = child;
+            positions[child] = pos;
+            pos = childPos;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+}
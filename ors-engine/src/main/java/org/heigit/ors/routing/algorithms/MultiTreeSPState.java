@@ -0,0 +1,262 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.graphhopper.util.EdgeIterator;
+import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntry;
+import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntryItem;
+
+import java.util.Arrays;
+
+/**
+ * Flat, primitive replacement for a map of {@link MultiTreeSPEntry} objects. Every settled node gets a slot, and the
+ * per-tree weight, edge, parent slot and update flag of a slot are stored at {@code slot * numTrees + tree} in
+ * shared arrays. Slots are handed out consecutively, so that clearing the state only resets the touched part.
+ */
+public class MultiTreeSPState {
+    private final IntIntHashMap nodeToSlot;
+    private int numTrees;
+    private int size;
+
+    private int[] nodes;
+    private boolean[] visited;
+    private double[] totalWeights;
+
+    private double[] weights;
+    private int[] edges;
+    private int[] parents;
+    private boolean[] updates;
+
+    public MultiTreeSPState(int capacity) {
+        capacity = Math.max(capacity, 16);
+        nodeToSlot = new IntIntHashMap(capacity);
+        nodes = new int[capacity];
+        visited = new boolean[capacity];
+        totalWeights = new double[capacity];
+        weights = new double[0];
+        edges = new int[0];
+        parents = new int[0];
+        updates = new boolean[0];
+    }
+
+    /**
+     * Clears the state and prepares it for a search with the given number of trees.
+     */
+    public void init(int numTrees) {
+        clear();
+        this.numTrees = numTrees;
+    }
+
+    /**
+     * Removes all slots. Only the nodes touched by the last search are removed from the node map, so the cost does
+     * not depend on how large the state has grown over its lifetime.
+     */
+    public void clear() {
+        for (int slot = 0; slot < size; slot++)
+            nodeToSlot.remove(nodes[slot]);
+        size = 0;
+    }
+
+    public int getNumTrees() {
+        return numTrees;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of per-tree entries the state keeps allocated, which grows with the largest search it served
+     */
+    public int getTreeCapacity() {
+        return weights.length;
+    }
+
+    /**
+     * @return the slot of the given node, or -1 if the node has not been reached yet
+     */
+    public int getSlot(int node) {
+        return nodeToSlot.getOrDefault(node, -1);
+    }
+
+    /**
+     * Creates a slot for a node which has not been reached by any tree yet.
+     */
+    public int createSlot(int node) {
+        int slot = allocateSlot(node);
+        int base = slot * numTrees;
+        Arrays.fill(weights, base, base + numTrees, Double.POSITIVE_INFINITY);
+        Arrays.fill(edges, base, base + numTrees, EdgeIterator.NO_EDGE);
+        Arrays.fill(parents, base, base + numTrees, -1);
+        Arrays.fill(updates, base, base + numTrees, false);
+        totalWeights[slot] = Double.POSITIVE_INFINITY;
+        return slot;
+    }
+
+    /**
+     * Creates a slot for a node reached via the given edge from the parent slot. Every tree which has reached the
+     * parent is extended by the edge and marked as updated, the others stay unreached.
+     */
+    public int createSlot(int node, int edge, double edgeWeight, int parentSlot) {
+        int slot = allocateSlot(node);
+        int base = slot * numTrees;
+        int parentBase = parentSlot * numTrees;
+        double totalWeight = 0.0;
+        for (int i = 0; i < numTrees; i++) {
+            double parentWeight = weights[parentBase + i];
+            if (parentWeight == Double.POSITIVE_INFINITY) {
+                weights[base + i] = Double.POSITIVE_INFINITY;
+                edges[base + i] = EdgeIterator.NO_EDGE;
+                parents[base + i] = -1;
+                updates[base + i] = false;
+            } else {
+                double weight = edgeWeight + parentWeight;
+                weights[base + i] = weight;
+                edges[base + i] = edge;
+                parents[base + i] = parentSlot;
+                updates[base + i] = true;
+                totalWeight += weight;
+            }
+        }
+        totalWeights[slot] = totalWeight;
+        return slot;
+    }
+
+    private int allocateSlot(int node) {
+        int slot = size++;
+        if (slot == nodes.length) {
+            int newCapacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, newCapacity);
+            visited = Arrays.copyOf(visited, newCapacity);
+            totalWeights = Arrays.copyOf(totalWeights, newCapacity);
+        }
+        int required = size * numTrees;
+        if (required > weights.length) {
+            int newLength = Math.max(required, nodes.length * numTrees);
+            weights = Arrays.copyOf(weights, newLength);
+            edges = Arrays.copyOf(edges, newLength);
+            parents = Arrays.copyOf(parents, newLength);
+            updates = Arrays.copyOf(updates, newLength);
+        }
+        nodes[slot] = node;
+        visited[slot] = false;
+        nodeToSlot.put(node, slot);
+        return slot;
+    }
+
+    public int getNode(int slot) {
+        return nodes[slot];
+    }
+
+    public boolean isVisited(int slot) {
+        return visited[slot];
+    }
+
+    public void setVisited(int slot, boolean value) {
+        visited[slot] = value;
+    }
+
+    public double getTotalWeight(int slot) {
+        return totalWeights[slot];
+    }
+
+    /**
+     * Recomputes the total weight of a slot as the sum of the weights of all trees which have reached it.
+     */
+    public void updateTotalWeight(int slot) {
+        int base = slot * numTrees;
+        double totalWeight = 0.0;
+        for (int i = base; i < base + numTrees; i++) {
+            if (weights[i] == Double.POSITIVE_INFINITY)
+                continue;
+            totalWeight += weights[i];
+        }
+        totalWeights[slot] = totalWeight;
+    }
+
+    public double getWeight(int slot, int tree) {
+        return weights[slot * numTrees + tree];
+    }
+
+    public void setWeight(int slot, int tree, double weight) {
+        weights[slot * numTrees + tree] = weight;
+    }
+
+    public int getEdge(int slot, int tree) {
+        return edges[slot * numTrees + tree];
+    }
+
+    /**
+     * @return the slot of the predecessor in the given tree, or -1 if there is none
+     */
+    public int getParent(int slot, int tree) {
+        return parents[slot * numTrees + tree];
+    }
+
+    public boolean isUpdate(int slot, int tree) {
+        return updates[slot * numTrees + tree];
+    }
+
+    public void setUpdate(int slot, int tree, boolean value) {
+        updates[slot * numTrees + tree] = value;
+    }
+
+    public void resetUpdate(int slot, boolean value) {
+        int base = slot * numTrees;
+        Arrays.fill(updates, base, base + numTrees, value);
+    }
+
+    /**
+     * Sets a new, better label of a tree and marks it as updated.
+     */
+    public void improve(int slot, int tree, double weight, int edge, int parentSlot) {
+        int index = slot * numTrees + tree;
+        weights[index] = weight;
+        edges[index] = edge;
+        parents[index] = parentSlot;
+        updates[index] = true;
+    }
+
+    /**
+     * Converts the state into linked {@link MultiTreeSPEntry} objects for callers which still rely on them.
+     *
+     * @param slots the slots to return entries for, -1 results in a null entry
+     */
+    public MultiTreeSPEntry[] toEntries(int[] slots) {
+        MultiTreeSPEntry[] entries = new MultiTreeSPEntry[size];
+        for (int slot = 0; slot < size; slot++)
+            entries[slot] = new MultiTreeSPEntry(nodes[slot], EdgeIterator.NO_EDGE, 0.0, false, null, numTrees);
+
+        for (int slot = 0; slot < size; slot++) {
+            MultiTreeSPEntry entry = entries[slot];
+            int base = slot * numTrees;
+            for (int i = 0; i < numTrees; i++) {
+                MultiTreeSPEntryItem item = entry.getItem(i);
+                item.setWeight(weights[base + i]);
+                item.setEdge(edges[base + i]);
+                item.setOriginalEdge(edges[base + i]);
+                item.setUpdate(updates[base + i]);
+                item.setParent(parents[base + i] == -1 ? null : entries[parents[base + i]]);
+            }
+            entry.setVisited(visited[slot]);
+            entry.updateWeights();
+        }
+
+        MultiTreeSPEntry[] result = new MultiTreeSPEntry[slots.length];
+        for (int i = 0; i < slots.length; i++)
+            result[i] = slots[i] == -1 ? null : entries[slots[i]];
+        return result;
+    }
+}
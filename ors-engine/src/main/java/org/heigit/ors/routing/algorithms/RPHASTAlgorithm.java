@@ -13,28 +13,23 @@
  */
 package org.heigit.ors.routing.algorithms;
 
-import com.carrotsearch.hppc.IntObjectMap;
-import com.graphhopper.coll.GHIntObjectHashMap;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.util.TraversalMode;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.RoutingCHEdgeExplorer;
 import com.graphhopper.storage.RoutingCHEdgeIterator;
 import com.graphhopper.storage.RoutingCHGraph;
-import com.graphhopper.util.EdgeIterator;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.DownwardSearchEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.ch.UpwardSearchEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntry;
-import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntryItem;
 
 import java.util.PriorityQueue;
 
 public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
     private final UpwardSearchEdgeFilter upwardEdgeFilter;
     private final DownwardSearchEdgeFilter downwardEdgeFilter;
-    private IntObjectMap<MultiTreeSPEntry> bestWeightMap;
-    private MultiTreeSPEntry currFrom;
-    private PriorityQueue<MultiTreeSPEntry> prioQueue;
+    private MultiTreeSPState searchState;
+    private IndexedMinHeap prioQueue;
     private SubGraph targetGraph;
     private boolean finishedFrom;
     private boolean finishedTo;
@@ -42,18 +37,29 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
     private int visitedCountTo;
     private int treeEntrySize;
 
-    private MultiTreeSPEntryItem msptItem;
     private boolean addToQueue = false;
     private double edgeWeight;
     private double entryWeight;
     private double tmpWeight;
 
     public RPHASTAlgorithm(RoutingCHGraph graph, Weighting weighting, TraversalMode traversalMode) {
-        super(graph, weighting, traversalMode);
+        this(graph, weighting, traversalMode, null);
+    }
 
-        int size = Math.min(Math.max(200, graph.getNodes() / 10), 2000);
+    /**
+     * @param workspace collections to run the search in, e.g. borrowed from a {@link SearchWorkspacePool}. If null,
+     *                  new collections sized to the graph are created.
+     */
+    public RPHASTAlgorithm(RoutingCHGraph graph, Weighting weighting, TraversalMode traversalMode, SearchWorkspace workspace) {
+        super(graph, weighting, traversalMode);
 
-        initCollections(size);
+        if (workspace == null) {
+            int size = Math.min(Math.max(200, graph.getNodes() / 10), 2000);
+            initCollections(size);
+        } else {
+            prioQueue = workspace.getPrioQueue();
+            searchState = workspace.getSearchState();
+        }
         FlagEncoder encoder = weighting.getFlagEncoder();
 
         upwardEdgeFilter = new UpwardSearchEdgeFilter(graph, encoder);
@@ -61,8 +67,8 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
     }
 
     protected void initCollections(int size) {
-        prioQueue = new PriorityQueue<>(size);
-        bestWeightMap = new GHIntObjectHashMap<>(size);
+        prioQueue = new IndexedMinHeap(size);
+        searchState = new MultiTreeSPState(size);
     }
 
     @Override
@@ -70,19 +76,32 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         finishedFrom = false;
         finishedTo = false;
         prioQueue.clear();
-        bestWeightMap.clear();
+        searchState.clear();
     }
 
     @Override
     public void prepare(int[] sources, int[] targets) {
-        PriorityQueue<Integer> localPrioQueue = new PriorityQueue<>(100);
+        prepare(sources, createTargetGraph(targets));
+    }
+
+    /**
+     * Prepares a search from the given sources to a target graph created before, e.g. by the search of another subset
+     * of the sources of the same matrix. The target graph is not modified by the search, so it can be shared by
+     * searches running in parallel.
+     */
+    public void prepare(int[] sources, SubGraph targetGraph) {
         treeEntrySize = sources.length;
+        this.targetGraph = targetGraph;
+    }
 
-        // Phase I: build shortest path tree from all target nodes to the
-        // highest node
-        targetGraph = new SubGraph(graph);
+    /**
+     * Phase I: build shortest path tree from all target nodes to the highest node
+     */
+    public SubGraph createTargetGraph(int[] targets) {
+        PriorityQueue<Integer> localPrioQueue = new PriorityQueue<>(100);
+        SubGraph subGraph = new SubGraph(graph);
 
-        addNodes(targetGraph, localPrioQueue, targets);
+        addNodes(subGraph, localPrioQueue, targets);
 
         while (!localPrioQueue.isEmpty()) {
             int node = localPrioQueue.poll();
@@ -93,11 +112,12 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
                 if (!downwardEdgeFilter.accept(iter))
                     continue;
 
-                if (targetGraph.addEdge(node, iter, true))
+                if (subGraph.addEdge(node, iter, true))
                     localPrioQueue.add(iter.getAdjNode());
 
             }
         }
+        return subGraph;
     }
 
     private void addNodes(SubGraph graph, PriorityQueue<Integer> prioQueue, int[] nodes) {
@@ -132,9 +152,9 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         if (prioQueue.isEmpty())
             return false;
 
-        currFrom = prioQueue.poll();
-        upwardEdgeFilter.updateHighestNode(currFrom.getAdjNode());
-        fillEdgesUpward(currFrom, prioQueue, bestWeightMap, outEdgeExplorer);
+        int currSlot = prioQueue.poll();
+        upwardEdgeFilter.updateHighestNode(searchState.getNode(currSlot));
+        fillEdgesUpward(currSlot, outEdgeExplorer);
         visitedCountFrom++;
 
         return true;
@@ -144,8 +164,8 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         if (prioQueue.isEmpty())
             return false;
 
-        MultiTreeSPEntry currTo = prioQueue.poll();
-        fillEdgesDownward(currTo, prioQueue, bestWeightMap, outEdgeExplorer);
+        int currSlot = prioQueue.poll();
+        fillEdgesDownward(currSlot, outEdgeExplorer);
         visitedCountTo++;
 
         return true;
@@ -153,26 +173,37 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
 
     @Override
     public MultiTreeSPEntry[] calcPaths(int[] from, int[] to) {
+        return searchState.toEntries(calcPathSlots(from, to));
+    }
+
+    /**
+     * Runs both search phases and leaves the per-tree weights, edges and parents in the flat search state, see
+     * {@link #getSearchState()}.
+     *
+     * @return the search state slot of every target node, -1 for targets which have not been reached
+     */
+    public int[] calcPathSlots(int[] from, int[] to) {
+        searchState.init(from.length);
+
         for (int i = 0; i < from.length; i++) {
             if (from[i] == -1)
                 continue;
 
             //If two queried points are on the same node, this case can occur
-            MultiTreeSPEntry existing = bestWeightMap.get(from[i]);
-            if (existing != null) {
-                existing.getItem(i).setWeight(0.0);
+            int existing = searchState.getSlot(from[i]);
+            if (existing != -1) {
+                searchState.setWeight(existing, i, 0.0);
                 continue;
             }
 
-            currFrom = new MultiTreeSPEntry(from[i], EdgeIterator.NO_EDGE, 0.0, true, null, from.length);
-            currFrom.getItem(i).setWeight(0.0);
-            currFrom.setVisited(true);
-            prioQueue.add(currFrom);
-
-            if (!traversalMode.isEdgeBased())
-                bestWeightMap.put(from[i], currFrom);
-            else
+            if (traversalMode.isEdgeBased())
                 throw new IllegalStateException("Edge-based behavior not supported");
+
+            int sourceSlot = searchState.createSlot(from[i]);
+            searchState.resetUpdate(sourceSlot, true);
+            searchState.setWeight(sourceSlot, i, 0.0);
+            searchState.setVisited(sourceSlot, true);
+            prioQueue.update(sourceSlot, searchState.getTotalWeight(sourceSlot));
         }
 
         outEdgeExplorer = graph.createOutEdgeExplorer();
@@ -180,149 +211,128 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         if (!upwardEdgeFilter.isHighestNodeFound())
             throw new IllegalStateException("First RPHAST phase was not successful.");
 
-        currFrom = bestWeightMap.get(upwardEdgeFilter.getHighestNode());
-        currFrom.setVisited(true);
-        currFrom.resetUpdate(true);
+        int highestSlot = searchState.getSlot(upwardEdgeFilter.getHighestNode());
+        searchState.setVisited(highestSlot, true);
+        searchState.resetUpdate(highestSlot, true);
         prioQueue.clear();
-        prioQueue.add(currFrom);
+        prioQueue.update(highestSlot, searchState.getTotalWeight(highestSlot));
 
         for (int i = 0; i < from.length; i++) {
-            int sourceNode = from[i];
-            MultiTreeSPEntry mspTree = bestWeightMap.get(sourceNode);
-            mspTree.getItem(i).setUpdate(true);
-            prioQueue.add(mspTree);
+            if (from[i] == -1)
+                continue;
+
+            int sourceSlot = searchState.getSlot(from[i]);
+            searchState.setUpdate(sourceSlot, i, true);
+            prioQueue.update(sourceSlot, searchState.getTotalWeight(sourceSlot));
         }
 
         outEdgeExplorer = targetGraph.createExplorer();
         runDownwardSearch();
 
-        MultiTreeSPEntry[] targets = new MultiTreeSPEntry[to.length];
+        int[] targets = new int[to.length];
 
         for (int i = 0; i < to.length; ++i)
-            targets[i] = bestWeightMap.get(to[i]);
+            targets[i] = searchState.getSlot(to[i]);
 
         return targets;
     }
 
-    private void fillEdgesUpward(MultiTreeSPEntry currEdge, PriorityQueue<MultiTreeSPEntry> prioQueue,
-                                 IntObjectMap<MultiTreeSPEntry> shortestWeightMap, RoutingCHEdgeExplorer explorer) {
-        RoutingCHEdgeIterator iter = explorer.setBaseNode(currEdge.getAdjNode());
+    public MultiTreeSPState getSearchState() {
+        return searchState;
+    }
+
+    private void fillEdgesUpward(int currSlot, RoutingCHEdgeExplorer explorer) {
+        int currNode = searchState.getNode(currSlot);
+        RoutingCHEdgeIterator iter = explorer.setBaseNode(currNode);
 
         if (iter == null) // we reach one of the target nodes
             return;
 
-        upwardEdgeFilter.setBaseNode(currEdge.getAdjNode());
+        upwardEdgeFilter.setBaseNode(currNode);
 
         while (iter.next()) {
             if (!upwardEdgeFilter.accept(iter))
                 continue;
 
             edgeWeight = iter.getWeight(false);
-//            edgeWeight = weighting.calcEdgeWeight(iter, false, 0);
 
             if (!Double.isInfinite(edgeWeight)) {
-                MultiTreeSPEntry ee = shortestWeightMap.get(iter.getAdjNode());
-
-                if (ee == null) {
-                    ee = new MultiTreeSPEntry(iter.getAdjNode(), iter.getEdge(), edgeWeight, true, currEdge, currEdge.getSize());
+                int adjSlot = searchState.getSlot(iter.getAdjNode());
 
-                    shortestWeightMap.put(iter.getAdjNode(), ee);
-                    prioQueue.add(ee);
+                if (adjSlot == -1) {
+                    adjSlot = searchState.createSlot(iter.getAdjNode(), iter.getEdge(), edgeWeight, currSlot);
+                    prioQueue.update(adjSlot, searchState.getTotalWeight(adjSlot));
                 } else {
                     addToQueue = false;
 
                     for (int i = 0; i < treeEntrySize; ++i) {
-                        msptItem = currEdge.getItem(i);
-                        entryWeight = msptItem.getWeight();
+                        entryWeight = searchState.getWeight(currSlot, i);
 
-                        if (entryWeight == Double.POSITIVE_INFINITY || !msptItem.isUpdate())
+                        if (entryWeight == Double.POSITIVE_INFINITY || !searchState.isUpdate(currSlot, i))
                             continue;
 
-                        MultiTreeSPEntryItem msptSubItem = ee.getItem(i);
-
                         tmpWeight = edgeWeight + entryWeight;
 
-                        if (msptSubItem.getWeight() > tmpWeight) {
-                            msptSubItem.setWeight(tmpWeight);
-                            msptSubItem.setEdge(iter.getEdge());
-                            msptSubItem.setParent(currEdge);
-                            msptSubItem.setUpdate(true);
+                        if (searchState.getWeight(adjSlot, i) > tmpWeight) {
+                            searchState.improve(adjSlot, i, tmpWeight, iter.getEdge(), currSlot);
                             addToQueue = true;
                         }
                     }
 
                     if (addToQueue) {
-                        ee.updateWeights();
-                        prioQueue.remove(ee);
-                        prioQueue.add(ee);
+                        searchState.updateTotalWeight(adjSlot);
+                        prioQueue.update(adjSlot, searchState.getTotalWeight(adjSlot));
                     }
                 }
             }
         }
 
-        if (!targetGraph.containsNode(currEdge.getAdjNode())) currEdge.resetUpdate(false);
+        if (!targetGraph.containsNode(currNode)) searchState.resetUpdate(currSlot, false);
     }
 
-    private void fillEdgesDownward(MultiTreeSPEntry currEdge, PriorityQueue<MultiTreeSPEntry> prioQueue,
-                                   IntObjectMap<MultiTreeSPEntry> bestWeightMap, RoutingCHEdgeExplorer explorer) {
+    private void fillEdgesDownward(int currSlot, RoutingCHEdgeExplorer explorer) {
 
-        RoutingCHEdgeIterator iter = explorer.setBaseNode(currEdge.getAdjNode());
+        RoutingCHEdgeIterator iter = explorer.setBaseNode(searchState.getNode(currSlot));
 
         if (iter == null)
             return;
 
         while (iter.next()) {
-//            edgeWeight = weighting.calcEdgeWeight(iter, false, 0);
             edgeWeight = iter.getWeight(false);
             if (!Double.isInfinite(edgeWeight)) {
-                MultiTreeSPEntry ee = bestWeightMap.get(iter.getAdjNode());
+                int adjSlot = searchState.getSlot(iter.getAdjNode());
 
-                if (ee == null) {
-                    ee = new MultiTreeSPEntry(iter.getAdjNode(), iter.getEdge(), edgeWeight, true, currEdge, currEdge.getSize());
-                    ee.setVisited(true);
-
-                    bestWeightMap.put(iter.getAdjNode(), ee);
-                    prioQueue.add(ee);
+                if (adjSlot == -1) {
+                    adjSlot = searchState.createSlot(iter.getAdjNode(), iter.getEdge(), edgeWeight, currSlot);
+                    searchState.setVisited(adjSlot, true);
+                    prioQueue.update(adjSlot, searchState.getTotalWeight(adjSlot));
                 } else {
                     addToQueue = false;
 
                     for (int i = 0; i < treeEntrySize; ++i) {
-                        msptItem = currEdge.getItem(i);
-                        entryWeight = msptItem.getWeight();
+                        entryWeight = searchState.getWeight(currSlot, i);
 
                         if (entryWeight == Double.POSITIVE_INFINITY)
                             continue;
 
                         tmpWeight = edgeWeight + entryWeight;
 
-                        MultiTreeSPEntryItem eeItem = ee.getItem(i);
-
-                        if (eeItem.getWeight() > tmpWeight) {
-                            eeItem.setWeight(tmpWeight);
-                            eeItem.setEdge(iter.getEdge());
-                            eeItem.setParent(currEdge);
-                            eeItem.setUpdate(true);
+                        if (searchState.getWeight(adjSlot, i) > tmpWeight) {
+                            searchState.improve(adjSlot, i, tmpWeight, iter.getEdge(), currSlot);
                             addToQueue = true;
                         }
                     }
 
-                    ee.updateWeights();
-
-                    if (!ee.isVisited()) {
-                        // // This is the case if the node has been assigned a
-                        // weight in
-                        // // the upwards pass (fillEdges). We need to use it in
-                        // the
-                        // // downwards pass to access lower level nodes, though
-                        // the
-                        // weight
-                        // // does not have to be reset necessarily //
-                        ee.setVisited(true);
-                        prioQueue.add(ee);
+                    searchState.updateTotalWeight(adjSlot);
+
+                    if (!searchState.isVisited(adjSlot)) {
+                        // This is the case if the node has been assigned a weight in the upwards pass (fillEdges).
+                        // We need to use it in the downwards pass to access lower level nodes, though the weight
+                        // does not have to be reset necessarily
+                        searchState.setVisited(adjSlot, true);
+                        prioQueue.update(adjSlot, searchState.getTotalWeight(adjSlot));
                     } else if (addToQueue) {
-                        ee.setVisited(true);
-                        prioQueue.remove(ee);
-                        prioQueue.add(ee);
+                        prioQueue.update(adjSlot, searchState.getTotalWeight(adjSlot));
                     }
                 }
             }
@@ -0,0 +1,44 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+/**
+ * The graph independent collections of a many-to-many search. A workspace can be reused by subsequent searches on
+ * different (query) graphs as long as it is only used by one search at a time.
+ */
+public class SearchWorkspace {
+    private final MultiTreeSPState searchState;
+    private final IndexedMinHeap prioQueue;
+
+    public SearchWorkspace(int capacity) {
+        searchState = new MultiTreeSPState(capacity);
+        prioQueue = new IndexedMinHeap(capacity);
+    }
+
+    public MultiTreeSPState getSearchState() {
+        return searchState;
+    }
+
+    public IndexedMinHeap getPrioQueue() {
+        return prioQueue;
+    }
+
+    /**
+     * Resets the workspace in time proportional to the number of nodes touched by the last search.
+     */
+    public void reset() {
+        prioQueue.clear();
+        searchState.clear();
+    }
+}
@@ -0,0 +1,119 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of {@link SearchWorkspace}s shared by the requests of one routing profile. At most maxSize workspaces
+ * are created for the pool. If all of them are in use, a request waits up to timeout milliseconds for one to be
+ * released and falls back to a temporary workspace afterwards, so that requests are never rejected by the pool.
+ * <p>
+ * The arrays of a workspace grow with the largest search it has served. Workspaces which have grown beyond
+ * maxRetainedEntries per-tree entries are replaced by a new one when they are released, so that the pool does not keep
+ * the memory of a single large matrix for the life of the process.
+ */
+public class SearchWorkspacePool {
+    private static final int DEFAULT_MAX_RETAINED_ENTRIES = 1 << 21;
+
+    private final BlockingQueue<SearchWorkspace> idleWorkspaces;
+    private final int maxSize;
+    private final long timeout;
+    private final int workspaceCapacity;
+    private final int maxRetainedEntries;
+    private final AtomicInteger createdWorkspaces = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+
+    public SearchWorkspacePool(int maxSize, long timeout, int workspaceCapacity) {
+        this(maxSize, timeout, workspaceCapacity, DEFAULT_MAX_RETAINED_ENTRIES);
+    }
+
+    public SearchWorkspacePool(int maxSize, long timeout, int workspaceCapacity, int maxRetainedEntries) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Pool size must be positive");
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.workspaceCapacity = workspaceCapacity;
+        this.maxRetainedEntries = maxRetainedEntries;
+        idleWorkspaces = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    public SearchWorkspace borrow() {
+        SearchWorkspace workspace = idleWorkspaces.poll();
+        if (workspace != null) {
+            hits.increment();
+            return workspace;
+        }
+
+        if (createdWorkspaces.incrementAndGet() <= maxSize) {
+            misses.increment();
+            return new SearchWorkspace(workspaceCapacity);
+        }
+        createdWorkspaces.decrementAndGet();
+
+        long start = System.nanoTime();
+        try {
+            workspace = idleWorkspaces.poll(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitTime.add(System.nanoTime() - start);
+        }
+
+        if (workspace != null) {
+            hits.increment();
+            return workspace;
+        }
+        misses.increment();
+        return new SearchWorkspace(workspaceCapacity);
+    }
+
+    /**
+     * Resets the workspace and makes it available to other requests. Temporary workspaces are dropped if the pool is
+     * already full, workspaces which have grown too large are replaced by a new one.
+     */
+    public void release(SearchWorkspace workspace) {
+        if (workspace.getSearchState().getTreeCapacity() > maxRetainedEntries) {
+            idleWorkspaces.offer(new SearchWorkspace(workspaceCapacity));
+            return;
+        }
+        workspace.reset();
+        idleWorkspaces.offer(workspace);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the accumulated time in milliseconds requests have waited for a workspace to be released
+     */
+    public long getWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTime.sum());
+    }
+}
@@ -64,6 +64,15 @@ public class RouteProfileConfiguration {
 
     private int maximumVisitedNodesPT = 1000000;
 
+    private int searchWorkspacePoolSize = 4;
+    private long searchWorkspacePoolTimeout = 50;
+    private int snappingCacheSize = 10000;
+    private long snappingCacheTtl = 3600;
+    private int snappingThreads = 1;
+    private int matrixThreads = 1;
+    private boolean matrixBucketAlgorithm = false;
+    private String graphDataAccess = "RAM_STORE";
+
     private boolean turnCostEnabled = false;
     private boolean enforceTurnCosts = false;
 
@@ -367,4 +376,68 @@ public class RouteProfileConfiguration {
     public void setMaximumVisitedNodesPT(int maximumVisitedNodesPT) {
         this.maximumVisitedNodesPT = maximumVisitedNodesPT;
     }
+
+    public int getSearchWorkspacePoolSize() {
+        return searchWorkspacePoolSize;
+    }
+
+    public void setSearchWorkspacePoolSize(int searchWorkspacePoolSize) {
+        this.searchWorkspacePoolSize = searchWorkspacePoolSize;
+    }
+
+    public long getSearchWorkspacePoolTimeout() {
+        return searchWorkspacePoolTimeout;
+    }
+
+    public void setSearchWorkspacePoolTimeout(long searchWorkspacePoolTimeout) {
+        this.searchWorkspacePoolTimeout = searchWorkspacePoolTimeout;
+    }
+
+    public int getSnappingCacheSize() {
+        return snappingCacheSize;
+    }
+
+    public void setSnappingCacheSize(int snappingCacheSize) {
+        this.snappingCacheSize = snappingCacheSize;
+    }
+
+    public long getSnappingCacheTtl() {
+        return snappingCacheTtl;
+    }
+
+    public void setSnappingCacheTtl(long snappingCacheTtl) {
+        this.snappingCacheTtl = snappingCacheTtl;
+    }
+
+    public int getSnappingThreads() {
+        return snappingThreads;
+    }
+
+    public void setSnappingThreads(int snappingThreads) {
+        this.snappingThreads = snappingThreads;
+    }
+
+    public int getMatrixThreads() {
+        return matrixThreads;
+    }
+
+    public void setMatrixThreads(int matrixThreads) {
+        this.matrixThreads = matrixThreads;
+    }
+
+    public boolean isMatrixBucketAlgorithm() {
+        return matrixBucketAlgorithm;
+    }
+
+    public void setMatrixBucketAlgorithm(boolean matrixBucketAlgorithm) {
+        this.matrixBucketAlgorithm = matrixBucketAlgorithm;
+    }
+
+    public String getGraphDataAccess() {
+        return graphDataAccess;
+    }
+
+    public void setGraphDataAccess(String graphDataAccess) {
+        this.graphDataAccess = graphDataAccess;
+    }
 }
@@ -231,6 +231,30 @@ public class RoutingManagerConfiguration {
                         case "maximum_visited_nodes":
                             profile.setMaximumVisitedNodesPT(Integer.parseInt(paramItem.getValue().toString()));
                             break;
+                        case "search_workspace_pool_size":
+                            profile.setSearchWorkspacePoolSize(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
+                        case "search_workspace_pool_timeout":
+                            profile.setSearchWorkspacePoolTimeout(Long.parseLong(paramItem.getValue().toString()));
+                            break;
+                        case "snapping_cache_size":
+                            profile.setSnappingCacheSize(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
+                        case "snapping_cache_ttl":
+                            profile.setSnappingCacheTtl(Long.parseLong(paramItem.getValue().toString()));
+                            break;
+                        case "snapping_threads":
+                            profile.setSnappingThreads(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
+                        case "matrix_threads":
+                            profile.setMatrixThreads(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
+                        case "matrix_bucket_algorithm":
+                            profile.setMatrixBucketAlgorithm(Boolean.parseBoolean(paramItem.getValue().toString()));
+                            break;
+                        case "graph_dataaccess":
+                            profile.setGraphDataAccess(StringUtility.trimQuotes(paramItem.getValue().toString()));
+                            break;
                         default:
                     }
                 }
@@ -70,8 +70,6 @@ import org.locationtech.jts.geom.LineString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -84,8 +82,6 @@ public class ORSGraphHopper extends GraphHopperGtfs {
     public static final String KEY_ARRIVAL = "arrival";
 
     private GraphProcessContext processContext;
-    private HashMap<Long, ArrayList<Integer>> osmId2EdgeIds; // one osm id can correspond to multiple edges
-    private HashMap<Integer, Long> tmcEdges;
     private Eccentricity eccentricity;
 
     private int minNetworkSize = 200;
@@ -94,6 +90,7 @@ public class ORSGraphHopper extends GraphHopperGtfs {
     private final CorePreparationHandler corePreparationHandler = new CorePreparationHandler();
     private final CoreLMPreparationHandler coreLMPreparationHandler = new CoreLMPreparationHandler();
     private final FastIsochroneFactory fastIsochroneFactory = new FastIsochroneFactory();
+    private SharedOSMInput sharedOSMInput;
 
 
     public GraphHopperConfig getConfig() {
@@ -150,49 +147,15 @@ public class ORSGraphHopper extends GraphHopperGtfs {
         super.cleanUp();
     }
 
-    @Override
-    protected OSMReader createOSMReader() {
-        return new ORSOSMReader(getGraphHopperStorage(), processContext);
+    public void setSharedOSMInput(SharedOSMInput sharedOSMInput) {
+        this.sharedOSMInput = sharedOSMInput;
     }
 
     @Override
-    public GraphHopper importOrLoad() {
-        GraphHopper gh = super.importOrLoad();
-
-        if ((tmcEdges != null) && (osmId2EdgeIds != null)) {
-            java.nio.file.Path path = Paths.get(gh.getGraphHopperLocation(), "edges_ors_traffic");
-
-            if ((tmcEdges.size() == 0) || (osmId2EdgeIds.size() == 0)) {
-                // try to load TMC edges from file.
-
-                File file = path.toFile();
-                if (file.exists()) {
-                    try (FileInputStream fis = new FileInputStream(path.toString());
-                         ObjectInputStream ois = new ObjectInputStream(fis)) {
-                        tmcEdges = (HashMap<Integer, Long>) ois.readObject();
-                        osmId2EdgeIds = (HashMap<Long, ArrayList<Integer>>) ois.readObject();
-                        LOGGER.info("Serialized HashMap data is saved in trafficEdges");
-                    } catch (IOException ioe) {
-                        LOGGER.error(Arrays.toString(ioe.getStackTrace()));
-                    } catch (ClassNotFoundException c) {
-                        LOGGER.error("Class not found");
-                        LOGGER.error(Arrays.toString(c.getStackTrace()));
-                    }
-                }
-            } else {
-                // save TMC edges if needed.
-                try (FileOutputStream fos = new FileOutputStream(path.toString());
-                     ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-                    oos.writeObject(tmcEdges);
-                    oos.writeObject(osmId2EdgeIds);
-                    LOGGER.info("Serialized HashMap data is saved in trafficEdges");
-                } catch (IOException ioe) {
-                    LOGGER.error(Arrays.toString(ioe.getStackTrace()));
-                }
-            }
-        }
-
-        return gh;
+    protected OSMReader createOSMReader() {
+        ORSOSMReader reader = new ORSOSMReader(getGraphHopperStorage(), processContext);
+        reader.setSharedInput(sharedOSMInput);
+        return reader;
     }
 
     @Override
@@ -16,6 +16,7 @@ package org.heigit.ors.routing.graphhopper.extensions;
 import com.carrotsearch.hppc.LongArrayList;
 import com.graphhopper.reader.ReaderNode;
 import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMInput;
 import com.graphhopper.reader.osm.OSMReader;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.IntsRef;
@@ -27,6 +28,9 @@ import org.heigit.ors.routing.graphhopper.extensions.reader.osmfeatureprocessors
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.*;
 import org.locationtech.jts.geom.Coordinate;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.util.*;
 import java.util.Map.Entry;
@@ -53,6 +57,8 @@ public class ORSOSMReader extends OSMReader {
 
     private final HashSet<String> extraTagKeys;
 
+    private SharedOSMInput sharedInput;
+
     public ORSOSMReader(GraphHopperStorage storage, GraphProcessContext procCntx) {
         super(storage);
 
@@ -103,6 +109,17 @@ public class ORSOSMReader extends OSMReader {
         }
     }
 
+    public void setSharedInput(SharedOSMInput sharedInput) {
+        this.sharedInput = sharedInput;
+    }
+
+    @Override
+    protected OSMInput openOsmInputFile(File osmFile) throws XMLStreamException, IOException {
+        if (sharedInput != null)
+            return sharedInput.open(osmFile);
+        return super.openOsmInputFile(osmFile);
+    }
+
     @Override
     public ReaderNode onProcessNode(ReaderNode node) {
         // On OSM, nodes are seperate entities which are used to make up ways. So basically, a node is read before a
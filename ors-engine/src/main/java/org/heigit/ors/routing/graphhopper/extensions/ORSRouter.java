@@ -14,6 +14,7 @@
 package org.heigit.ors.routing.graphhopper.extensions;
 
 import com.graphhopper.GHRequest;
+import com.graphhopper.GHResponse;
 import com.graphhopper.config.Profile;
 import com.graphhopper.routing.*;
 import com.graphhopper.routing.ev.EncodedValueLookup;
@@ -26,10 +27,12 @@ import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.RoutingCHGraph;
 import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.util.PMap;
+import com.graphhopper.util.Parameters;
 import com.graphhopper.util.TranslationMap;
 import com.graphhopper.util.details.PathDetailsBuilderFactory;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreRoutingAlgorithmFactory;
 import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCoreLandmarks;
+import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
 
 import java.util.Map;
 
@@ -49,6 +52,8 @@ public class ORSRouter extends Router {
         this.profilesByName = profilesByName;
         this.routerConfig = routerConfig;
         this.weightingFactory = weightingFactory;
+        // simplification is decided per request in route(), the shared config only has to allow it
+        this.routerConfig.setSimplifyResponse(true);
     }
 
     public void setCoreGraphs(Map<String, RoutingCHGraph> coreGraphs) {
@@ -63,6 +68,18 @@ public class ORSRouter extends Router {
         return hints.getBool("core.disable", true);
     }
 
+    /**
+     * Routes the request and simplifies the geometry only if it has been requested via the
+     * {@link ORSParameters.Routing#SIMPLIFY_GEOMETRY} hint. GraphHopper skips the simplification when the way point
+     * max distance is zero, so concurrent requests with and without simplification do not interfere.
+     */
+    @Override
+    public GHResponse route(GHRequest request) {
+        if (!request.getHints().getBool(ORSParameters.Routing.SIMPLIFY_GEOMETRY, false))
+            request.getHints().putObject(Parameters.Routing.WAY_POINT_MAX_DISTANCE, 0);
+        return super.route(request);
+    }
+
     @Override
     protected Router.Solver createSolver(GHRequest request, EdgeFilterFactory edgeFilterFactory) {
         boolean disableCore = getDisableCore(request.getHints());
@@ -0,0 +1,232 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.reader.ReaderElement;
+import com.graphhopper.reader.ReaderNode;
+import com.graphhopper.reader.ReaderRelation;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMFileHeader;
+import com.graphhopper.reader.osm.OSMInput;
+import com.graphhopper.reader.osm.OSMInputFile;
+import org.apache.log4j.Logger;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes an OSM file once for all {@link ORSOSMReader}s reading it at the same time.
+ * <p>
+ * Readers opening the file until the maximum number of readers is reached, or within the gather time after the first
+ * of them, share a pass over the file: a single thread decodes it and hands batches of elements to every reader. The
+ * slowest reader therefore determines the speed of the pass. A reader opening the file after a pass has started
+ * joins the next pass, so every reader always sees the whole file. As readers modify the tags of the elements, each
+ * reader gets its own copies.
+ */
+public class SharedOSMInput {
+    private static final Logger LOGGER = Logger.getLogger(SharedOSMInput.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int WORKER_THREADS = 2;
+    private static final long POLL_TIMEOUT = 100;
+
+    private final File file;
+    private final int maxReaders;
+    private final long gatherTime;
+    private Pass pendingPass;
+
+    /**
+     * @param file       the OSM file shared between the readers
+     * @param maxReaders the number of readers after which a pass starts without waiting for the gather time
+     * @param gatherTime time in milliseconds a pass waits for further readers after the first one opened it
+     */
+    public SharedOSMInput(File file, int maxReaders, long gatherTime) {
+        this.file = file.getAbsoluteFile();
+        this.maxReaders = maxReaders;
+        this.gatherTime = gatherTime;
+    }
+
+    /**
+     * Opens the given file as part of the next shared pass. Files other than the shared one are read directly.
+     */
+    public OSMInput open(File osmFile) throws XMLStreamException, IOException {
+        if (!file.equals(osmFile.getAbsoluteFile()))
+            return new OSMInputFile(osmFile).setWorkerThreads(WORKER_THREADS).open();
+
+        synchronized (this) {
+            if (pendingPass == null) {
+                pendingPass = new Pass();
+                Thread thread = new Thread(pendingPass, "ORS-osm-input");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            Reader reader = new Reader(pendingPass);
+            pendingPass.readers.add(reader);
+            notifyAll();
+            return reader;
+        }
+    }
+
+    private synchronized void gatherReaders(Pass pass) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + gatherTime;
+        long remaining = gatherTime;
+        while (pass.readers.size() < maxReaders && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        pendingPass = null;
+    }
+
+    static ReaderElement copy(ReaderElement element) {
+        ReaderElement copy;
+        switch (element.getType()) {
+            case ReaderElement.NODE -> {
+                ReaderNode node = (ReaderNode) element;
+                copy = new ReaderNode(node.getId(), node.getLat(), node.getLon());
+            }
+            case ReaderElement.WAY -> {
+                ReaderWay way = new ReaderWay(element.getId());
+                way.getNodes().addAll(((ReaderWay) element).getNodes());
+                copy = way;
+            }
+            case ReaderElement.RELATION -> {
+                ReaderRelation relation = new ReaderRelation(element.getId());
+                for (ReaderRelation.Member member : ((ReaderRelation) element).getMembers())
+                    relation.add(member);
+                copy = relation;
+            }
+            default -> copy = new OSMFileHeader();
+        }
+        for (String key : element.getKeysWithPrefix(""))
+            copy.setTag(key, element.getTag(key, null));
+        return copy;
+    }
+
+    private class Pass implements Runnable {
+        private final List<Reader> readers = new ArrayList<>();
+        private volatile Exception error;
+
+        @Override
+        public void run() {
+            try {
+                gatherReaders(this);
+                LOGGER.info("Reading '%s' for %d profiles.".formatted(file, readers.size()));
+                decode();
+            } catch (InterruptedException e) {
+                error = e;
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.error("Reading '%s' failed: %s".formatted(file, e.getMessage()));
+                error = e;
+            } finally {
+                for (Reader reader : readers)
+                    reader.finished = true;
+            }
+        }
+
+        private void decode() throws Exception {
+            try (OSMInputFile input = new OSMInputFile(file).setWorkerThreads(WORKER_THREADS).open()) {
+                List<ReaderElement> batch = new ArrayList<>(BATCH_SIZE);
+                ReaderElement element;
+                while ((element = input.getNext()) != null) {
+                    batch.add(element);
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!publish(batch))
+                            return;
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty())
+                    publish(batch);
+            }
+        }
+
+        /**
+         * @return false if all readers have been closed
+         */
+        private boolean publish(List<ReaderElement> batch) throws InterruptedException {
+            boolean open = false;
+            for (Reader reader : readers) {
+                while (!reader.closed) {
+                    if (reader.queue.offer(batch, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                        open = true;
+                        break;
+                    }
+                }
+            }
+            return open;
+        }
+    }
+
+    private static class Reader implements OSMInput {
+        private final Pass pass;
+        private final BlockingQueue<List<ReaderElement>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean closed;
+        private volatile boolean finished;
+        private List<ReaderElement> batch = Collections.emptyList();
+        private int index;
+
+        Reader(Pass pass) {
+            this.pass = pass;
+        }
+
+        @Override
+        public ReaderElement getNext() throws XMLStreamException {
+            while (index == batch.size()) {
+                if (!nextBatch())
+                    return null;
+            }
+            return copy(batch.get(index++));
+        }
+
+        private boolean nextBatch() throws XMLStreamException {
+            try {
+                List<ReaderElement> next = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch = next;
+                    index = 0;
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading OSM data.", e);
+            }
+            if (!finished || !queue.isEmpty())
+                return true;
+            if (pass.error instanceof XMLStreamException e)
+                throw e;
+            if (pass.error != null)
+                throw new IllegalStateException("Reading OSM data failed.", pass.error);
+            return false;
+        }
+
+        @Override
+        public int getUnprocessedElements() {
+            return batch.size() - index + queue.size() * BATCH_SIZE;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+}
@@ -18,17 +18,12 @@ import com.graphhopper.routing.lm.LMPreparationHandler;
 import com.graphhopper.routing.lm.LandmarkSuggestion;
 import com.graphhopper.routing.lm.PrepareLandmarks;
 import com.graphhopper.storage.GraphHopperStorage;
-import com.graphhopper.storage.RoutingCHGraph;
-import org.apache.log4j.Logger;
 import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopperConfig;
 import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopperStorage;
-import org.heigit.ors.routing.graphhopper.extensions.util.GraphUtils;
 import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters.CoreLandmark;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This class implements the A*, landmark and triangulation (ALT) decorator for Core.
@@ -40,8 +35,6 @@ import java.util.Map;
  * @author Andrzej Oles
  */
 public class CoreLMPreparationHandler extends LMPreparationHandler {
-    private static final Logger logger = Logger.getLogger(CoreLandmarkStorage.class);
-
     private final CoreLMOptions coreLMOptions = new CoreLMOptions();
 
     public CoreLMPreparationHandler() {
@@ -73,10 +66,6 @@ public class CoreLMPreparationHandler extends LMPreparationHandler {
 
             String lmConfigName = coreLMConfig.getSuperName();
 
-            RoutingCHGraph core = ((ORSGraphHopperStorage) ghStorage).getCoreGraph(lmConfigName);
-            Map<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(core);
-            logger.info("Created core node ID map for " + coreLMConfig.getName() + " of size " + coreNodeIdMap.size());
-
             Double maximumWeight = getMaximumWeights().get(lmConfigName);
             if (maximumWeight == null)
                 throw new IllegalStateException("""
@@ -85,7 +74,7 @@ public class CoreLMPreparationHandler extends LMPreparationHandler {
                         """ + lmConfigName + " in " + getMaximumWeights());
 
             PrepareLandmarks tmpPrepareLM = new PrepareCoreLandmarks(ghStorage.getDirectory(), ghStorage,
-                    coreLMConfig, getLandmarks(), coreNodeIdMap).
+                    coreLMConfig, getLandmarks()).
                     setLandmarkSuggestions(lmSuggestions).
                     setMaximumWeight(maximumWeight).
                     setLogDetails(getLogDetails());
@@ -95,24 +84,6 @@ public class CoreLMPreparationHandler extends LMPreparationHandler {
         }
     }
 
-    /**
-     * This method creates a mapping of CoreNode ids to integers from 0 to numCoreNodes to save space.
-     * Otherwise we would have to store a lot of empty info
-     */
-    public static HashMap<Integer, Integer> createCoreNodeIdMap(RoutingCHGraph core) {
-        HashMap<Integer, Integer> coreNodeIdMap = new HashMap<>();
-        int maxNode = GraphUtils.getBaseGraph(core).getNodes();
-        int coreNodeLevel = maxNode;
-        int index = 0;
-        for (int i = 0; i < maxNode; i++) {
-            if (core.getLevel(i) < coreNodeLevel)
-                continue;
-            coreNodeIdMap.put(i, index);
-            index++;
-        }
-        return coreNodeIdMap;
-    }
-
     public CoreLMOptions getCoreLMOptions() {
         return coreLMOptions;
     }
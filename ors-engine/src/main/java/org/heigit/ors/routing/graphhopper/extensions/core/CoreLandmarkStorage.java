@@ -57,7 +57,8 @@ public class CoreLandmarkStorage extends LandmarkStorage {
     private static final Logger logger = Logger.getLogger(CoreLandmarkStorage.class);
     private final RoutingCHGraphImpl core;
     private final LMEdgeFilterSequence landmarksFilter;
-    private Map<Integer, Integer> coreNodeIdMap;
+    private final Directory dir;
+    private CoreNodeIndex coreNodeIndex;
     private final ORSGraphHopperStorage graph;
     private final CoreLMConfig lmConfig;
     private IntHashSet subnetworkNodes;
@@ -73,13 +74,11 @@ public class CoreLandmarkStorage extends LandmarkStorage {
         this.lmConfig = lmConfig;
         this.core = (RoutingCHGraphImpl) core;
         this.landmarksFilter = lmConfig.getEdgeFilter();
+        this.dir = dir;
+        this.coreNodeIndex = new CoreNodeIndex(dir, getCoreNodeIndexName());
         setMinimumNodes(Math.min(getBaseNodes() / 2, 10000));
     }
 
-    public void setCoreNodeIdMap(Map<Integer, Integer> coreNodeIdMap) {
-        this.coreNodeIdMap = coreNodeIdMap;
-    }
-
     @Override
     public String getLandmarksFileName() {
         return "landmarks_core_";
@@ -92,6 +91,9 @@ public class CoreLandmarkStorage extends LandmarkStorage {
         if (isInitialized())
             throw new IllegalStateException("Initialize the landmark storage only once!");
 
+        coreNodeIndex.build(core);
+        logger.info(configName() + "Created core node index of size " + coreNodeIndex.getCoreNodes());
+
         int minimumNodes = getMinimumNodes();
         int landmarks = getLandmarkCount();
         DataAccess landmarkWeightDA = getLandmarkWeightDA();
@@ -229,7 +231,48 @@ public class CoreLandmarkStorage extends LandmarkStorage {
 
     @Override
     public int getIndex(int node) {
-        return coreNodeIdMap.get(node);
+        return coreNodeIndex.getIndex(node);
+    }
+
+    private String getCoreNodeIndexName() {
+        return getLandmarksFileName() + "ids_" + lmConfig.getName();
+    }
+
+    /**
+     * Loads the landmarks together with the core node index. Graphs prepared before the index was persisted get it
+     * rebuilt from the core levels. If the directory is mapped read-only, the rebuilt index is kept in memory only.
+     */
+    @Override
+    public boolean loadExisting() {
+        if (!super.loadExisting())
+            return false;
+        if (!coreNodeIndex.loadExisting() || coreNodeIndex.getNodes() != GraphUtils.getBaseGraph(core).getNodes()) {
+            if (dir.getDefaultType().isAllowWrites()) {
+                coreNodeIndex.build(core);
+                coreNodeIndex.flush();
+            } else {
+                logger.warn(configName() + "Core node index is missing or outdated, building it in memory as the graph is read-only.");
+                coreNodeIndex = new CoreNodeIndex(new RAMDirectory(), getCoreNodeIndexName()).build(core);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void flush() {
+        super.flush();
+        coreNodeIndex.flush();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        coreNodeIndex.close();
+    }
+
+    @Override
+    public long getCapacity() {
+        return super.getCapacity() + coreNodeIndex.getCapacity();
     }
 
     @Override
@@ -0,0 +1,115 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.core;
+
+import com.graphhopper.storage.DataAccess;
+import com.graphhopper.storage.Directory;
+import com.graphhopper.storage.RoutingCHGraph;
+import org.heigit.ors.routing.graphhopper.extensions.util.GraphUtils;
+
+/**
+ * Maps the ids of core nodes to consecutive indices from 0 to the number of core nodes, so that landmark weights only
+ * need to be stored for core nodes.
+ * <p>
+ * The mapping is stored as a rank bitmap: for each block of 32 nodes one int marks the core nodes of the block and a
+ * second int holds the number of core nodes in all preceding blocks. The index of a core node is therefore found with
+ * two reads and a bit count.
+ */
+public class CoreNodeIndex {
+    private static final int BLOCK_BYTES = 8;
+    private static final int RANK_OFFSET = 4;
+
+    private final DataAccess blocks;
+    private int nodes;
+    private int coreNodes;
+
+    public CoreNodeIndex(Directory dir, String name) {
+        blocks = dir.find(name);
+    }
+
+    /**
+     * Marks all nodes of the base graph which are at the core level of the given graph.
+     */
+    public CoreNodeIndex build(RoutingCHGraph core) {
+        nodes = GraphUtils.getBaseGraph(core).getNodes();
+        int coreNodeLevel = nodes;
+        int blockCount = (nodes + 31) >>> 5;
+        blocks.create((long) blockCount * BLOCK_BYTES);
+
+        coreNodes = 0;
+        for (int block = 0; block < blockCount; block++) {
+            int bits = 0;
+            int firstNode = block << 5;
+            for (int node = firstNode; node < Math.min(firstNode + 32, nodes); node++) {
+                if (core.getLevel(node) >= coreNodeLevel)
+                    bits |= 1 << (node - firstNode);
+            }
+            long pointer = (long) block * BLOCK_BYTES;
+            blocks.setInt(pointer, bits);
+            blocks.setInt(pointer + RANK_OFFSET, coreNodes);
+            coreNodes += Integer.bitCount(bits);
+        }
+        return this;
+    }
+
+    /**
+     * @return the index of the given core node, undefined for nodes which are not part of the core
+     */
+    public int getIndex(int node) {
+        long pointer = (long) (node >>> 5) * BLOCK_BYTES;
+        int lowerBits = blocks.getInt(pointer) & ((1 << (node & 31)) - 1);
+        return blocks.getInt(pointer + RANK_OFFSET) + Integer.bitCount(lowerBits);
+    }
+
+    public boolean isCoreNode(int node) {
+        return (blocks.getInt((long) (node >>> 5) * BLOCK_BYTES) & (1 << (node & 31))) != 0;
+    }
+
+    /**
+     * @return the number of base graph nodes the index was built for
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    public int getCoreNodes() {
+        return coreNodes;
+    }
+
+    public boolean loadExisting() {
+        if (!blocks.loadExisting())
+            return false;
+        nodes = blocks.getHeader(0);
+        coreNodes = blocks.getHeader(4);
+        return true;
+    }
+
+    public void flush() {
+        blocks.setHeader(0, nodes);
+        blocks.setHeader(4, coreNodes);
+        blocks.flush();
+    }
+
+    public void close() {
+        blocks.close();
+    }
+
+    public boolean isClosed() {
+        return blocks.isClosed();
+    }
+
+    public long getCapacity() {
+        return blocks.getCapacity();
+    }
+}
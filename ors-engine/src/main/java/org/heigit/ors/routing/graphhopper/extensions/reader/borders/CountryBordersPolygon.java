@@ -14,6 +14,8 @@
 package org.heigit.ors.routing.graphhopper.extensions.reader.borders;
 
 import org.apache.log4j.Logger;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
 import org.locationtech.jts.geom.*;
 
 import java.io.InvalidObjectException;
@@ -23,6 +25,7 @@ public class CountryBordersPolygon {
     private final String name;
     private final MultiPolygon boundary;
     private final Geometry boundaryLine;
+    private final PointOnGeometryLocator locator;
     private double area = 0;
     private double minLat = 180f;
     private double minLon = 180f;
@@ -50,6 +53,10 @@ public class CountryBordersPolygon {
         }
         this.boundaryLine = boundary.getBoundary();
         this.area = this.boundary.getArea();
+        this.locator = new IndexedPointInAreaLocator(this.boundary);
+        // the locator builds parts of its index on the first query, so do that here to allow concurrent lookups
+        if (!this.boundary.isEmpty())
+            this.locator.locate(this.boundary.getCoordinate());
         // calculate lat and lon values
         Geometry bbox = boundary.getEnvelope();
         for (Coordinate c : bbox.getCoordinates()) {
@@ -88,11 +95,8 @@ public class CountryBordersPolygon {
     }
 
     public boolean inArea(Coordinate c) {
-        if (!Double.isNaN(c.x) && !Double.isNaN(c.y) && inBbox(c)) {
-            GeometryFactory gf = new GeometryFactory();
-
-            return boundary.contains(gf.createPoint(c));
-        }
+        if (!Double.isNaN(c.x) && !Double.isNaN(c.y) && inBbox(c))
+            return locator.locate(c) == Location.INTERIOR;
 
         return false;
     }
@@ -22,7 +22,9 @@ import org.heigit.ors.util.CSVUtility;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
 
 import java.io.*;
 import java.util.*;
@@ -46,6 +48,7 @@ public class CountryBordersReader {
     private final HashMap<String, Integer> isoCodes = new HashMap<>();
 
     private final HashMap<Long, CountryBordersHierarchy> hierarchies = new HashMap<>();
+    private volatile STRtree polygonIndex;
 
     // Package scoped for testing purposes
     static CountryBordersReader currentInstance = null;
@@ -83,6 +86,7 @@ public class CountryBordersReader {
             LOGGER.info("Border geometries read");
 
             createGeometries(data);
+            getPolygonIndex();
 
             readIds();
             LOGGER.info("Border ids data read");
@@ -101,6 +105,7 @@ public class CountryBordersReader {
     public void addHierarchy(Long id, CountryBordersHierarchy hierarchy) {
         if (!hierarchies.containsKey(id)) {
             hierarchies.put(id, hierarchy);
+            polygonIndex = null;
         }
     }
 
@@ -267,19 +272,9 @@ public class CountryBordersReader {
      */
     public CountryBordersPolygon[] getCountry(Coordinate c) {
         ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
-        Iterator it = hierarchies.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Long, CountryBordersHierarchy> pair = (Map.Entry) it.next();
-            CountryBordersHierarchy h = pair.getValue();
-            if (h.inBbox(c)) {
-                // Now need to check the countries
-                List<CountryBordersPolygon> ps = h.getPolygons();
-                for (CountryBordersPolygon cp : ps) {
-                    if (cp.inBbox(c) && cp.inArea(c)) {
-                        countries.add(cp);
-                    }
-                }
-            }
+        for (IndexedPolygon ip : getCandidates(c)) {
+            if (ip.polygon.inArea(c))
+                countries.add(ip.polygon);
         }
 
         return countries.toArray(new CountryBordersPolygon[0]);
@@ -295,23 +290,50 @@ public class CountryBordersReader {
      * @return An array of CountryBorderPolygons that the point is within the geometry of.
      */
     public CountryBordersPolygon[] getCandidateCountry(Coordinate c) {
-        ArrayList<CountryBordersPolygon> countries = new ArrayList<>();
-        Iterator it = hierarchies.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Long, CountryBordersHierarchy> pair = (Map.Entry) it.next();
-            CountryBordersHierarchy h = pair.getValue();
-            if (h.inBbox(c)) {
-                // Now need to check the countries
-                List<CountryBordersPolygon> ps = h.getPolygons();
-                for (CountryBordersPolygon cp : ps) {
-                    if (cp.inBbox(c)) {
-                        countries.add(cp);
-                    }
+        List<IndexedPolygon> candidates = getCandidates(c);
+        CountryBordersPolygon[] countries = new CountryBordersPolygon[candidates.size()];
+        for (int i = 0; i < countries.length; i++)
+            countries[i] = candidates.get(i).polygon;
+
+        return countries;
+    }
+
+    /**
+     * Find the polygons whose bounding box and hierarchy bounding box contain the given coordinate, in the order in
+     * which the hierarchies and their polygons are stored.
+     */
+    private List<IndexedPolygon> getCandidates(Coordinate c) {
+        List<IndexedPolygon> candidates = new ArrayList<>();
+        for (Object item : getPolygonIndex().query(new Envelope(c))) {
+            IndexedPolygon ip = (IndexedPolygon) item;
+            if (ip.hierarchy.inBbox(c) && ip.polygon.inBbox(c))
+                candidates.add(ip);
+        }
+        if (candidates.size() > 1)
+            candidates.sort(Comparator.comparingInt(ip -> ip.order));
+
+        return candidates;
+    }
+
+    /**
+     * Get the STR-tree of all country polygons, indexed by their bounding boxes. The tree is built on first use and
+     * again whenever a hierarchy has been added.
+     */
+    private STRtree getPolygonIndex() {
+        STRtree index = polygonIndex;
+        if (index == null) {
+            index = new STRtree();
+            int order = 0;
+            for (CountryBordersHierarchy h : hierarchies.values()) {
+                for (CountryBordersPolygon cp : h.getPolygons()) {
+                    double[] bbox = cp.getBBox();
+                    index.insert(new Envelope(bbox[0], bbox[1], bbox[2], bbox[3]), new IndexedPolygon(h, cp, order++));
                 }
             }
+            index.build();
+            polygonIndex = index;
         }
-
-        return countries.toArray(new CountryBordersPolygon[0]);
+        return index;
     }
 
     /**
@@ -445,6 +467,21 @@ public class CountryBordersReader {
         }
     }
 
+    /**
+     * Entry of the spatial index: a country polygon, its hierarchy and the order in which the polygon was read.
+     */
+    private static class IndexedPolygon {
+        private final CountryBordersHierarchy hierarchy;
+        private final CountryBordersPolygon polygon;
+        private final int order;
+
+        IndexedPolygon(CountryBordersHierarchy hierarchy, CountryBordersPolygon polygon, int order) {
+            this.hierarchy = hierarchy;
+            this.polygon = polygon;
+            this.order = order;
+        }
+    }
+
     /**
      * Holder class for storing information about a country read from the ids csv.
      */
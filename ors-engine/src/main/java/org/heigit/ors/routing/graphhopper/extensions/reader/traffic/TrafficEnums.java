@@ -184,5 +184,9 @@ public class TrafficEnums {
         public int getByteLocation() {
             return byteLocation;
         }
+
+        public int getCanonical() {
+            return canonical;
+        }
     }
 }
@@ -18,8 +18,6 @@ import com.graphhopper.util.GHUtility;
 import org.heigit.ors.routing.graphhopper.extensions.reader.traffic.TrafficEnums;
 
 import java.time.ZoneId;
-import java.util.Calendar;
-import java.util.TimeZone;
 
 /**
  * Graph storage class for the Border Restriction routing
@@ -69,6 +67,18 @@ public class TrafficGraphStorage implements GraphExtension {
     public static final int DAILY_TRAFFIC_PATTERNS_BYTE_COUNT = 96; // The pattern value is transferred to mph to allow byte storage. 1 byte * 4 (15min per Hour) * 24 hours
     public static final int MAX_DAILY_TRAFFIC_SPEED_BYTE_COUNT = 1; // Maximum over daily traffic pattern values
 
+    private static final int SLOTS_PER_DAY = 96; // 15 minute slots
+    private static final long MILLIS_PER_SLOT = 15L * 60 * 1000;
+    private static final long MILLIS_PER_DAY = SLOTS_PER_DAY * MILLIS_PER_SLOT;
+    private static final long MILLIS_PER_HOUR = 60L * 60 * 1000;
+    // byte locations of the weekdays in the link lookup, indexed by days since Sunday
+    private static final int[] WEEKDAY_BYTE_LOCATIONS = new int[7];
+
+    static {
+        for (TrafficEnums.WeekDay weekDay : TrafficEnums.WeekDay.values())
+            WEEKDAY_BYTE_LOCATIONS[weekDay.getCanonical() - 1] = weekDay.getByteLocation();
+    }
+
     private DataAccess orsEdgesProperties; // RAMDataAccess
     private DataAccess orsEdgesTrafficLinkLookup; // RAMDataAccess
     private DataAccess orsSpeedPatternLookup; // RAMDataAccess
@@ -249,12 +259,10 @@ public class TrafficGraphStorage implements GraphExtension {
      * @return The value of the requested property
      */
     public int getOrsRoadProperties(int edgeId, Property prop) {
-        byte[] propertyValue = new byte[1];
         long edgePointer = (long) edgeId * edgePropertyEntryBytes;
-        if (prop == Property.ROAD_TYPE) {
-            orsEdgesProperties.getBytes(edgePointer + LOCATION_ROAD_TYPE, propertyValue, 1);
-        }
-        return Byte.toUnsignedInt(propertyValue[0]);
+        if (prop == Property.ROAD_TYPE)
+            return Byte.toUnsignedInt(orsEdgesProperties.getByte(edgePointer + LOCATION_ROAD_TYPE));
+        return 0;
     }
 
     /**
@@ -295,12 +303,10 @@ public class TrafficGraphStorage implements GraphExtension {
      **/
     private int getEdgeIdTrafficPatternPriority(int edgeId, boolean forward) {
         long edgePointer = (long) edgeId * edgeLinkLookupEntryBytes;
-        byte[] priority = new byte[1];
         if (forward)
-            orsEdgesTrafficLinkLookup.getBytes(edgePointer + LOCATION_FORWARD_TRAFFIC_PRIORITY, priority, 1);
+            return Byte.toUnsignedInt(orsEdgesTrafficLinkLookup.getByte(edgePointer + LOCATION_FORWARD_TRAFFIC_PRIORITY));
         else
-            orsEdgesTrafficLinkLookup.getBytes(edgePointer + LOCATION_BACKWARD_TRAFFIC_PRIORITY, priority, 1);
-        return Byte.toUnsignedInt(priority[0]);
+            return Byte.toUnsignedInt(orsEdgesTrafficLinkLookup.getByte(edgePointer + LOCATION_BACKWARD_TRAFFIC_PRIORITY));
     }
 
     /**
@@ -313,21 +319,20 @@ public class TrafficGraphStorage implements GraphExtension {
      * @param minute    Minute to get the patterns for.
      **/
     public int getTrafficSpeed(int patternId, int hour, int minute) {
-        byte[] values = new byte[1];
-        int minutePointer = generateMinutePointer(minute);
+        return getTrafficSpeed(patternId, hour * 4 + generateMinutePointer(minute));
+    }
+
+    private int getTrafficSpeed(int patternId, int slotOfDay) {
         long patternPointer = (long) patternId * patternEntryBytes;
-        orsSpeedPatternLookup.getBytes(patternPointer + ((hour * 4L) + minutePointer), values, 1);
-        return Byte.toUnsignedInt(values[0]);
+        return Byte.toUnsignedInt(orsSpeedPatternLookup.getByte(patternPointer + slotOfDay));
     }
 
     /**
      * Maximum speed value encountered in a daily traffic pattern
      **/
     private int getMaxTrafficSpeed(int patternId) {
-        byte[] value = new byte[1];
         long patternPointer = (long) patternId * patternEntryBytes;
-        orsSpeedPatternLookup.getBytes(patternPointer + DAILY_TRAFFIC_PATTERNS_BYTE_COUNT, value, 1);
-        return Byte.toUnsignedInt(value[0]);
+        return Byte.toUnsignedInt(orsSpeedPatternLookup.getByte(patternPointer + DAILY_TRAFFIC_PATTERNS_BYTE_COUNT));
     }
 
     /**
@@ -338,8 +343,7 @@ public class TrafficGraphStorage implements GraphExtension {
      * Only the weekday, hour, minute are taken into consideration since the traffic information are generalized to that resolution at the moment.
      * <p>
      * ## Time decoding ##
-     * The unix time is decoded using GMT+1 for german local time.
-     * For the time being we will use the german UTC until more traffic data comes in.
+     * The unix time is decoded into a weekly time slot using the given offset in hours, see {@link #getTimeSlot}.
      * <p>
      * <p>
      * ## TODO's ##
@@ -350,17 +354,46 @@ public class TrafficGraphStorage implements GraphExtension {
      * @return Returns the speed value in kph. If no value is found -1 is returned.
      */
     public int getSpeedValue(int edgeKey, long unixMilliSeconds, int timeZoneOffset) {
-        Calendar calendarDate = Calendar.getInstance(TimeZone.getTimeZone("GMT+" + timeZoneOffset));
-        calendarDate.setTimeInMillis(unixMilliSeconds);
-        int calendarWeekDay = calendarDate.get(Calendar.DAY_OF_WEEK);
-        int hour = calendarDate.get(Calendar.HOUR_OF_DAY);
-        int minute = calendarDate.get(Calendar.MINUTE);
-        int patternId = getEdgeIdTrafficPatternLookup(edgeKey, TrafficEnums.WeekDay.valueOfCanonical(calendarWeekDay));
+        return getSpeedValue(edgeKey, getTimeSlot(unixMilliSeconds, timeZoneOffset));
+    }
+
+    /**
+     * Get the traffic speed of the edge in the given weekly time slot. The lookup only reads primitives from the
+     * underlying storages and does not allocate any objects.
+     *
+     * @param edgeKey  Internal Edge Key
+     * @param timeSlot Weekly time slot as returned by {@link #getTimeSlot}.
+     * @return Returns the speed value in kph. If no value is found -1 is returned.
+     */
+    public int getSpeedValue(int edgeKey, int timeSlot) {
+        int edgeId = GHUtility.getEdgeFromEdgeKey(edgeKey);
+        if (invalidEdgeId(edgeId))
+            return -1;
+        long edgePointer = (long) edgeId * edgeLinkLookupEntryBytes;
+        int directionOffset = isForward(edgeKey) ? FORWARD_OFFSET : BACKWARD_OFFSET;
+        int weekDayLocation = WEEKDAY_BYTE_LOCATIONS[timeSlot / SLOTS_PER_DAY];
+        int patternId = Short.toUnsignedInt(orsEdgesTrafficLinkLookup.getShort(edgePointer + LOCATION_TRAFFIC + directionOffset + weekDayLocation));
         if (patternId > 0)
-            return getTrafficSpeed(patternId, hour, minute);
+            return getTrafficSpeed(patternId, timeSlot % SLOTS_PER_DAY);
         return -1;
     }
 
+    /**
+     * Decodes a unix time into the weekly time slot used by {@link #getSpeedValue(int, int)}. The slot is the number
+     * of 15 minute intervals since Sunday 00:00 local time, so it ranges from 0 to 7 * 96 - 1.
+     *
+     * @param unixMilliSeconds Time in unix milliseconds.
+     * @param timeZoneOffset   Offset of the local time to UTC in hours.
+     */
+    public static int getTimeSlot(long unixMilliSeconds, int timeZoneOffset) {
+        long localMillis = unixMilliSeconds + timeZoneOffset * MILLIS_PER_HOUR;
+        long days = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        // 1970-01-01 was a Thursday, i.e. four days after Sunday
+        int daysSinceSunday = (int) Math.floorMod(days + 4, 7L);
+        int slotOfDay = (int) (Math.floorMod(localMillis, MILLIS_PER_DAY) / MILLIS_PER_SLOT);
+        return daysSinceSunday * SLOTS_PER_DAY + slotOfDay;
+    }
+
     /**
      * Maximum traffic speed value across the whole week
      **/
@@ -368,11 +401,9 @@ public class TrafficGraphStorage implements GraphExtension {
         int edgeId = GHUtility.getEdgeFromEdgeKey(edgeKey);
         if (invalidEdgeId(edgeId))
             return 0;
-        byte[] value = new byte[1];
         long edgePointer = (long) edgeId * edgeLinkLookupEntryBytes;
         int directionOffset = isForward(edgeKey) ? FORWARD_OFFSET : BACKWARD_OFFSET;
-        orsEdgesTrafficLinkLookup.getBytes(edgePointer + LOCATION_TRAFFIC_MAXSPEED + directionOffset, value, 1);
-        return Byte.toUnsignedInt(value[0]);
+        return Byte.toUnsignedInt(orsEdgesTrafficLinkLookup.getByte(edgePointer + LOCATION_TRAFFIC_MAXSPEED + directionOffset));
     }
 
     public boolean hasTrafficSpeed(int edgeKey) {
@@ -56,6 +56,14 @@ import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder {
     static final Logger LOGGER = Logger.getLogger(HereTrafficGraphStorageBuilder.class.getName());
@@ -74,8 +82,11 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
     private static final String PARAM_KEY_PATTERNS_15MINUTES = "pattern_15min";
     private static final String PARAM_KEY_REFERENCE_PATTERN = "ref_pattern";
     private static final String MATCHING_RADIUS = "radius";
+    private static final String PARAM_KEY_THREADS = "threads";
+    private static final int LINKS_PER_TASK = 100;
     private boolean enabled = true;
     private int matchingRadius = 200;
+    private int matchingThreads = 1;
     String streetsFile = "";
     String patterns15MinutesFile = "";
     String refPatternIdsFile = "";
@@ -83,8 +94,7 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
     private TrafficGraphStorage storage;
 
     private GraphHopper gh;
-    private MapMatcher mMapMatcher;
-    private TrafficEdgeFilter trafficEdgeFilter;
+    private LinkMatcher linkMatcher;
     private final IntHashSet matchedHereLinks = new IntHashSet();
     private final ArrayList<String> matchedOSMLinks = new ArrayList<>();
 
@@ -132,13 +142,15 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
                 ErrorLoggingUtility.logMissingConfigParameter(HereTrafficGraphStorageBuilder.class, MATCHING_RADIUS);
                 LOGGER.info("The Here matching radius is not set. The default is applied!");
             }
+            if (parameters.containsKey(PARAM_KEY_THREADS))
+                matchingThreads = Math.max(1, Integer.parseInt(parameters.get(PARAM_KEY_THREADS)));
             storage = new TrafficGraphStorage();
         } else {
             LOGGER.info("Traffic not enabled.");
         }
 
         gh = graphhopper;
-        mMapMatcher = new GhMapMatcher(graphhopper, parameters.get("gh_profile"));
+        linkMatcher = new LinkMatcher();
         return storage;
     }
 
@@ -261,21 +273,6 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
         matchedOSMLinks.add(osmGeometry);
     }
 
-    private RouteSegmentInfo[] matchLinkToSegments(ORSGraphHopper graphHopper, int trafficLinkFunctionalClass,
-                                                   double originalTrafficLinkLength, Geometry geometry, boolean bothDirections) {
-        RouteSegmentInfo[] matchedSegments = new RouteSegmentInfo[0];
-        if (geometry == null) {
-            LOGGER.info("Teadrop node.");
-            return matchedSegments;
-        }
-        try {
-            matchedSegments = getMatchedSegmentsInternal(geometry, originalTrafficLinkLength, trafficLinkFunctionalClass, bothDirections, matchingRadius);
-        } catch (Exception e) {
-            LOGGER.info("Error while matching: " + e);
-        }
-        return matchedSegments;
-    }
-
     public void postProcess(ORSGraphHopper graphHopper) throws SchemaException {
         HereTrafficReader hereTrafficReader = new HereTrafficReader(streetsFile, patterns15MinutesFile, refPatternIdsFile);
         if (enabled && !storage.isMatched()) {
@@ -317,40 +314,88 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
     }
 
     private void processLinks(ORSGraphHopper graphHopper, IntObjectHashMap<TrafficLink> links) {
-        try (ProgressBar pb = new ProgressBarBuilder().setTaskName("Matching Here Links").setInitialMax(links.values().size()).setConsumer(new DelegatingProgressBarConsumer(LOGGER::debug)).build()) {
-            int counter = 0;
-            for (ObjectCursor<TrafficLink> trafficLink : links.values()) {
-                processLink(graphHopper, trafficLink.value);
-                counter += 1;
-                if (counter % 2000 == 0)
-                    pb.stepBy(2000);
-            }
+        List<TrafficLink> trafficLinks = new ArrayList<>(links.size());
+        for (ObjectCursor<TrafficLink> trafficLink : links.values()) {
+            if (trafficLink.value != null && trafficLink.value.isPotentialTrafficSegment())
+                trafficLinks.add(trafficLink.value);
+        }
+        long startTime = System.currentTimeMillis();
+        int matchedLinks = 0;
+        try (ProgressBar pb = new ProgressBarBuilder().setTaskName("Matching Here Links").setInitialMax(trafficLinks.size()).setConsumer(new DelegatingProgressBarConsumer(LOGGER::debug)).build()) {
+            matchedLinks = matchLinks(trafficLinks, matchingThreads, LINKS_PER_TASK, () -> new LinkMatcher()::matchLinks,
+                    matches -> applyLinkMatches(graphHopper, matches), pb::stepBy);
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while processing here traffic links.");
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             LOGGER.error("Error processing here traffic links with error: " + e);
         }
+        double seconds = (System.currentTimeMillis() - startTime) / 1000.0;
+        LOGGER.info("Matched %d of %d Here links with %d threads in %.1f s (%.0f links/s).".formatted(
+                matchedLinks, trafficLinks.size(), matchingThreads, seconds, seconds > 0 ? trafficLinks.size() / seconds : 0));
     }
 
-    private void processLink(ORSGraphHopper graphHopper, TrafficLink hereTrafficLink) {
-        if (hereTrafficLink == null || !hereTrafficLink.isPotentialTrafficSegment())
-            return;
-        RouteSegmentInfo[] matchedSegmentsFrom = new RouteSegmentInfo[]{};
-        RouteSegmentInfo[] matchedSegmentsTo = new RouteSegmentInfo[]{};
-
-        if (hereTrafficLink.isBothDirections()) {
-            // Both Directions
-            // Split
-            matchedSegmentsFrom = matchLinkToSegments(graphHopper, hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getFromGeometry(), false);
-            matchedSegmentsTo = matchLinkToSegments(graphHopper, hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getToGeometry(), false);
-        } else if (hereTrafficLink.isOnlyFromDirection()) {
-            // One Direction
-            matchedSegmentsFrom = matchLinkToSegments(graphHopper, hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getFromGeometry(), false);
-        } else {
-            // One Direction
-            matchedSegmentsTo = matchLinkToSegments(graphHopper, hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getToGeometry(), false);
+    /**
+     * Matches the links in tasks of {@code linksPerTask} links. With more than one thread the tasks are matched on a pool
+     * of worker threads, each using its own matcher from {@code matchers}. The matches are applied by the calling thread
+     * in the order of the links, so that conflicting patterns are resolved by priority exactly as when matching on a
+     * single thread.
+     *
+     * @return the sum of the values returned by {@code applyMatches}
+     */
+    static int matchLinks(List<TrafficLink> links, int threads, int linksPerTask, Supplier<Function<List<TrafficLink>, LinkMatch[]>> matchers,
+                          ToIntFunction<LinkMatch[]> applyMatches, IntConsumer progress) throws Exception {
+        int matchedLinks = 0;
+        if (threads <= 1) {
+            Function<List<TrafficLink>, LinkMatch[]> matcher = matchers.get();
+            for (int from = 0; from < links.size(); from += linksPerTask) {
+                List<TrafficLink> task = links.subList(from, Math.min(from + linksPerTask, links.size()));
+                matchedLinks += applyMatches.applyAsInt(matcher.apply(task));
+                progress.accept(task.size());
+            }
+            return matchedLinks;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ThreadLocal<Function<List<TrafficLink>, LinkMatch[]>> threadMatchers = ThreadLocal.withInitial(matchers);
+        Deque<Future<LinkMatch[]>> pendingTasks = new ArrayDeque<>();
+        try {
+            int from = 0;
+            while (from < links.size() || !pendingTasks.isEmpty()) {
+                while (from < links.size() && pendingTasks.size() < threads * 4) {
+                    List<TrafficLink> task = links.subList(from, Math.min(from + linksPerTask, links.size()));
+                    pendingTasks.add(executor.submit(() -> threadMatchers.get().apply(task)));
+                    from += task.size();
+                }
+                LinkMatch[] matches;
+                try {
+                    matches = pendingTasks.poll().get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+                matchedLinks += applyMatches.applyAsInt(matches);
+                progress.accept(matches.length);
+            }
+        } finally {
+            for (Future<LinkMatch[]> task : pendingTasks)
+                task.cancel(true);
+            executor.shutdownNow();
         }
+        return matchedLinks;
+    }
 
-        processSegments(graphHopper, hereTrafficLink.getLinkId(), hereTrafficLink.getTrafficPatternIds(TrafficEnums.TravelDirection.FROM), matchedSegmentsFrom);
-        processSegments(graphHopper, hereTrafficLink.getLinkId(), hereTrafficLink.getTrafficPatternIds(TrafficEnums.TravelDirection.TO), matchedSegmentsTo);
+    /**
+     * @return the number of links with at least one matched segment
+     */
+    private int applyLinkMatches(GraphHopper gh, LinkMatch[] matches) {
+        int matchedLinks = 0;
+        for (LinkMatch match : matches) {
+            TrafficLink hereTrafficLink = match.link;
+            processSegments(gh, hereTrafficLink.getLinkId(), hereTrafficLink.getTrafficPatternIds(TrafficEnums.TravelDirection.FROM), match.segmentsFrom);
+            processSegments(gh, hereTrafficLink.getLinkId(), hereTrafficLink.getTrafficPatternIds(TrafficEnums.TravelDirection.TO), match.segmentsTo);
+            if (match.segmentsFrom.length > 0 || match.segmentsTo.length > 0)
+                matchedLinks++;
+        }
+        return matchedLinks;
     }
 
     private void processSegments(GraphHopper gh, int linkId, Map<TrafficEnums.WeekDay, Integer> trafficPatternIds, RouteSegmentInfo[] matchedSegments) {
@@ -386,62 +431,7 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
                                                          int trafficLinkFunctionalClass,
                                                          boolean bothDirections,
                                                          int matchingRadius) {
-
-        if (trafficEdgeFilter == null) {
-            trafficEdgeFilter = new TrafficEdgeFilter(gh.getGraphHopperStorage());
-            mMapMatcher.setEdgeFilter(trafficEdgeFilter);
-        }
-        trafficEdgeFilter.setHereFunctionalClass(trafficLinkFunctionalClass);
-
-        RouteSegmentInfo[] routeSegmentInfos;
-        mMapMatcher.setSearchRadius(matchingRadius);
-        routeSegmentInfos = matchInternalSegments(geometry, originalTrafficLinkLength, bothDirections);
-        for (RouteSegmentInfo routeSegmentInfo : routeSegmentInfos) {
-            if (routeSegmentInfo != null) {
-                return routeSegmentInfos;
-            }
-        }
-        return routeSegmentInfos;
-    }
-
-    private RouteSegmentInfo[] matchInternalSegments(Geometry geometry, double originalTrafficLinkLength, boolean bothDirections) {
-
-        org.locationtech.jts.geom.Coordinate[] locations = geometry.getCoordinates();
-        int originalFunctionalClass = trafficEdgeFilter.getHereFunctionalClass();
-        RouteSegmentInfo[] match = mMapMatcher.match(locations, bothDirections);
-        match = validateRouteSegment(originalTrafficLinkLength, match);
-
-        if (match.length <= 0 && (originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS1.value && originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS1LINK.value)) {
-            // Test a higher functional class based from the original class
-//            ((TrafficEdgeFilter) edgeFilter).setHereFunctionalClass(originalFunctionalClass);
-            trafficEdgeFilter.higherFunctionalClass();
-            mMapMatcher.setEdgeFilter(trafficEdgeFilter);
-            match = mMapMatcher.match(locations, bothDirections);
-            match = validateRouteSegment(originalTrafficLinkLength, match);
-        }
-        if (match.length <= 0 && (originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value && originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS4LINK.value)) {
-            // Try matching in the next lower functional class.
-            trafficEdgeFilter.setHereFunctionalClass(originalFunctionalClass);
-            trafficEdgeFilter.lowerFunctionalClass();
-            mMapMatcher.setEdgeFilter(trafficEdgeFilter);
-            match = mMapMatcher.match(locations, bothDirections);
-            match = validateRouteSegment(originalTrafficLinkLength, match);
-        }
-        if (match.length <= 0 && (originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value && originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS4LINK.value)) {
-            // But always try UNCLASSIFIED before. CLASS5 hast way too many false-positives!
-            trafficEdgeFilter.setHereFunctionalClass(TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value);
-            mMapMatcher.setEdgeFilter(trafficEdgeFilter);
-            match = mMapMatcher.match(locations, bothDirections);
-            match = validateRouteSegment(originalTrafficLinkLength, match);
-        }
-        if (match.length <= 0 && (originalFunctionalClass == TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value || originalFunctionalClass == TrafficRelevantWayType.RelevantWayTypes.CLASS4LINK.value || originalFunctionalClass == TrafficRelevantWayType.RelevantWayTypes.CLASS1.value)) {
-            // If the first tested class was unclassified, try CLASS5. But always try UNCLASSIFIED before. CLASS5 hast way too many false-positives!
-            trafficEdgeFilter.setHereFunctionalClass(TrafficRelevantWayType.RelevantWayTypes.CLASS5.value);
-            mMapMatcher.setEdgeFilter(trafficEdgeFilter);
-            match = mMapMatcher.match(locations, bothDirections);
-            match = validateRouteSegment(originalTrafficLinkLength, match);
-        }
-        return match;
+        return linkMatcher.getMatchedSegmentsInternal(geometry, originalTrafficLinkLength, trafficLinkFunctionalClass, bothDirections, matchingRadius);
     }
 
     private RouteSegmentInfo[] validateRouteSegment(double originalTrafficLinkLength, RouteSegmentInfo[] routeSegmentInfo) {
@@ -468,6 +458,130 @@ public class HereTrafficGraphStorageBuilder extends AbstractGraphStorageBuilder
             return routeSegmentInfo;
     }
 
+    /**
+     * Matches Here links to edges of the graph. Instances hold the state of a single matching and must not be shared
+     * between threads.
+     */
+    private class LinkMatcher {
+        private final MapMatcher mapMatcher = new GhMapMatcher(gh, parameters.get("gh_profile"));
+        private TrafficEdgeFilter trafficEdgeFilter;
+
+        LinkMatch[] matchLinks(List<TrafficLink> links) {
+            LinkMatch[] matches = new LinkMatch[links.size()];
+            for (int i = 0; i < matches.length; i++)
+                matches[i] = matchLink(links.get(i));
+            return matches;
+        }
+
+        private LinkMatch matchLink(TrafficLink hereTrafficLink) {
+            RouteSegmentInfo[] matchedSegmentsFrom = new RouteSegmentInfo[]{};
+            RouteSegmentInfo[] matchedSegmentsTo = new RouteSegmentInfo[]{};
+
+            if (hereTrafficLink.isBothDirections()) {
+                // Both Directions
+                // Split
+                matchedSegmentsFrom = matchLinkToSegments(hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getFromGeometry(), false);
+                matchedSegmentsTo = matchLinkToSegments(hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getToGeometry(), false);
+            } else if (hereTrafficLink.isOnlyFromDirection()) {
+                // One Direction
+                matchedSegmentsFrom = matchLinkToSegments(hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getFromGeometry(), false);
+            } else {
+                // One Direction
+                matchedSegmentsTo = matchLinkToSegments(hereTrafficLink.getFunctionalClass(), hereTrafficLink.getLinkLength(), hereTrafficLink.getToGeometry(), false);
+            }
+            return new LinkMatch(hereTrafficLink, matchedSegmentsFrom, matchedSegmentsTo);
+        }
+
+        private RouteSegmentInfo[] matchLinkToSegments(int trafficLinkFunctionalClass, double originalTrafficLinkLength, Geometry geometry, boolean bothDirections) {
+            RouteSegmentInfo[] matchedSegments = new RouteSegmentInfo[0];
+            if (geometry == null) {
+                LOGGER.info("Teadrop node.");
+                return matchedSegments;
+            }
+            try {
+                matchedSegments = getMatchedSegmentsInternal(geometry, originalTrafficLinkLength, trafficLinkFunctionalClass, bothDirections, matchingRadius);
+            } catch (Exception e) {
+                LOGGER.info("Error while matching: " + e);
+            }
+            return matchedSegments;
+        }
+
+        public RouteSegmentInfo[] getMatchedSegmentsInternal(Geometry geometry,
+                                                             double originalTrafficLinkLength,
+                                                             int trafficLinkFunctionalClass,
+                                                             boolean bothDirections,
+                                                             int matchingRadius) {
+
+            if (trafficEdgeFilter == null) {
+                trafficEdgeFilter = new TrafficEdgeFilter(gh.getGraphHopperStorage());
+                mapMatcher.setEdgeFilter(trafficEdgeFilter);
+            }
+            trafficEdgeFilter.setHereFunctionalClass(trafficLinkFunctionalClass);
+
+            RouteSegmentInfo[] routeSegmentInfos;
+            mapMatcher.setSearchRadius(matchingRadius);
+            routeSegmentInfos = matchInternalSegments(geometry, originalTrafficLinkLength, bothDirections);
+            for (RouteSegmentInfo routeSegmentInfo : routeSegmentInfos) {
+                if (routeSegmentInfo != null) {
+                    return routeSegmentInfos;
+                }
+            }
+            return routeSegmentInfos;
+        }
+
+        private RouteSegmentInfo[] matchInternalSegments(Geometry geometry, double originalTrafficLinkLength, boolean bothDirections) {
+
+            org.locationtech.jts.geom.Coordinate[] locations = geometry.getCoordinates();
+            int originalFunctionalClass = trafficEdgeFilter.getHereFunctionalClass();
+            RouteSegmentInfo[] match = mapMatcher.match(locations, bothDirections);
+            match = validateRouteSegment(originalTrafficLinkLength, match);
+
+            if (match.length <= 0 && (originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS1.value && originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS1LINK.value)) {
+                // Test a higher functional class based from the original class
+//                ((TrafficEdgeFilter) edgeFilter).setHereFunctionalClass(originalFunctionalClass);
+                trafficEdgeFilter.higherFunctionalClass();
+                mapMatcher.setEdgeFilter(trafficEdgeFilter);
+                match = mapMatcher.match(locations, bothDirections);
+                match = validateRouteSegment(originalTrafficLinkLength, match);
+            }
+            if (match.length <= 0 && (originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value && originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS4LINK.value)) {
+                // Try matching in the next lower functional class.
+                trafficEdgeFilter.setHereFunctionalClass(originalFunctionalClass);
+                trafficEdgeFilter.lowerFunctionalClass();
+                mapMatcher.setEdgeFilter(trafficEdgeFilter);
+                match = mapMatcher.match(locations, bothDirections);
+                match = validateRouteSegment(originalTrafficLinkLength, match);
+            }
+            if (match.length <= 0 && (originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value && originalFunctionalClass != TrafficRelevantWayType.RelevantWayTypes.CLASS4LINK.value)) {
+                // But always try UNCLASSIFIED before. CLASS5 hast way too many false-positives!
+                trafficEdgeFilter.setHereFunctionalClass(TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value);
+                mapMatcher.setEdgeFilter(trafficEdgeFilter);
+                match = mapMatcher.match(locations, bothDirections);
+                match = validateRouteSegment(originalTrafficLinkLength, match);
+            }
+            if (match.length <= 0 && (originalFunctionalClass == TrafficRelevantWayType.RelevantWayTypes.UNCLASSIFIED.value || originalFunctionalClass == TrafficRelevantWayType.RelevantWayTypes.CLASS4LINK.value || originalFunctionalClass == TrafficRelevantWayType.RelevantWayTypes.CLASS1.value)) {
+                // If the first tested class was unclassified, try CLASS5. But always try UNCLASSIFIED before. CLASS5 hast way too many false-positives!
+                trafficEdgeFilter.setHereFunctionalClass(TrafficRelevantWayType.RelevantWayTypes.CLASS5.value);
+                mapMatcher.setEdgeFilter(trafficEdgeFilter);
+                match = mapMatcher.match(locations, bothDirections);
+                match = validateRouteSegment(originalTrafficLinkLength, match);
+            }
+            return match;
+        }
+    }
+
+    static class LinkMatch {
+        final TrafficLink link;
+        final RouteSegmentInfo[] segmentsFrom;
+        final RouteSegmentInfo[] segmentsTo;
+
+        LinkMatch(TrafficLink link, RouteSegmentInfo[] segmentsFrom, RouteSegmentInfo[] segmentsTo) {
+            this.link = link;
+            this.segmentsFrom = segmentsFrom;
+            this.segmentsTo = segmentsTo;
+        }
+    }
+
     private static class setTaskName {
         public setTaskName(String matchingHereLinks) {
         }
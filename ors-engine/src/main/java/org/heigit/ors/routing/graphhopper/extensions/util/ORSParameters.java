@@ -36,6 +36,20 @@ public class ORSParameters {
         public static final String TIME_DEPENDENT_SPEED_OR_ACCESS = "time_dependent_speed_or_access";
     }
 
+    /**
+     * Parameters that can be passed as hints and influence the route response per request.
+     */
+    public static final class Routing {
+        private Routing() {
+        }
+
+        /**
+         * This property name in HintsMap enables the Douglas-Peucker simplification of the route geometry. The
+         * tolerance can be tuned per request with the {@code way_point_max_distance} hint of GraphHopper.
+         */
+        public static final String SIMPLIFY_GEOMETRY = "simplify_geometry";
+    }
+
 
     /**
      * Properties for routing with contraction hierarchies speedup
@@ -34,7 +34,10 @@ public class GeomUtility {
 
     private static final GeometryFactory geometryFactory = new GeometryFactory();
 
+    private static final String MOLLWEIDE_WKT = "PROJCS[\"World_Mollweide\",GEOGCS[\"GCS_WGS_1984\",DATUM[\"WGS_1984\",SPHEROID[\"WGS_1984\",6378137,298.257223563]],PRIMEM[\"Greenwich\",0],UNIT[\"Degree\",0.017453292519943295]],PROJECTION[\"Mollweide\"],PARAMETER[\"False_Easting\",0],PARAMETER[\"False_Northing\",0],PARAMETER[\"Central_Meridian\",0],UNIT[\"Meter\",1],AUTHORITY[\"EPSG\",\"54009\"]]";
+
     private static MathTransform transformWgs84Sphericalmercator = null;// CRS.findMathTransform(DefaultGeographicCRS.WGS84,
+    private static MathTransform transformWgs84Mollweide = null;
 
     private GeomUtility() {
     }
@@ -138,22 +141,23 @@ public class GeomUtility {
         return metres / 111139;
     }
 
+    /**
+     * Returns the transform from WGS 84 (EPSG:4326) to the equal-area World Mollweide projection (ESRI:54009) in metres.
+     */
+    public static MathTransform getWgs84MollweideTransform() throws FactoryException {
+        if (transformWgs84Mollweide == null) {
+            // https://gis.stackexchange.com/questions/265481/geotools-unexpected-result-reprojecting-bounding-box-to-epsg3035
+            System.setProperty("org.geotools.referencing.forceXY", "true");
+            transformWgs84Mollweide = CRS.findMathTransform(CRS.decode("EPSG:4326"), CRS.parseWKT(MOLLWEIDE_WKT));
+        }
+        return transformWgs84Mollweide;
+    }
+
     public static double getArea(Geometry geom, boolean inMeters) throws InternalServerException {
         try {
             if (inMeters) {
                 if (geom instanceof Polygon poly) {
-
-                    // https://gis.stackexchange.com/questions/265481/geotools-unexpected-result-reprojecting-bounding-box-to-epsg3035
-                    System.setProperty("org.geotools.referencing.forceXY", "true");
-
-                    CoordinateReferenceSystem sourceCRS = CRS.decode("EPSG:4326");
-
-                    String mollweideProj = "PROJCS[\"World_Mollweide\",GEOGCS[\"GCS_WGS_1984\",DATUM[\"WGS_1984\",SPHEROID[\"WGS_1984\",6378137,298.257223563]],PRIMEM[\"Greenwich\",0],UNIT[\"Degree\",0.017453292519943295]],PROJECTION[\"Mollweide\"],PARAMETER[\"False_Easting\",0],PARAMETER[\"False_Northing\",0],PARAMETER[\"Central_Meridian\",0],UNIT[\"Meter\",1],AUTHORITY[\"EPSG\",\"54009\"]]";
-
-                    CoordinateReferenceSystem targetCRS = CRS.parseWKT(mollweideProj);
-
-                    MathTransform transform = CRS.findMathTransform(sourceCRS, targetCRS);
-                    Geometry targetGeometry = JTS.transform(poly, transform);
+                    Geometry targetGeometry = JTS.transform(poly, getWgs84MollweideTransform());
 
                     return targetGeometry.getArea();
                 } else {
@@ -182,19 +186,9 @@ public class GeomUtility {
 
     public static double calculateMaxExtent(Geometry geom) throws InternalServerException {
         try {
-            // https://gis.stackexchange.com/questions/265481/geotools-unexpected-result-reprojecting-bounding-box-to-epsg3035
-            System.setProperty("org.geotools.referencing.forceXY", "true");
-
             Polygon poly = (Polygon) geom;
 
-            CoordinateReferenceSystem sourceCRS = CRS.decode("EPSG:4326");
-
-            String mollweideProj = "PROJCS[\"World_Mollweide\",GEOGCS[\"GCS_WGS_1984\",DATUM[\"WGS_1984\",SPHEROID[\"WGS_1984\",6378137,298.257223563]],PRIMEM[\"Greenwich\",0],UNIT[\"Degree\",0.017453292519943295]],PROJECTION[\"Mollweide\"],PARAMETER[\"False_Easting\",0],PARAMETER[\"False_Northing\",0],PARAMETER[\"Central_Meridian\",0],UNIT[\"Meter\",1],AUTHORITY[\"EPSG\",\"54009\"]]";
-
-            CoordinateReferenceSystem targetCRS = CRS.parseWKT(mollweideProj);
-
-            MathTransform transform = CRS.findMathTransform(sourceCRS, targetCRS);
-            Geometry targetGeometry = JTS.transform(poly, transform);
+            Geometry targetGeometry = JTS.transform(poly, getWgs84MollweideTransform());
 
             Envelope envelope = targetGeometry.getEnvelopeInternal();
             return Math.max(envelope.getHeight(), envelope.getWidth());
@@ -24,6 +24,10 @@
  */
 package org.opensphere.geometry.algorithm;
 
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.sorting.IndirectComparator;
+import com.carrotsearch.hppc.sorting.IndirectSort;
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.geom.impl.CoordinateArraySequence;
 import org.locationtech.jts.operation.linemerge.LineMerger;
@@ -31,13 +35,12 @@ import org.locationtech.jts.triangulate.ConformingDelaunayTriangulationBuilder;
 import org.locationtech.jts.triangulate.quadedge.QuadEdge;
 import org.locationtech.jts.triangulate.quadedge.QuadEdgeSubdivision;
 import org.locationtech.jts.triangulate.quadedge.QuadEdgeTriangle;
+import org.locationtech.jts.triangulate.quadedge.Vertex;
 import org.locationtech.jts.util.UniqueCoordinateArrayFilter;
-import org.opensphere.geometry.triangulation.model.Edge;
-import org.opensphere.geometry.triangulation.model.Triangle;
-import org.opensphere.geometry.triangulation.model.Vertex;
 
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Computes a concave hull of a {@link Geometry} which is a concave
@@ -51,20 +54,36 @@ import java.util.Map.Entry;
  * "Efficient generation of simple polygons for characterizing the shape of a
  * set of points in the plane".
  *
+ * <p>
+ * The triangulation is kept in primitive arrays: edges are numbered in order
+ * of decreasing length, triangles refer to their edges by number, and the
+ * border edges longer than the threshold are kept in a heap of edge numbers,
+ * so that the longest one is always removed first.
+ *
  * @author Eric Grosso
  */
 public class ConcaveHullOpenSphere {
+    private static final byte EDGE_LONG = 1;
+    private static final byte EDGE_SHORT = 2;
+    private static final byte EDGE_REMOVED = 3;
 
     private final GeometryFactory geomFactory;
-    private final GeometryCollection geometries;
+    private final Geometry geometries;
     private final double threshold;
-    private final Map<LineSegment, Integer> segments = new HashMap<>();
-    private final Map<Integer, Edge> edges = new HashMap<>();
-    private final Map<Integer, Triangle> triangles = new HashMap<>();
-    private final NavigableMap<Integer, Edge> lengths = new TreeMap<>();
-    private final Map<Integer, Edge> shortLengths = new HashMap<>();
-    private final Map<Coordinate, Integer> coordinates = new HashMap<>();
-    private final Map<Integer, Vertex> vertices = new HashMap<>();
+
+    private Coordinate[] vertexCoordinates;
+    private boolean[] borderVertices;
+    // two vertices per edge, the first one having the smaller coordinate
+    private int[] edgeVertices;
+    private double[] edgeLengths;
+    private byte[] edgeStates;
+    // two triangles per edge, -1 if the edge has only one
+    private int[] edgeTriangles;
+    // three edges per triangle
+    private int[] triangleEdges;
+    private int[] triangleNeighbours;
+    private int[] longEdges;
+    private int longEdgeCount;
 
     /**
      * Create a new concave hull construction for the input {@link Geometry}.
@@ -93,45 +112,38 @@ public class ConcaveHullOpenSphere {
     }
 
     /**
-     * Transform into GeometryCollection.
+     * Create a new concave hull construction for the input points without
+     * wrapping each of them in a {@link Point}.
      *
-     * @param geom input geometry
-     * @return a geometry collection
+     * @param points
+     * @param threshold
+     * @param geomFactory
      */
-    private static GeometryCollection transformIntoPointGeometryCollection(Geometry geom) {
-        UniqueCoordinateArrayFilter filter = new UniqueCoordinateArrayFilter();
-        geom.apply(filter);
-        Coordinate[] coord = filter.getCoordinates();
-
-        Geometry[] geometries = new Geometry[coord.length];
-        for (int i = 0; i < coord.length; i++) {
-            Coordinate[] c = new Coordinate[]{coord[i]};
-            CoordinateArraySequence cs = new CoordinateArraySequence(c);
-            geometries[i] = new Point(cs, geom.getFactory());
-        }
-
-        return new GeometryCollection(geometries, geom.getFactory());
+    public ConcaveHullOpenSphere(Coordinate[] points, double threshold, GeometryFactory geomFactory) {
+        this.geometries = geomFactory.createMultiPointFromCoords(points);
+        this.threshold = threshold;
+        this.geomFactory = geomFactory;
     }
 
     /**
      * Transform into GeometryCollection.
      *
-     * @param gc input geometry
+     * @param geom input geometry
      * @return a geometry collection
      */
-    private static GeometryCollection transformIntoPointGeometryCollection(GeometryCollection gc) {
+    private static GeometryCollection transformIntoPointGeometryCollection(Geometry geom) {
         UniqueCoordinateArrayFilter filter = new UniqueCoordinateArrayFilter();
-        gc.apply(filter);
+        geom.apply(filter);
         Coordinate[] coord = filter.getCoordinates();
 
         Geometry[] geometries = new Geometry[coord.length];
         for (int i = 0; i < coord.length; i++) {
             Coordinate[] c = new Coordinate[]{coord[i]};
             CoordinateArraySequence cs = new CoordinateArraySequence(c);
-            geometries[i] = new Point(cs, gc.getFactory());
+            geometries[i] = new Point(cs, geom.getFactory());
         }
 
-        return new GeometryCollection(geometries, gc.getFactory());
+        return new GeometryCollection(geometries, geom.getFactory());
     }
 
     /**
@@ -158,21 +170,6 @@ public class ConcaveHullOpenSphere {
         return concaveHull();
     }
 
-    /**
-     * Wrapper around QuadEdge, pre computes linesegment and length.
-     */
-    private static class QuadEdgeLineSegment {
-        private final QuadEdge qe;
-        private final LineSegment ls;
-        private final double length;
-
-        public QuadEdgeLineSegment(QuadEdge qe) {
-            this.qe = qe;
-            this.ls = qe.toLineSegment();
-            this.length = ls.getLength();
-        }
-    }
-
     /**
      * Create the concave hull.
      *
@@ -187,271 +184,206 @@ public class ConcaveHullOpenSphere {
         cdtb.setSites(this.geometries);
 
         QuadEdgeSubdivision qes = cdtb.getSubdivision();
-
-        Collection<QuadEdge> quadEdges = qes.getEdges();
         List<QuadEdgeTriangle> qeTriangles = QuadEdgeTriangle.createOn(qes);
-        Collection<org.locationtech.jts.triangulate.quadedge.Vertex> qeVertices =
-                qes.getVertices(false);
+        Collection<Vertex> qeVertices = qes.getVertices(false);
 
+        ObjectIntHashMap<Coordinate> vertexIds = new ObjectIntHashMap<>(qeVertices.size());
+        this.vertexCoordinates = new Coordinate[qeVertices.size()];
+        this.borderVertices = new boolean[qeVertices.size()];
         int iV = 0;
-        for (org.locationtech.jts.triangulate.quadedge.Vertex v : qeVertices) {
-            this.coordinates.put(v.getCoordinate(), iV);
-            this.vertices.put(iV, new Vertex(iV, v.getCoordinate()));
+        for (Vertex v : qeVertices) {
+            this.vertexCoordinates[iV] = v.getCoordinate();
+            vertexIds.put(v.getCoordinate(), iV);
             iV++;
         }
 
-        // border
-        List<QuadEdge> qeFrameBorder = new ArrayList<>();
-        List<QuadEdge> qeFrame = new ArrayList<>();
-        List<QuadEdge> qeBorder = new ArrayList<>();
+        createEdges(qes, vertexIds);
+        createTriangles(qeTriangles, vertexIds);
 
-        for (QuadEdge qe : quadEdges) {
-            if (qes.isFrameBorderEdge(qe)) {
-                qeFrameBorder.add(qe);
-            }
-            if (qes.isFrameEdge(qe)) {
-                qeFrame.add(qe);
+        // concave hull algorithm
+        while (this.longEdgeCount > 0) {
+            // the longest border edge has the smallest number
+            int e = this.longEdges[0];
+            if (this.edgeLengths[e] <= this.threshold)
+                break;
+            removeLongEdge();
+
+            int triangle = this.edgeTriangles[2 * e];
+            // irregular triangle test, and test if all the vertices are on the border
+            if (this.triangleNeighbours[triangle] == 1 || isBorderTriangle(triangle)) {
+                this.edgeStates[e] = EDGE_SHORT;
+            } else {
+                this.edgeStates[e] = EDGE_REMOVED;
+                removeTriangle(triangle, e);
             }
         }
 
-        // border
-        for (int j = 0; j < qeFrameBorder.size(); j++) {
-            QuadEdge q = qeFrameBorder.get(j);
-            if (!qeFrame.contains(q)) {
-                qeBorder.add(q);
-            }
-        }
+        // concave hull creation
+        List<LineString> tmpEdges = new ArrayList<>();
+        addBorderEdges(tmpEdges, EDGE_LONG);
+        addBorderEdges(tmpEdges, EDGE_SHORT);
+
+        // merge
+        LineMerger lineMerger = new LineMerger();
+        lineMerger.add(tmpEdges);
+        LineString merge = (LineString) lineMerger.getMergedLineStrings().iterator().next();
 
-        // deletion of exterior edges
-        for (QuadEdge qe : qeFrame) {
-            qes.delete(qe);
+        if (merge.isRing()) {
+            LinearRing lr = new LinearRing(merge.getCoordinateSequence(), this.geomFactory);
+            return new Polygon(lr, null, this.geomFactory);
         }
 
-        List<QuadEdgeLineSegment> qeDistances = new ArrayList<>(quadEdges.size());
+        return merge;
+    }
+
+    /**
+     * Numbers the edges of the triangulation without the frame in order of
+     * decreasing length, and marks the edges of the convex hull as border edges.
+     */
+    private void createEdges(QuadEdgeSubdivision qes, ObjectIntHashMap<Coordinate> vertexIds) {
+        Collection<QuadEdge> quadEdges = qes.getEdges();
+        int[] vertices = new int[2 * quadEdges.size()];
+        double[] lengths = new double[quadEdges.size()];
+        boolean[] border = new boolean[quadEdges.size()];
+        int count = 0;
         for (QuadEdge qe : quadEdges) {
-            qeDistances.add(new QuadEdgeLineSegment(qe));
+            if (qes.isFrameEdge(qe))
+                continue;
+            Coordinate p0 = qe.orig().getCoordinate();
+            Coordinate p1 = qe.dest().getCoordinate();
+            if (p1.compareTo(p0) < 0) {
+                Coordinate p = p0;
+                p0 = p1;
+                p1 = p;
+            }
+            vertices[2 * count] = vertexIds.get(p0);
+            vertices[2 * count + 1] = vertexIds.get(p1);
+            lengths[count] = p0.distance(p1);
+            border[count] = qes.isFrameBorderEdge(qe);
+            count++;
+        }
+
+        int[] order = IndirectSort.mergesort(0, count, new IndirectComparator.DescendingDoubleComparator(lengths));
+        this.edgeVertices = new int[2 * count];
+        this.edgeLengths = new double[count];
+        this.edgeStates = new byte[count];
+        this.edgeTriangles = new int[2 * count];
+        this.longEdges = new int[count];
+        for (int e = 0; e < count; e++) {
+            int i = order[e];
+            this.edgeVertices[2 * e] = vertices[2 * i];
+            this.edgeVertices[2 * e + 1] = vertices[2 * i + 1];
+            this.edgeLengths[e] = lengths[i];
+            this.edgeTriangles[2 * e] = -1;
+            this.edgeTriangles[2 * e + 1] = -1;
+            if (border[i])
+                setBorder(e);
         }
+    }
 
-        qeDistances.sort((a, b) -> Double.compare(b.length, a.length));
+    private void createTriangles(List<QuadEdgeTriangle> qeTriangles, ObjectIntHashMap<Coordinate> vertexIds) {
+        LongIntHashMap edgeIds = new LongIntHashMap(this.edgeLengths.length);
+        for (int e = 0; e < this.edgeLengths.length; e++)
+            edgeIds.put(getEdgeKey(this.edgeVertices[2 * e], this.edgeVertices[2 * e + 1]), e);
 
-        // edges creation
-        int i = 0;
-        for (QuadEdgeLineSegment qels : qeDistances) {
-            LineSegment s = qels.ls;
-            s.normalize();
-
-            Integer idS = this.coordinates.get(s.p0);
-            Integer idD = this.coordinates.get(s.p1);
-            Vertex oV = this.vertices.get(idS);
-            Vertex eV = this.vertices.get(idD);
-
-            Edge edge;
-            if (qeBorder.contains(qels.qe)) {
-                oV.setBorder(true);
-                eV.setBorder(true);
-                edge = new Edge(i, s, oV, eV, true);
-                if (qels.length < this.threshold) {
-                    this.shortLengths.put(i, edge);
+        this.triangleEdges = new int[3 * qeTriangles.size()];
+        this.triangleNeighbours = new int[qeTriangles.size()];
+        int t = 0;
+        for (QuadEdgeTriangle qet : qeTriangles) {
+            for (int i = 0; i < 3; i++) {
+                QuadEdge qe = qet.getEdge(i);
+                int e = edgeIds.get(getEdgeKey(vertexIds.get(qe.orig().getCoordinate()), vertexIds.get(qe.dest().getCoordinate())));
+                this.triangleEdges[3 * t + i] = e;
+                if (this.edgeTriangles[2 * e] == -1) {
+                    this.edgeTriangles[2 * e] = t;
                 } else {
-                    this.lengths.put(i, edge);
+                    this.edgeTriangles[2 * e + 1] = t;
+                    // add triangle neighbourhood
+                    this.triangleNeighbours[this.edgeTriangles[2 * e]]++;
+                    this.triangleNeighbours[t]++;
                 }
-            } else {
-                edge = new Edge(i, s, oV, eV, false);
             }
-            this.edges.put(i, edge);
-            this.segments.put(s, i);
-            i++;
+            t++;
         }
+    }
 
-        // hm of linesegment and hm of edges // with id as key
-        // hm of triangles using hm of ls and connection with hm of edges
+    private static long getEdgeKey(int v0, int v1) {
+        return v0 < v1 ? ((long) v0 << 32) | v1 : ((long) v1 << 32) | v0;
+    }
 
-        i = 0;
-        for (QuadEdgeTriangle qet : qeTriangles) {
-            LineSegment sA = qet.getEdge(0).toLineSegment();
-            LineSegment sB = qet.getEdge(1).toLineSegment();
-            LineSegment sC = qet.getEdge(2).toLineSegment();
-            sA.normalize();
-            sB.normalize();
-            sC.normalize();
-
-            Edge edgeA = this.edges.get(this.segments.get(sA));
-            Edge edgeB = this.edges.get(this.segments.get(sB));
-            Edge edgeC = this.edges.get(this.segments.get(sC));
-
-            Triangle triangle = new Triangle(i, qet.isBorder());
-            triangle.addEdge(edgeA);
-            triangle.addEdge(edgeB);
-            triangle.addEdge(edgeC);
-
-            edgeA.addTriangle(triangle);
-            edgeB.addTriangle(triangle);
-            edgeC.addTriangle(triangle);
-
-            this.triangles.put(i, triangle);
-            i++;
+    private boolean isBorderTriangle(int triangle) {
+        for (int i = 0; i < 3; i++) {
+            int e = this.triangleEdges[3 * triangle + i];
+            if (!this.borderVertices[this.edgeVertices[2 * e]] || !this.borderVertices[this.edgeVertices[2 * e + 1]])
+                return false;
         }
+        return true;
+    }
 
-        // add triangle neighbourood
-        for (Edge edge : this.edges.values()) {
-            if (edge.getTriangles().size() != 1) {
-                Triangle tA = edge.getTriangles().get(0);
-                Triangle tB = edge.getTriangles().get(1);
-                tA.addNeighbour(tB);
-                tB.addNeighbour(tA);
-            }
+    /**
+     * Removes the given triangle, which has the removed border edge e, and
+     * turns its other two edges into border edges.
+     */
+    private void removeTriangle(int triangle, int e) {
+        for (int i = 0; i < 3; i++) {
+            int edge = this.triangleEdges[3 * triangle + i];
+            if (edge == e)
+                continue;
+            int neighbour = this.edgeTriangles[2 * edge] == triangle ? this.edgeTriangles[2 * edge + 1] : this.edgeTriangles[2 * edge];
+            this.triangleNeighbours[neighbour]--;
+            // clean the relationships with the triangle
+            this.edgeTriangles[2 * edge] = neighbour;
+            this.edgeTriangles[2 * edge + 1] = -1;
+            setBorder(edge);
         }
+    }
 
-
-        // concave hull algorithm
-        int index = 0;
-        while (index != -1) {
-            index = -1;
-
-            Edge e = null;
-
-            // find the max length (smallest id so first entry)
-            int si = this.lengths.size();
-
-            if (si != 0) {
-                Entry<Integer, Edge> entry = this.lengths.firstEntry();
-                int ind = entry.getKey();
-                if (entry.getValue().getGeometry().getLength() > this.threshold) {
-                    index = ind;
-                    e = entry.getValue();
-                }
-            }
-
-            if (e != null && index != -1) {
-                Triangle triangle = e.getTriangles().get(0);
-                List<Triangle> neighbours = triangle.getNeighbours();
-                // irregular triangle test
-                if (neighbours.size() == 1) {
-                    this.shortLengths.put(e.getId(), e);
-                    this.lengths.remove(e.getId());
-                } else {
-                    Edge e0 = triangle.getEdges().get(0);
-                    Edge e1 = triangle.getEdges().get(1);
-                    // test if all the vertices are on the border
-                    if (e0.getOV().isBorder() && e0.getEV().isBorder()
-                            && e1.getOV().isBorder() && e1.getEV().isBorder()) {
-                        this.shortLengths.put(e.getId(), e);
-                        this.lengths.remove(e.getId());
-                    } else {
-                        // management of triangles
-                        Triangle tA = neighbours.get(0);
-                        Triangle tB = neighbours.get(1);
-                        tA.setBorder(true); // FIXME not necessarily useful
-                        tB.setBorder(true); // FIXME not necessarily useful
-                        this.triangles.remove(triangle.getId());
-                        tA.removeNeighbour(triangle);
-                        tB.removeNeighbour(triangle);
-
-                        // new edges
-                        List<Edge> ee = triangle.getEdges();
-                        Edge eA = ee.get(0);
-                        Edge eB = ee.get(1);
-                        Edge eC = ee.get(2);
-
-                        if (eA.isBorder()) {
-                            this.edges.remove(eA.getId());
-                            eB.setBorder(true);
-                            eB.getOV().setBorder(true);
-                            eB.getEV().setBorder(true);
-                            eC.setBorder(true);
-                            eC.getOV().setBorder(true);
-                            eC.getEV().setBorder(true);
-
-                            // clean the relationships with the triangle
-                            eB.removeTriangle(triangle);
-                            eC.removeTriangle(triangle);
-
-                            if (eB.getGeometry().getLength() < this.threshold) {
-                                this.shortLengths.put(eB.getId(), eB);
-                            } else {
-                                this.lengths.put(eB.getId(), eB);
-                            }
-                            if (eC.getGeometry().getLength() < this.threshold) {
-                                this.shortLengths.put(eC.getId(), eC);
-                            } else {
-                                this.lengths.put(eC.getId(), eC);
-                            }
-                            this.lengths.remove(eA.getId());
-                        } else if (eB.isBorder()) {
-                            this.edges.remove(eB.getId());
-                            eA.setBorder(true);
-                            eA.getOV().setBorder(true);
-                            eA.getEV().setBorder(true);
-                            eC.setBorder(true);
-                            eC.getOV().setBorder(true);
-                            eC.getEV().setBorder(true);
-
-                            // clean the relationships with the triangle
-                            eA.removeTriangle(triangle);
-                            eC.removeTriangle(triangle);
-
-                            if (eA.getGeometry().getLength() < this.threshold) {
-                                this.shortLengths.put(eA.getId(), eA);
-                            } else {
-                                this.lengths.put(eA.getId(), eA);
-                            }
-                            if (eC.getGeometry().getLength() < this.threshold) {
-                                this.shortLengths.put(eC.getId(), eC);
-                            } else {
-                                this.lengths.put(eC.getId(), eC);
-                            }
-                            this.lengths.remove(eB.getId());
-                        } else {
-                            this.edges.remove(eC.getId());
-                            eA.setBorder(true);
-                            eA.getOV().setBorder(true);
-                            eA.getEV().setBorder(true);
-                            eB.setBorder(true);
-                            eB.getOV().setBorder(true);
-                            eB.getEV().setBorder(true);
-                            // clean the relationships with the triangle
-                            eA.removeTriangle(triangle);
-                            eB.removeTriangle(triangle);
-
-                            if (eA.getGeometry().getLength() < this.threshold) {
-                                this.shortLengths.put(eA.getId(), eA);
-                            } else {
-                                this.lengths.put(eA.getId(), eA);
-                            }
-                            if (eB.getGeometry().getLength() < this.threshold) {
-                                this.shortLengths.put(eB.getId(), eB);
-                            } else {
-                                this.lengths.put(eB.getId(), eB);
-                            }
-                            this.lengths.remove(eC.getId());
-                        }
-                    }
-                }
-            }
+    private void setBorder(int e) {
+        this.borderVertices[this.edgeVertices[2 * e]] = true;
+        this.borderVertices[this.edgeVertices[2 * e + 1]] = true;
+        if (this.edgeLengths[e] < this.threshold) {
+            this.edgeStates[e] = EDGE_SHORT;
+        } else {
+            this.edgeStates[e] = EDGE_LONG;
+            addLongEdge(e);
         }
+    }
 
-        // concave hull creation
-        List<LineString> tmpEdges = new ArrayList<>(this.lengths.size() + this.shortLengths.size());
-        for (Edge e : this.lengths.values()) {
-            LineString l = e.getGeometry().toGeometry(this.geomFactory);
-            tmpEdges.add(l);
+    private void addLongEdge(int e) {
+        int i = this.longEdgeCount++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (this.longEdges[parent] <= e)
+                break;
+            this.longEdges[i] = this.longEdges[parent];
+            i = parent;
         }
+        this.longEdges[i] = e;
+    }
 
-        for (Edge e : this.shortLengths.values()) {
-            LineString l = e.getGeometry().toGeometry(this.geomFactory);
-            tmpEdges.add(l);
+    private void removeLongEdge() {
+        int last = this.longEdges[--this.longEdgeCount];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= this.longEdgeCount)
+                break;
+            if (child + 1 < this.longEdgeCount && this.longEdges[child + 1] < this.longEdges[child])
+                child++;
+            if (last <= this.longEdges[child])
+                break;
+            this.longEdges[i] = this.longEdges[child];
+            i = child;
         }
+        this.longEdges[i] = last;
+    }
 
-        // merge
-        LineMerger lineMerger = new LineMerger();
-        lineMerger.add(tmpEdges);
-        LineString merge = (LineString) lineMerger.getMergedLineStrings().iterator().next();
-
-        if (merge.isRing()) {
-            LinearRing lr = new LinearRing(merge.getCoordinateSequence(), this.geomFactory);
-            return new Polygon(lr, null, this.geomFactory);
+    private void addBorderEdges(List<LineString> lines, byte state) {
+        for (int e = 0; e < this.edgeStates.length; e++) {
+            if (this.edgeStates[e] == state) {
+                Coordinate[] coordinates = {this.vertexCoordinates[this.edgeVertices[2 * e]], this.vertexCoordinates[this.edgeVertices[2 * e + 1]]};
+                lines.add(this.geomFactory.createLineString(coordinates));
+            }
         }
-
-        return merge;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package org.heigit.ors.fastisochrones;
 
+import com.carrotsearch.hppc.IntObjectMap;
 import com.carrotsearch.hppc.cursors.IntObjectCursor;
 import com.graphhopper.routing.SPTEntry;
 import com.graphhopper.routing.util.CarFlagEncoder;
@@ -14,10 +15,12 @@ import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSeque
 import org.heigit.ors.util.ToyGraphCreationUtil;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class FastIsochroneAlgorithmTest {
     private final CarFlagEncoder carEncoder = new CarFlagEncoder();
@@ -215,4 +218,109 @@ class FastIsochroneAlgorithmTest {
         expectedCellIds.add(3);
         assertEquals(expectedCellIds, cellIds);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSelectSmallerLimitMatchesSeparateSearch() {
+        GraphHopperStorage graphHopperStorage = ToyGraphCreationUtil.createMediumGraphWithAdditionalEdge(encodingManager);
+        Weighting shortestWeighting = new ShortestWeighting(carEncoder);
+        createMockStorages(graphHopperStorage);
+        Eccentricity ecc = new Eccentricity(graphHopperStorage, null, ins, cs);
+
+        ecc.loadExisting(shortestWeighting);
+        ecc.calcEccentricities(shortestWeighting, new EdgeFilterSequence(), carEncoder);
+        ecc.calcBorderNodeDistances(shortestWeighting, new EdgeFilterSequence(), carEncoder);
+        // from node 8, node 3 is settled through node 2 at weight 4. Node 2 is not expanded below limit 2, so node 3
+        // is then only reached from node 0 at weight 6
+        for (int from : new int[]{1, 8}) {
+            FastIsochroneAlgorithm multiRangeAlgorithm = new FastIsochroneAlgorithm(
+                    graphHopperStorage.getBaseGraph(),
+                    shortestWeighting,
+                    TraversalMode.NODE_BASED,
+                    cs,
+                    ins,
+                    ecc.getEccentricityStorage(shortestWeighting),
+                    ecc.getBorderNodeDistanceStorage(shortestWeighting),
+                    null);
+            multiRangeAlgorithm.setRecordRelaxations(true);
+            multiRangeAlgorithm.calcIsochroneNodes(from, 6);
+
+            for (double limit : new double[]{1.5, 3.5, 5.0, 5.5, 6.0}) {
+                FastIsochroneAlgorithm fastIsochroneAlgorithm = new FastIsochroneAlgorithm(
+                        graphHopperStorage.getBaseGraph(),
+                        shortestWeighting,
+                        TraversalMode.NODE_BASED,
+                        cs,
+                        ins,
+                        ecc.getEccentricityStorage(shortestWeighting),
+                        ecc.getBorderNodeDistanceStorage(shortestWeighting),
+                        null);
+                fastIsochroneAlgorithm.calcIsochroneNodes(from, limit);
+                multiRangeAlgorithm.selectIsochroneLimit(limit);
+
+                assertEquals(fastIsochroneAlgorithm.getFullyReachableCells(), multiRangeAlgorithm.getFullyReachableCells());
+                assertEquals(getNodeWeights(fastIsochroneAlgorithm.getStartCellMap()), getNodeWeights(multiRangeAlgorithm.getStartCellMap()));
+                assertEquals(fastIsochroneAlgorithm.getActiveCellMaps().keySet(), multiRangeAlgorithm.getActiveCellMaps().keySet());
+                for (int cell : fastIsochroneAlgorithm.getActiveCellMaps().keySet())
+                    assertEquals(getNodeWeights(fastIsochroneAlgorithm.getActiveCellMaps().get(cell)), getNodeWeights(multiRangeAlgorithm.getActiveCellMaps().get(cell)));
+            }
+
+            if (from == 8) {
+                multiRangeAlgorithm.selectIsochroneLimit(1.5);
+                assertEquals(6.0, multiRangeAlgorithm.getStartCellMap().get(3).weight, 1e-10);
+                assertEquals(0, multiRangeAlgorithm.getStartCellMap().get(3).parent.adjNode);
+            }
+        }
+    }
+
+    @Test
+    void testSearchLimitIsSelectedOnce() {
+        GraphHopperStorage graphHopperStorage = ToyGraphCreationUtil.createMediumGraphWithAdditionalEdge(encodingManager);
+        Weighting shortestWeighting = new ShortestWeighting(carEncoder);
+        createMockStorages(graphHopperStorage);
+        Eccentricity ecc = new Eccentricity(graphHopperStorage, null, ins, cs);
+
+        ecc.loadExisting(shortestWeighting);
+        ecc.calcEccentricities(shortestWeighting, new EdgeFilterSequence(), carEncoder);
+        ecc.calcBorderNodeDistances(shortestWeighting, new EdgeFilterSequence(), carEncoder);
+        FastIsochroneAlgorithm singleRangeAlgorithm = new FastIsochroneAlgorithm(
+                graphHopperStorage.getBaseGraph(),
+                shortestWeighting,
+                TraversalMode.NODE_BASED,
+                cs,
+                ins,
+                ecc.getEccentricityStorage(shortestWeighting),
+                ecc.getBorderNodeDistanceStorage(shortestWeighting),
+                null);
+        singleRangeAlgorithm.calcIsochroneNodes(1, 5.5);
+        // the search limit is already selected, so its active cells are not searched again
+        Map<Integer, IntObjectMap<SPTEntry>> activeCellMaps = singleRangeAlgorithm.getActiveCellMaps();
+        singleRangeAlgorithm.selectIsochroneLimit(5.5);
+        assertSame(activeCellMaps, singleRangeAlgorithm.getActiveCellMaps());
+        // without recorded relaxations only the search limit can be selected
+        assertThrows(IllegalStateException.class, () -> singleRangeAlgorithm.selectIsochroneLimit(3.5));
+
+        FastIsochroneAlgorithm multiRangeAlgorithm = new FastIsochroneAlgorithm(
+                graphHopperStorage.getBaseGraph(),
+                shortestWeighting,
+                TraversalMode.NODE_BASED,
+                cs,
+                ins,
+                ecc.getEccentricityStorage(shortestWeighting),
+                ecc.getBorderNodeDistanceStorage(shortestWeighting),
+                null);
+        multiRangeAlgorithm.setRecordRelaxations(true);
+        multiRangeAlgorithm.calcIsochroneNodes(1, 5.5);
+        // with recorded relaxations only the limits selected by the caller are searched
+        assertNull(multiRangeAlgorithm.getActiveCellMaps());
+        multiRangeAlgorithm.selectIsochroneLimit(5.5);
+        assertEquals(activeCellMaps.keySet(), multiRangeAlgorithm.getActiveCellMaps().keySet());
+        assertEquals(getNodeWeights(singleRangeAlgorithm.getStartCellMap()), getNodeWeights(multiRangeAlgorithm.getStartCellMap()));
+    }
+
+    private Map<Integer, Double> getNodeWeights(IntObjectMap<SPTEntry> entries) {
+        Map<Integer, Double> weights = new HashMap<>();
+        for (IntObjectCursor<SPTEntry> entry : entries)
+            weights.put(entry.key, entry.value.weight);
+        return weights;
+    }
+}
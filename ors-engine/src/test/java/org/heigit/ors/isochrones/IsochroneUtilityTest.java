@@ -0,0 +1,96 @@
+package org.heigit.ors.isochrones;
+
+import org.heigit.ors.common.Pair;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsochroneUtilityTest {
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    // maps of nested squares around the given centres, the squares of map 2 are far away from the others
+    private static IsochroneMapCollection createMaps() {
+        double[][] centres = {{0, 0}, {1.5, 0.5}, {10, 10}, {0.5, 1.5}};
+        IsochroneMapCollection maps = new IsochroneMapCollection();
+        for (int i = 0; i < centres.length; i++) {
+            IsochroneMap map = new IsochroneMap(i, new Coordinate(centres[i][0], centres[i][1]));
+            for (int range = 1; range <= 3; range++) {
+                Geometry square = FACTORY.toGeometry(new Envelope(
+                        centres[i][0] - range * 0.5, centres[i][0] + range * 0.5, centres[i][1] - range * 0.5, centres[i][1] + range * 0.5));
+                map.addIsochrone(new Isochrone(square, range, range * 0.5));
+            }
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    private static List<IsochronesIntersection> computeAllPairs(IsochroneMapCollection maps) {
+        List<IsochronesIntersection> result = new ArrayList<>();
+        for (int im = 0; im < maps.size(); im++) {
+            for (int ii = 0; ii < maps.getIsochrone(im).getIsochronesCount(); ii++) {
+                Geometry geometry = maps.getIsochrone(im).getIsochrone(ii).getGeometry();
+                for (int im2 = im + 1; im2 < maps.size(); im2++) {
+                    for (int ii2 = 0; ii2 < maps.getIsochrone(im2).getIsochronesCount(); ii2++) {
+                        Geometry intersection = geometry.intersection(maps.getIsochrone(im2).getIsochrone(ii2).getGeometry());
+                        if (!intersection.isEmpty()) {
+                            IsochronesIntersection isoIntersection = new IsochronesIntersection(intersection);
+                            isoIntersection.addContourRefs(new Pair<>(im, ii));
+                            isoIntersection.addContourRefs(new Pair<>(im2, ii2));
+                            result.add(isoIntersection);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void assertSameIntersections(List<IsochronesIntersection> expected, List<IsochronesIntersection> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getContourRefs(), actual.get(i).getContourRefs());
+            assertTrue(expected.get(i).getGeometry().equalsExact(actual.get(i).getGeometry()));
+        }
+    }
+
+    @Test
+    void testIntersectionsOfAllOverlappingPairs() {
+        IsochroneMapCollection maps = createMaps();
+        List<IsochronesIntersection> expected = computeAllPairs(maps);
+        List<IsochronesIntersection> result = IsochroneUtility.computeIntersections(maps);
+
+        assertFalse(result.isEmpty());
+        assertSameIntersections(expected, result);
+        for (IsochronesIntersection intersection : result) {
+            assertNotEquals(2, intersection.getContourRefs().get(0).first);
+            assertNotEquals(2, intersection.getContourRefs().get(1).first);
+        }
+    }
+
+    @Test
+    void testParallelIntersectionsMatchSequential() throws Exception {
+        IsochroneMapCollection maps = createMaps();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertSameIntersections(IsochroneUtility.computeIntersections(maps), IsochroneUtility.computeIntersections(maps, executor));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSingleMapHasNoIntersections() {
+        IsochroneMapCollection maps = new IsochroneMapCollection();
+        maps.add(createMaps().getIsochrone(0));
+        assertTrue(IsochroneUtility.computeIntersections(maps).isEmpty());
+    }
+}
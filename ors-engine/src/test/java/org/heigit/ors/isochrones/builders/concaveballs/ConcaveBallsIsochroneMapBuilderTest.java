@@ -0,0 +1,131 @@
+package org.heigit.ors.isochrones.builders.concaveballs;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.util.DistanceCalcEarth;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.GHUtility;
+import org.heigit.ors.common.TravelRangeType;
+import org.heigit.ors.isochrones.IsochroneMap;
+import org.heigit.ors.isochrones.IsochroneSearchParameters;
+import org.heigit.ors.routing.RouteSearchContext;
+import org.heigit.ors.routing.RouteSearchParameters;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcaveBallsIsochroneMapBuilderTest {
+    private static final int GRID_SIZE = 6;
+    private static final double GRID_LON = 8.68;
+    private static final double GRID_LAT = 49.41;
+    private static final double GRID_SPACING = 0.002;
+    private static final double[] RANGES = {200, 400, 600};
+    /**
+     * Isochrones of {@link #RANGES} around the centre of the grid, as built before the points of the intervals were
+     * collected concurrently.
+     */
+    private static final String[] BASELINE_ISOCHRONES = {
+            "POLYGON ((8.682235360848315 49.4138199, 8.682235360848315 49.4141799, 8.683819999999999 49.41514795515297, 8.68418 49.41514795515297, 8.68582 49.41514795515297, 8.68618 49.41514795515297, 8.687764639392789 49.4141799, 8.687764639392789 49.4138199, 8.68618 49.41285184445992, 8.68582 49.41285184445992, 8.68418 49.41285184445992, 8.683819999999999 49.41285184445992, 8.682235360848315 49.4138199))",
+            "POLYGON ((8.67982 49.41365554934174, 8.67982 49.4139999, 8.68182 49.415455103163644, 8.683819999999999 49.41694659653903, 8.68418 49.41694659653903, 8.68582 49.41694659653903, 8.68618 49.41694659653903, 8.6881799 49.415455173459094, 8.69018 49.4139999, 8.69018 49.41365555812417, 8.6881799 49.412354313376106, 8.68618 49.41105320439874, 8.68582 49.41105320439874, 8.68418 49.41105320439874, 8.683819999999999 49.41105320439874, 8.68182 49.41235437622535, 8.67982 49.41365554934174))",
+            "POLYGON ((8.67982 49.41185691026274, 8.68182 49.410555735766565, 8.683819999999999 49.4099999, 8.68418 49.4099999, 8.68582 49.4099999, 8.68618 49.4099999, 8.6881799 49.41055567271907, 8.69018 49.41185691904518, 8.69018 49.412, 8.69018 49.412499975, 8.69018 49.41299995, 8.69018 49.41365555812417, 8.69018 49.4139999, 8.69018 49.4149999, 8.69018 49.4154999, 8.69018 49.4159999, 8.69018 49.41614298973726, 8.68618 49.41874524083954, 8.68582 49.41874524083954, 8.68418 49.41874524083954, 8.683819999999999 49.41874524083954, 8.67982 49.416142999068605, 8.67982 49.4159999, 8.67982 49.4154999, 8.67982 49.4149999, 8.67982 49.4139999, 8.67982 49.41365554934174, 8.67982 49.41299995, 8.67982 49.412499975, 8.67982 49.412, 8.67982 49.41185691026274))"
+    };
+
+    private static RouteSearchContext searchContext;
+
+    /**
+     * Creates a grid of streets of about 150m x 220m blocks with one longer edge, so that both the detailed and the
+     * simple shapes of the edges are used.
+     */
+    @BeforeAll
+    static void createGraph() {
+        FlagEncoder encoder = new CarFlagEncoder();
+        EncodingManager encodingManager = EncodingManager.create(encoder);
+        GraphHopperStorage graph = new GraphBuilder(encodingManager).create();
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int column = 0; column < GRID_SIZE; column++)
+                nodeAccess.setNode(row * GRID_SIZE + column, GRID_LAT + row * GRID_SPACING, GRID_LON + column * GRID_SPACING);
+        }
+        DistanceCalcEarth distanceCalc = new DistanceCalcEarth();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int column = 0; column < GRID_SIZE; column++) {
+                int node = row * GRID_SIZE + column;
+                if (column + 1 < GRID_SIZE)
+                    addEdge(graph, encoder, distanceCalc, node, node + 1);
+                if (row + 1 < GRID_SIZE)
+                    addEdge(graph, encoder, distanceCalc, node, node + GRID_SIZE);
+            }
+        }
+        addEdge(graph, encoder, distanceCalc, 0, GRID_SIZE * GRID_SIZE - 1);
+
+        LocationIndexTree locationIndex = new LocationIndexTree(graph, new RAMDirectory());
+        locationIndex.prepareIndex();
+        searchContext = new RouteSearchContext(new ToyGraphHopper(graph, locationIndex), encoder, "car", "car_ch");
+    }
+
+    private static void addEdge(GraphHopperStorage graph, FlagEncoder encoder, DistanceCalcEarth distanceCalc, int from, int to) {
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        EdgeIteratorState edge = graph.edge(from, to).setDistance(distanceCalc.calcDist(nodeAccess.getLat(from), nodeAccess.getLon(from), nodeAccess.getLat(to), nodeAccess.getLon(to)));
+        GHUtility.setSpeed(50, true, true, encoder, edge);
+    }
+
+    private static IsochroneMap computeIsochrones(ExecutorService intervalExecutor) throws Exception {
+        Coordinate location = new Coordinate(GRID_LON + 2.5 * GRID_SPACING, GRID_LAT + 2.1 * GRID_SPACING);
+        IsochroneSearchParameters parameters = new IsochroneSearchParameters(0, location, RANGES);
+        parameters.setRangeType(TravelRangeType.DISTANCE);
+        parameters.setRouteParameters(new RouteSearchParameters());
+        parameters.setIntervalExecutor(intervalExecutor);
+        ConcaveBallsIsochroneMapBuilder builder = new ConcaveBallsIsochroneMapBuilder();
+        builder.initialize(searchContext);
+        return builder.compute(parameters);
+    }
+
+    @Test
+    void testSequentialIntervalsMatchBaseline() throws Exception {
+        assertBaselineIsochrones(computeIsochrones(null));
+    }
+
+    @Test
+    void testConcurrentIntervalsMatchBaseline() throws Exception {
+        ExecutorService intervalExecutor = Executors.newFixedThreadPool(RANGES.length);
+        try {
+            IsochroneMap concurrent = computeIsochrones(intervalExecutor);
+            assertBaselineIsochrones(concurrent);
+            IsochroneMap sequential = computeIsochrones(null);
+            for (int i = 0; i < RANGES.length; i++)
+                assertTrue(sequential.getIsochrone(i).getGeometry().equalsExact(concurrent.getIsochrone(i).getGeometry()));
+        } finally {
+            intervalExecutor.shutdownNow();
+        }
+    }
+
+    private static void assertBaselineIsochrones(IsochroneMap isochroneMap) throws Exception {
+        assertEquals(BASELINE_ISOCHRONES.length, isochroneMap.getIsochronesCount());
+        WKTReader reader = new WKTReader();
+        for (int i = 0; i < BASELINE_ISOCHRONES.length; i++) {
+            assertEquals(RANGES[i], isochroneMap.getIsochrone(i).getValue());
+            assertTrue(reader.read(BASELINE_ISOCHRONES[i]).equalsExact(isochroneMap.getIsochrone(i).getGeometry(), 1e-9),
+                    "isochrone " + i + " differs from the baseline: " + isochroneMap.getIsochrone(i).getGeometry());
+        }
+    }
+
+    private static class ToyGraphHopper extends GraphHopper {
+        ToyGraphHopper(GraphHopperStorage graph, LocationIndexTree locationIndex) {
+            setGraphHopperStorage(graph);
+            setLocationIndex(locationIndex);
+        }
+    }
+}
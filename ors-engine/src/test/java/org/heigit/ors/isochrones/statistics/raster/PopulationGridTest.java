@@ -0,0 +1,159 @@
+package org.heigit.ors.isochrones.statistics.raster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.plugins.tiff.TIFFDirectory;
+import javax.imageio.plugins.tiff.TIFFField;
+import javax.imageio.plugins.tiff.TIFFTag;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopulationGridTest {
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    @TempDir
+    Path tempDir;
+
+    // 4 x 4 cells of one degree between 0 and 4 degrees, numbered from 1 in the north west to 16 in the south east
+    private static PopulationGrid createGrid(Path gridFile) throws Exception {
+        return PopulationGrid.create(0, 4, 1, 1, 4, 4, (row, values) -> {
+            for (int col = 0; col < values.length; col++)
+                values[col] = row * 4 + col + 1;
+        }, gridFile);
+    }
+
+    private static Polygon createBox(double minX, double minY, double maxX, double maxY) {
+        return FACTORY.createPolygon(createRing(minX, minY, maxX, maxY));
+    }
+
+    private static LinearRing createRing(double minX, double minY, double maxX, double maxY) {
+        return FACTORY.createLinearRing(new Coordinate[]{
+                new Coordinate(minX, minY), new Coordinate(maxX, minY), new Coordinate(maxX, maxY),
+                new Coordinate(minX, maxY), new Coordinate(minX, minY)});
+    }
+
+    @Test
+    void testSumOfCellCentresInsidePolygon() throws Exception {
+        PopulationGrid grid = createGrid(null);
+
+        assertEquals(136, grid.getSum(createBox(-1, -1, 5, 5)), 1e-9);
+        // centres at 1.5 and 2.5 in both directions
+        assertEquals(6 + 7 + 10 + 11, grid.getSum(createBox(1, 1, 3, 3)), 1e-9);
+        assertEquals(1, grid.getSum(createBox(0.4, 3.4, 0.6, 3.6)), 1e-9);
+        assertEquals(0, grid.getSum(createBox(0.6, 3.6, 0.9, 3.9)), 1e-9);
+        assertEquals(0, grid.getSum(createBox(10, 10, 11, 11)), 1e-9);
+
+        Polygon triangle = FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(0, 0), new Coordinate(4, 0), new Coordinate(0, 4), new Coordinate(0, 0)});
+        // cells south west of the diagonal, the centre at 3.5, 0.5 on the diagonal is outside
+        assertEquals(13 + 14 + 15 + 9 + 10 + 5, grid.getSum(triangle), 1e-9);
+    }
+
+    @Test
+    void testHolesAndMultiPolygons() throws Exception {
+        PopulationGrid grid = createGrid(null);
+
+        Polygon withHole = FACTORY.createPolygon(createRing(0, 0, 4, 4), new LinearRing[]{createRing(1, 1, 3, 3)});
+        assertEquals(136 - 34, grid.getSum(withHole), 1e-9);
+
+        MultiPolygon multiPolygon = FACTORY.createMultiPolygon(new Polygon[]{createBox(0, 3, 1, 4), createBox(3, 0, 4, 1)});
+        assertEquals(1 + 16, grid.getSum(multiPolygon), 1e-9);
+    }
+
+    @Test
+    void testGridFileIsMappedAgain() throws Exception {
+        Path gridFile = tempDir.resolve("population.grid");
+        PopulationGrid created = createGrid(gridFile);
+        PopulationGrid loaded = PopulationGrid.load(gridFile);
+
+        assertEquals(4, loaded.getCols());
+        assertEquals(4, loaded.getRows());
+        Polygon box = createBox(1, 1, 3, 3);
+        assertEquals(created.getSum(box), loaded.getSum(box), 1e-9);
+        assertEquals(136, loaded.getSum(createBox(0, 0, 4, 4)), 1e-9);
+
+        Path invalidFile = tempDir.resolve("invalid.grid");
+        Files.writeString(invalidFile, "not a grid");
+        assertThrows(IOException.class, () -> PopulationGrid.load(invalidFile));
+    }
+
+    @Test
+    void testFailedReadLeavesNoGridFile() throws Exception {
+        Path gridFile = tempDir.resolve("population.grid");
+        PopulationGrid.RowReader failingReader = (row, values) -> {
+            if (row == 2)
+                throw new IOException("corrupt row");
+            Arrays.fill(values, 1);
+        };
+        assertThrows(IOException.class, () -> PopulationGrid.create(0, 4, 1, 1, 4, 4, failingReader, gridFile));
+        assertFalse(Files.exists(gridFile));
+
+        createGrid(gridFile);
+        assertThrows(IOException.class, () -> PopulationGrid.create(0, 4, 1, 1, 4, 4, failingReader, gridFile));
+        assertEquals(136, PopulationGrid.load(gridFile).getSum(createBox(0, 0, 4, 4)), 1e-9);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(gridFile), files.toList());
+        }
+    }
+
+    @Test
+    void testInvalidValuesCountAsZero() throws Exception {
+        PopulationGrid grid = PopulationGrid.create(0, 1, 1, 1, 3, 1, (row, values) -> {
+            values[0] = 5;
+            values[1] = Double.NaN;
+            values[2] = -200;
+        }, null);
+        assertEquals(5, grid.getSum(createBox(0, 0, 3, 1)), 1e-9);
+    }
+
+    @Test
+    void testReadGeoTiff() throws Exception {
+        int cols = 4;
+        int rows = 2;
+        ComponentColorModel colorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_GRAY), false, false, ColorModel.OPAQUE, DataBuffer.TYPE_FLOAT);
+        WritableRaster raster = colorModel.createCompatibleWritableRaster(cols, rows);
+        raster.setSamples(0, 0, cols, rows, 0, new float[]{1, 2, 3, -9999, 5, 6, 7, 8});
+        BufferedImage image = new BufferedImage(colorModel, raster, false, null);
+
+        Path tiffFile = tempDir.resolve("population.tif");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), writer.getDefaultWriteParam());
+        TIFFDirectory directory = TIFFDirectory.createFromMetadata(metadata);
+        // cells of 0.5 degrees with the north west corner at 8, 50
+        directory.addTIFFField(new TIFFField(new TIFFTag("ModelPixelScale", 33550, 1 << TIFFTag.TIFF_DOUBLE), TIFFTag.TIFF_DOUBLE, 3, new double[]{0.5, 0.5, 0}));
+        directory.addTIFFField(new TIFFField(new TIFFTag("ModelTiepoint", 33922, 1 << TIFFTag.TIFF_DOUBLE), TIFFTag.TIFF_DOUBLE, 6, new double[]{0, 0, 0, 8, 50, 0}));
+        directory.addTIFFField(new TIFFField(new TIFFTag("GeoKeyDirectory", 34735, 1 << TIFFTag.TIFF_SHORT), TIFFTag.TIFF_SHORT, 8, new char[]{1, 1, 0, 1, 1024, 0, 1, 2}));
+        directory.addTIFFField(new TIFFField(new TIFFTag("GDAL_NODATA", 42113, 1 << TIFFTag.TIFF_ASCII), TIFFTag.TIFF_ASCII, 1, new String[]{"-9999"}));
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(tiffFile.toFile())) {
+            writer.setOutput(output);
+            writer.write(new IIOImage(image, null, directory.getAsMetadata()));
+        } finally {
+            writer.dispose();
+        }
+
+        Path gridFile = tempDir.resolve("population.grid");
+        PopulationGrid grid = PopulationGrid.readGeoTiff(tiffFile, gridFile);
+        assertEquals(cols, grid.getCols());
+        assertEquals(rows, grid.getRows());
+        assertEquals(1 + 2 + 3 + 5 + 6 + 7 + 8, grid.getSum(createBox(8, 49, 10, 50)), 1e-6);
+        // the second row has its centres at latitude 49.25
+        assertEquals(6 + 7, grid.getSum(createBox(8.5, 49, 9.5, 49.5)), 1e-6);
+        assertEquals(grid.getSum(createBox(8, 49, 9, 50)), PopulationGrid.load(gridFile).getSum(createBox(8, 49, 9, 50)), 1e-6);
+    }
+}
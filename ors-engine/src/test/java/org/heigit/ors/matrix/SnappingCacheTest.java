@@ -0,0 +1,66 @@
+package org.heigit.ors.matrix;
+
+import com.graphhopper.storage.index.Snap;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnappingCacheTest {
+
+    @Test
+    void testCachedLookupReturnsFreshSnap() {
+        SnappingCache cache = new SnappingCache(10, 0);
+        assertNull(cache.get("car|fastest", 49.4, 8.6, null));
+        assertEquals(1, cache.getMisses());
+
+        Snap snap = new Snap(49.4, 8.6);
+        cache.put("car|fastest", 49.4, 8.6, snap);
+
+        Snap cached = cache.get("car|fastest", 49.40000001, 8.6, null);
+        assertNotNull(cached);
+        assertNotSame(snap, cached);
+        assertFalse(cached.isValid());
+        assertEquals(1, cache.getHits());
+
+        assertNull(cache.get("car|shortest", 49.4, 8.6, null));
+        assertNull(cache.get("car|fastest", 49.41, 8.6, null));
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        SnappingCache cache = new SnappingCache(2, 0);
+        cache.put("car", 1, 1, new Snap(1, 1));
+        cache.put("car", 2, 2, new Snap(2, 2));
+        assertNotNull(cache.get("car", 1, 1, null));
+        cache.put("car", 3, 3, new Snap(3, 3));
+
+        assertEquals(2, cache.getSize());
+        assertNotNull(cache.get("car", 1, 1, null));
+        assertNull(cache.get("car", 2, 2, null));
+        assertNotNull(cache.get("car", 3, 3, null));
+    }
+
+    @Test
+    void testExpiredEntryIsRemoved() {
+        AtomicLong now = new AtomicLong(1000);
+        SnappingCache cache = new SnappingCache(10, 100, now::get);
+        cache.put("car", 1, 1, new Snap(1, 1));
+        now.addAndGet(100);
+        assertNotNull(cache.get("car", 1, 1, null));
+        now.addAndGet(1);
+        assertNull(cache.get("car", 1, 1, null));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testEntriesDoNotExpireWithoutTimeToLive() {
+        AtomicLong now = new AtomicLong(1000);
+        SnappingCache cache = new SnappingCache(10, 0, now::get);
+        cache.put("car", 1, 1, new Snap(1, 1));
+        now.addAndGet(Long.MAX_VALUE / 2);
+        assertNotNull(cache.get("car", 1, 1, null));
+    }
+}
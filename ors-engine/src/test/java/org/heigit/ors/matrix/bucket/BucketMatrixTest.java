@@ -0,0 +1,150 @@
+package org.heigit.ors.matrix.bucket;
+
+import com.graphhopper.routing.ch.PrepareContractionHierarchies;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHConfig;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RoutingCHGraph;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.MatrixAlgorithmFactory;
+import org.heigit.ors.matrix.algorithms.bucket.BucketMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
+import org.heigit.ors.routing.algorithms.BucketManyToManyAlgorithm;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import static com.graphhopper.routing.weighting.Weighting.INFINITE_U_TURN_COSTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketMatrixTest {
+    private static final float[] EXPECTED = new float[]{
+            0.0f, 1.0f, 1.0f, 3.0f, 5.0f, 5.0f, 6.0f, 4.0f, 1.0f,
+            1.0f, 0.0f, 1.0f, 3.0f, 5.0f, 6.0f, 6.0f, 5.0f, 2.0f,
+            1.0f, 1.0f, 0.0f, 2.0f, 4.0f, 5.0f, 5.0f, 5.0f, 2.0f,
+            3.0f, 3.0f, 2.0f, 0.0f, 2.0f, 3.0f, 3.0f, 4.0f, 4.0f,
+            5.0f, 5.0f, 4.0f, 2.0f, 0.0f, 1.0f, 1.0f, 2.0f, 5.0f,
+            5.0f, 6.0f, 5.0f, 3.0f, 1.0f, 0.0f, 2.0f, 1.0f, 4.0f,
+            6.0f, 6.0f, 5.0f, 3.0f, 1.0f, 2.0f, 0.0f, 2.0f, 5.0f,
+            4.0f, 5.0f, 5.0f, 4.0f, 2.0f, 1.0f, 2.0f, 0.0f, 3.0f,
+            1.0f, 2.0f, 2.0f, 4.0f, 5.0f, 4.0f, 5.0f, 3.0f, 0.0f
+    };
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder().setSpeedTwoDirections(true);
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private final Weighting weighting = new ShortestWeighting(carEncoder);
+    private final CHConfig chConfig = CHConfig.nodeBased("c", weighting);
+    private GraphHopperStorage g;
+    private RoutingCHGraph routingCHGraph;
+
+    @BeforeEach
+    void setUp() {
+        g = new GraphBuilder(encodingManager).setCHConfigs(chConfig).create();
+        routingCHGraph = g.getRoutingCHGraph();
+        ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
+        g.freeze();
+        PrepareContractionHierarchies.fromGraphHopperStorage(g, chConfig).doWork();
+    }
+
+    @Test
+    void testManyToMany() {
+        BucketManyToManyAlgorithm algorithm = new BucketManyToManyAlgorithm(routingCHGraph);
+        int[] dstIds = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8};
+        algorithm.prepare(dstIds);
+        for (int i = 0; i < 9; i++) {
+            algorithm.calcPaths(i);
+            for (int j = 0; j < 9; j++)
+                assertEquals(EXPECTED[i * 9 + j], algorithm.getWeight(j), 1e-6);
+        }
+    }
+
+    @Test
+    void testMatrixDistances() throws Exception {
+        MatrixRequest matrixRequest = new MatrixRequest(2000, 50000, INFINITE_U_TURN_COSTS);
+        matrixRequest.setMetrics(MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT);
+        MatrixLocations sources = new MatrixLocations(10);
+        for (int i = 0; i < 9; i++)
+            sources.setData(i, i, null);
+        sources.setData(9, -1, null);
+        MatrixLocations destinations = new MatrixLocations(9);
+        for (int i = 0; i < 9; i++)
+            destinations.setData(i, i, null);
+
+        BucketMatrixAlgorithm algorithm = new BucketMatrixAlgorithm();
+        algorithm.init(matrixRequest, null, routingCHGraph, carEncoder, weighting);
+        MatrixResult result = algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+        float[] distances = result.getTable(MatrixMetricsType.DISTANCE);
+        float[] weights = result.getTable(MatrixMetricsType.WEIGHT);
+        for (int i = 0; i < EXPECTED.length; i++) {
+            assertEquals(EXPECTED[i], distances[i], 1e-6);
+            assertEquals(EXPECTED[i], weights[i], 1e-6);
+        }
+        for (int i = EXPECTED.length; i < distances.length; i++)
+            assertEquals(-1.0, distances[i], 0);
+    }
+
+    @Test
+    void testOneWayGraphMatchesRPHAST() throws Exception {
+        GraphHopperStorage oneWayGraph = new GraphBuilder(encodingManager).setCHConfigs(chConfig).create();
+        ToyGraphCreationUtil.createOneWayGraph(oneWayGraph, encodingManager);
+        oneWayGraph.freeze();
+        PrepareContractionHierarchies.fromGraphHopperStorage(oneWayGraph, chConfig).doWork();
+        RoutingCHGraph oneWayCHGraph = oneWayGraph.getRoutingCHGraph();
+
+        MatrixRequest matrixRequest = new MatrixRequest(2000, 50000, INFINITE_U_TURN_COSTS);
+        matrixRequest.setMetrics(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT);
+        MatrixLocations sources = new MatrixLocations(6);
+        MatrixLocations destinations = new MatrixLocations(6);
+        for (int i = 0; i < 6; i++) {
+            sources.setData(i, i, null);
+            destinations.setData(i, i, null);
+        }
+
+        RPHASTMatrixAlgorithm rphastAlgorithm = new RPHASTMatrixAlgorithm();
+        rphastAlgorithm.init(matrixRequest, null, oneWayCHGraph, carEncoder, weighting);
+        MatrixResult expected = rphastAlgorithm.compute(sources, destinations, matrixRequest.getMetrics());
+        BucketMatrixAlgorithm algorithm = new BucketMatrixAlgorithm();
+        algorithm.init(matrixRequest, null, oneWayCHGraph, carEncoder, weighting);
+        MatrixResult result = algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+        float[] durations = result.getTable(MatrixMetricsType.DURATION);
+        float[] distances = result.getTable(MatrixMetricsType.DISTANCE);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.DURATION), durations, 1e-3f);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), distances, 1e-6f);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), result.getTable(MatrixMetricsType.WEIGHT), 1e-6f);
+        // 0 to 1 is a single one-way edge, 1 to 0 goes back through 4 and 3
+        assertEquals(1.0, distances[1], 1e-6);
+        assertEquals(4.0, distances[6], 1e-6);
+        // 1 to 4 is the faster direction of edge 7
+        assertEquals(distances[1 * 6 + 4], distances[4 * 6 + 1], 1e-6);
+        assertTrue(durations[1 * 6 + 4] < durations[4 * 6 + 1]);
+    }
+
+    @Test
+    void testMaxVisitedNodesExceededException() {
+        BucketManyToManyAlgorithm algorithm = new BucketManyToManyAlgorithm(routingCHGraph);
+        algorithm.setMaxVisitedNodes(10);
+        assertThrows(MaxVisitedNodesExceededException.class, () -> algorithm.prepare(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test
+    void testCostModel() {
+        Coordinate[] nearby = new Coordinate[]{new Coordinate(8.68, 49.41), new Coordinate(8.69, 49.42)};
+        assertFalse(MatrixAlgorithmFactory.isBucketAlgorithmPreferred(nearby, nearby));
+
+        Coordinate[] source = new Coordinate[]{new Coordinate(8.68, 49.41)};
+        Coordinate[] distantTargets = new Coordinate[50];
+        for (int i = 0; i < distantTargets.length; i++)
+            distantTargets[i] = new Coordinate(6 + i * 0.1, 48 + i * 0.05);
+        assertTrue(MatrixAlgorithmFactory.isBucketAlgorithmPreferred(source, distantTargets));
+    }
+}
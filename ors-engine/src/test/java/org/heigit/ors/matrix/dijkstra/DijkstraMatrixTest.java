@@ -0,0 +1,61 @@
+package org.heigit.ors.matrix.dijkstra;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.GraphHopperStorage;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.graphhopper.routing.weighting.Weighting.INFINITE_U_TURN_COSTS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DijkstraMatrixTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder().setSpeedTwoDirections(true);
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private final Weighting weighting = new ShortestWeighting(carEncoder);
+
+    @Test
+    void testParallelSourcesMatchSequentialSearch() throws Exception {
+        GraphHopperStorage g = ToyGraphCreationUtil.createMediumGraph(encodingManager);
+        MatrixRequest matrixRequest = new MatrixRequest(2000, 50000, INFINITE_U_TURN_COSTS);
+        matrixRequest.setMetrics(MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT);
+
+        MatrixLocations sources = new MatrixLocations(10);
+        for (int i = 0; i < 9; i++)
+            sources.setData(i, i, null);
+        sources.setData(9, -1, null);
+        MatrixLocations destinations = new MatrixLocations(4);
+        for (int i = 0; i < 4; i++)
+            destinations.setData(i, i + 4, null);
+
+        DijkstraMatrixAlgorithm algorithm = new DijkstraMatrixAlgorithm();
+        algorithm.init(matrixRequest, null, g.getBaseGraph(), carEncoder, weighting);
+        MatrixResult expected = algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            algorithm = new DijkstraMatrixAlgorithm();
+            algorithm.init(matrixRequest, null, g.getBaseGraph(), carEncoder, weighting);
+            algorithm.setExecutor(executor, 2);
+            MatrixResult result = algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+            assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), result.getTable(MatrixMetricsType.DISTANCE), 0);
+            assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), result.getTable(MatrixMetricsType.WEIGHT), 0);
+            assertEquals(6.0, result.getTable(MatrixMetricsType.DISTANCE)[4 + 1], 0);
+            assertEquals(-1.0, result.getTable(MatrixMetricsType.DISTANCE)[9 * 4], 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -9,13 +9,26 @@ import com.graphhopper.routing.weighting.ShortestWeighting;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.*;
 import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
+import org.heigit.ors.routing.algorithms.MultiTreeSPState;
 import org.heigit.ors.routing.algorithms.RPHASTAlgorithm;
+import org.heigit.ors.routing.algorithms.SearchWorkspacePool;
 import org.heigit.ors.routing.graphhopper.extensions.storages.MultiTreeSPEntry;
 import org.heigit.ors.util.DebugUtility;
 import org.heigit.ors.util.ToyGraphCreationUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.graphhopper.routing.weighting.Weighting.INFINITE_U_TURN_COSTS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -143,6 +156,31 @@ class RPHASTMatrixTest {
         }
     }
 
+    @Test
+    void testManyToManySearchState() {
+        ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
+        PrepareContractionHierarchies prepare = createPrepareContractionHierarchies(g);
+        prepare.doWork();
+        RPHASTAlgorithm algorithm = new RPHASTAlgorithm(routingCHGraph, weighting,
+                TraversalMode.NODE_BASED);
+        int[] srcIds = new int[]{0, 4, 8};
+        int[] dstIds = new int[]{1, 5, 7};
+        algorithm.prepare(srcIds, dstIds);
+        int[] destSlots = algorithm.calcPathSlots(srcIds, dstIds);
+        MultiTreeSPState state = algorithm.getSearchState();
+        float[] expected = new float[]{
+                1.0f, 5.0f, 4.0f,
+                5.0f, 1.0f, 2.0f,
+                2.0f, 4.0f, 3.0f
+        };
+        for (int i = 0; i < srcIds.length; i++) {
+            for (int j = 0; j < dstIds.length; j++) {
+                assertEquals(dstIds[j], state.getNode(destSlots[j]));
+                assertEquals(expected[i * 3 + j], state.getWeight(destSlots[j], i), 1e-6);
+            }
+        }
+    }
+
     @Test
     void testMaxVisitedNodesExceededException() {
         ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
@@ -156,6 +194,83 @@ class RPHASTMatrixTest {
         assertThrows(MaxVisitedNodesExceededException.class, () -> algorithm.calcPaths(srcIds, dstIds));
     }
 
+    @Test
+    void testTiledMatrixMatchesSinglePass() throws Exception {
+        ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
+        PrepareContractionHierarchies prepare = createPrepareContractionHierarchies(g);
+        prepare.doWork();
+        MatrixRequest matrixRequest = new MatrixRequest(2000, 50000, INFINITE_U_TURN_COSTS);
+        matrixRequest.setMetrics(MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT);
+        MatrixLocations sources = new MatrixLocations(100);
+        for (int i = 0; i < 100; i++)
+            sources.setData(i, i % 10 == 9 ? -1 : i % 9, null);
+        MatrixLocations destinations = new MatrixLocations(5);
+        for (int i = 0; i < 5; i++)
+            destinations.setData(i, i * 2, null);
+
+        RPHASTMatrixAlgorithm algorithm = new RPHASTMatrixAlgorithm();
+        algorithm.init(matrixRequest, null, routingCHGraph, carEncoder, weighting);
+        MatrixResult expected = algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            algorithm = new RPHASTMatrixAlgorithm();
+            algorithm.init(matrixRequest, null, routingCHGraph, carEncoder, weighting);
+            algorithm.setExecutor(executor, 3);
+            SearchWorkspacePool pool = new SearchWorkspacePool(3, 0, 200);
+            algorithm.setSearchWorkspacePool(pool);
+            MatrixResult result = algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+            // one workspace is borrowed for each of the three threads
+            assertEquals(3, pool.getHits() + pool.getMisses());
+
+            assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), result.getTable(MatrixMetricsType.DISTANCE), 0);
+            assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), result.getTable(MatrixMetricsType.WEIGHT), 0);
+            assertEquals(5.0, result.getTable(MatrixMetricsType.DISTANCE)[5 * 40], 0);
+            assertEquals(-1.0, result.getTable(MatrixMetricsType.DISTANCE)[5 * 99], 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTiledMatrixSharesMaxVisitedNodes() throws Exception {
+        ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
+        PrepareContractionHierarchies prepare = createPrepareContractionHierarchies(g);
+        prepare.doWork();
+        int[] srcIds = new int[100];
+        MatrixLocations sources = new MatrixLocations(100);
+        for (int i = 0; i < 100; i++) {
+            srcIds[i] = i % 9;
+            sources.setData(i, srcIds[i], null);
+        }
+        int[] dstIds = new int[]{0, 2, 4, 6, 8};
+        MatrixLocations destinations = new MatrixLocations(5);
+        for (int i = 0; i < 5; i++)
+            destinations.setData(i, dstIds[i], null);
+
+        // the limit allows the search of a full tile of 32 sources or of all sources at once, but not of all four tiles
+        int[] tileIds = Arrays.copyOf(srcIds, 32);
+        RPHASTAlgorithm tileSearch = new RPHASTAlgorithm(routingCHGraph, weighting, TraversalMode.NODE_BASED);
+        tileSearch.prepare(tileIds, dstIds);
+        tileSearch.calcPaths(tileIds, dstIds);
+        MatrixRequest matrixRequest = new MatrixRequest(2000, tileSearch.getVisitedNodes(), INFINITE_U_TURN_COSTS);
+        matrixRequest.setMetrics(MatrixMetricsType.DISTANCE);
+
+        RPHASTMatrixAlgorithm algorithm = new RPHASTMatrixAlgorithm();
+        algorithm.init(matrixRequest, null, routingCHGraph, carEncoder, weighting);
+        algorithm.compute(sources, destinations, matrixRequest.getMetrics());
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            RPHASTMatrixAlgorithm tiledAlgorithm = new RPHASTMatrixAlgorithm();
+            tiledAlgorithm.init(matrixRequest, null, routingCHGraph, carEncoder, weighting);
+            tiledAlgorithm.setExecutor(executor, 3);
+            assertThrows(MaxVisitedNodesExceededException.class, () -> tiledAlgorithm.compute(sources, destinations, matrixRequest.getMetrics()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
     private PrepareContractionHierarchies createPrepareContractionHierarchies(GraphHopperStorage g) {
         return createPrepareContractionHierarchies(g, chConfig);
@@ -0,0 +1,125 @@
+package org.heigit.ors.routing;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.util.GHUtility;
+import com.graphhopper.util.shapes.BBox;
+import org.heigit.ors.export.ExportRequest;
+import org.heigit.ors.export.ExportResult;
+import org.heigit.ors.export.ExportWarning;
+import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingProfileTest {
+    @TempDir
+    Path graphPath;
+
+    private RouteProfileConfiguration createConfig(String graphDataAccess) {
+        RouteProfileConfiguration config = new RouteProfileConfiguration();
+        config.setGraphPath(graphPath.toString());
+        if (graphDataAccess != null)
+            config.setGraphDataAccess(graphDataAccess);
+        return config;
+    }
+
+    @Test
+    void testGraphDataAccessPerProfile() {
+        assertEquals("RAM_STORE", RoutingProfile.getGraphDataAccess(createConfig(null)));
+        assertEquals("MMAP", RoutingProfile.getGraphDataAccess(createConfig("MMAP")));
+        assertEquals("RAM_STORE", RoutingProfile.getGraphDataAccess(createConfig("RAM_STORE")));
+    }
+
+    @Test
+    void testReadOnlyGraphDataAccessBuildsMissingGraphWritable() throws Exception {
+        assertEquals("MMAP", RoutingProfile.getGraphDataAccess(createConfig("MMAP_RO")));
+
+        Files.createFile(graphPath.resolve("properties"));
+        assertEquals("MMAP_RO", RoutingProfile.getGraphDataAccess(createConfig("MMAP_RO")));
+    }
+
+    private ExportResult computeExport(BBox bbox) {
+        CarFlagEncoder encoder = new CarFlagEncoder();
+        GraphHopperStorage graph = ToyGraphCreationUtil.createMediumGraph(EncodingManager.create(encoder));
+        // a second, longer edge between 0 and 1, the node pair is exported once with the edge iterated last
+        GHUtility.setSpeed(60, 60, encoder, graph.edge(0, 1).setDistance(3));
+        LocationIndexTree index = new LocationIndexTree(graph, new RAMDirectory());
+        index.prepareIndex();
+
+        ExportRequest req = new ExportRequest();
+        req.setBoundingBox(bbox);
+        req.setDebug(true);
+        return RoutingProfile.computeExport(req, graph.getBaseGraph(), index, new ShortestWeighting(encoder), encoder, null, null);
+    }
+
+    @Test
+    void testExportNodesAndEdgesInBoundingBox() {
+        // nodes 5 and 7 are east of the bounding box
+        ExportResult res = computeExport(new BBox(0.5, 4.5, 0.5, 4.5));
+
+        assertFalse(res.hasWarning());
+        Map<Integer, Coordinate> nodes = new HashMap<>();
+        for (int i = 0; i < res.getLocationCount(); i++)
+            assertNull(nodes.put(res.getLocationNode(i), res.getLocation(i)), "node exported twice");
+        Map<Integer, Coordinate> expectedNodes = Map.of(
+                0, new Coordinate(3, 3),
+                1, new Coordinate(1, 1),
+                2, new Coordinate(1, 3),
+                3, new Coordinate(2, 4),
+                4, new Coordinate(4, 4),
+                6, new Coordinate(4, 3),
+                8, new Coordinate(4, 1));
+        assertEquals(expectedNodes, nodes);
+
+        Map<String, Double> weights = new HashMap<>();
+        Map<String, Map<String, Object>> extras = new HashMap<>();
+        for (int i = 0; i < res.getEdgeCount(); i++) {
+            String nodePair = res.getEdgeFrom(i) + "-" + res.getEdgeTo(i);
+            assertNull(weights.put(nodePair, res.getEdgeWeight(i)), "node pair exported twice");
+            extras.put(nodePair, res.getEdgeExtra(i));
+        }
+        Map<String, Double> expectedWeights = new HashMap<>();
+        Map<String, Map<String, Object>> expectedExtras = new HashMap<>();
+        addExpectedEdge(expectedWeights, expectedExtras, 0, 1, 1, 0);
+        addExpectedEdge(expectedWeights, expectedExtras, 0, 2, 1, 1);
+        addExpectedEdge(expectedWeights, expectedExtras, 0, 3, 5, 2);
+        addExpectedEdge(expectedWeights, expectedExtras, 0, 8, 1, 3);
+        addExpectedEdge(expectedWeights, expectedExtras, 1, 2, 1, 4);
+        addExpectedEdge(expectedWeights, expectedExtras, 1, 8, 2, 5);
+        addExpectedEdge(expectedWeights, expectedExtras, 2, 3, 2, 6);
+        addExpectedEdge(expectedWeights, expectedExtras, 3, 4, 2, 7);
+        addExpectedEdge(expectedWeights, expectedExtras, 4, 6, 1, 9);
+        assertEquals(expectedWeights, weights);
+        assertEquals(expectedExtras, extras);
+    }
+
+    private static void addExpectedEdge(Map<String, Double> weights, Map<String, Map<String, Object>> extras, int from, int to, double weight, int edgeId) {
+        weights.put(from + "-" + to, weight);
+        weights.put(to + "-" + from, weight);
+        extras.put(from + "-" + to, Map.of("edge_id", edgeId));
+        extras.put(to + "-" + from, Map.of("edge_id", edgeId));
+    }
+
+    @Test
+    void testExportEmptyBoundingBox() {
+        ExportResult res = computeExport(new BBox(10, 11, 10, 11));
+
+        assertTrue(res.hasWarning());
+        assertEquals(ExportWarning.EMPTY_BBOX, res.getWarning().getWarningCode());
+        assertEquals(0, res.getLocationCount());
+        assertEquals(0, res.getEdgeCount());
+    }
+}
@@ -0,0 +1,61 @@
+package org.heigit.ors.routing.algorithms;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchWorkspacePoolTest {
+
+    @Test
+    void testReleasedWorkspaceIsReused() {
+        SearchWorkspacePool pool = new SearchWorkspacePool(1, 0, 16);
+        SearchWorkspace workspace = pool.borrow();
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        workspace.getSearchState().init(2);
+        workspace.getSearchState().createSlot(42);
+        workspace.getPrioQueue().update(0, 1.0);
+        pool.release(workspace);
+
+        SearchWorkspace reused = pool.borrow();
+        assertSame(workspace, reused);
+        assertEquals(1, pool.getHits());
+        assertEquals(-1, reused.getSearchState().getSlot(42));
+        assertEquals(0, reused.getSearchState().getSize());
+        assertTrue(reused.getPrioQueue().isEmpty());
+    }
+
+    @Test
+    void testExhaustedPoolFallsBackToTemporaryWorkspace() {
+        SearchWorkspacePool pool = new SearchWorkspacePool(1, 0, 16);
+        SearchWorkspace first = pool.borrow();
+        SearchWorkspace second = pool.borrow();
+        assertNotSame(first, second);
+        assertEquals(2, pool.getMisses());
+
+        pool.release(first);
+        pool.release(second);
+        assertSame(first, pool.borrow());
+    }
+
+    @Test
+    void testGrownWorkspaceIsReplaced() {
+        SearchWorkspacePool pool = new SearchWorkspacePool(1, 0, 16, 1000);
+        SearchWorkspace small = pool.borrow();
+        small.getSearchState().init(2);
+        small.getSearchState().createSlot(1);
+        pool.release(small);
+        assertSame(small, pool.borrow());
+
+        small.getSearchState().init(100);
+        small.getSearchState().createSlot(1);
+        assertTrue(small.getSearchState().getTreeCapacity() > 1000);
+        pool.release(small);
+
+        SearchWorkspace replaced = pool.borrow();
+        assertNotSame(small, replaced);
+        assertEquals(0, replaced.getSearchState().getTreeCapacity());
+        assertEquals(1, pool.getMisses());
+    }
+}
@@ -0,0 +1,85 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.GHRequest;
+import com.graphhopper.GHResponse;
+import com.graphhopper.config.Profile;
+import com.graphhopper.routing.DefaultWeightingFactory;
+import com.graphhopper.routing.RouterConfig;
+import com.graphhopper.routing.ev.Subnetwork;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.util.GHUtility;
+import com.graphhopper.util.PointList;
+import com.graphhopper.util.TranslationMap;
+import com.graphhopper.util.details.PathDetailsBuilderFactory;
+import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ORSRouterTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.start().add(carEncoder).add(Subnetwork.create("car")).build();
+    private ORSRouter router;
+
+    /**
+     * Creates a single edge whose pillar nodes are less than the default way point max distance of 1m off the line
+     * between its tower nodes, so that the simplification removes them.
+     */
+    @BeforeEach
+    void setUp() {
+        GraphHopperStorage graph = new GraphBuilder(encodingManager).create();
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        nodeAccess.setNode(0, 49.0, 8.0);
+        nodeAccess.setNode(1, 49.0, 8.01);
+        PointList pillarNodes = new PointList();
+        pillarNodes.add(49.000001, 8.0025);
+        pillarNodes.add(49.0, 8.005);
+        pillarNodes.add(49.000001, 8.0075);
+        GHUtility.setSpeed(60, 60, carEncoder, graph.edge(0, 1).setDistance(730).setWayGeometry(pillarNodes));
+
+        LocationIndexTree locationIndex = new LocationIndexTree(graph, new RAMDirectory());
+        locationIndex.prepareIndex();
+        Profile profile = new Profile("car").setVehicle("car").setWeighting("fastest");
+        router = new ORSRouter(graph, locationIndex, Map.of("car", profile), new PathDetailsBuilderFactory(), new TranslationMap().doImport(),
+                new RouterConfig(), new DefaultWeightingFactory(graph, encodingManager), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    private int routePoints(Boolean simplifyGeometry) {
+        GHRequest request = new GHRequest(49.0, 8.0, 49.0, 8.01).setProfile("car");
+        if (simplifyGeometry != null)
+            request.getHints().putObject(ORSParameters.Routing.SIMPLIFY_GEOMETRY, simplifyGeometry);
+        GHResponse response = router.route(request);
+        assertFalse(response.hasErrors(), response.getErrors().toString());
+        return response.getBest().getPoints().size();
+    }
+
+    @Test
+    void testSimplifyGeometryHint() {
+        assertEquals(2, routePoints(true));
+        assertEquals(5, routePoints(false));
+    }
+
+    @Test
+    void testGeometryNotSimplifiedByDefault() {
+        assertEquals(5, routePoints(null));
+    }
+
+    @Test
+    void testSimplifyGeometryPerRequest() {
+        // the router config is shared, a simplified route must not affect the next request
+        assertEquals(2, routePoints(true));
+        assertEquals(5, routePoints(null));
+        assertEquals(2, routePoints(true));
+    }
+}
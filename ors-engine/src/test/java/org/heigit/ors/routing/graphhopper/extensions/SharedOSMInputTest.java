@@ -0,0 +1,94 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import com.graphhopper.reader.ReaderElement;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMInput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedOSMInputTest {
+    private static final String OSM = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <osm version="0.6">
+              <node id="1" lat="49.41" lon="8.68"/>
+              <node id="2" lat="49.42" lon="8.69"><tag k="barrier" v="gate"/></node>
+              <way id="10"><nd ref="1"/><nd ref="2"/><tag k="highway" v="residential"/></way>
+              <relation id="20"><member type="way" ref="10" role=""/><tag k="type" v="route"/></relation>
+            </osm>
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private File createFile() throws Exception {
+        Path file = tempDir.resolve("test.osm");
+        Files.writeString(file, OSM);
+        return file.toFile();
+    }
+
+    private static List<ReaderElement> readAll(OSMInput input) throws Exception {
+        List<ReaderElement> elements = new ArrayList<>();
+        try (input) {
+            ReaderElement element;
+            while ((element = input.getNext()) != null) {
+                elements.add(element);
+                element.setTag("modified", true);
+            }
+        }
+        return elements;
+    }
+
+    @Test
+    void testReadersShareOnePass() throws Exception {
+        File file = createFile();
+        SharedOSMInput sharedInput = new SharedOSMInput(file, 2, 10000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<ReaderElement>> first = executor.submit(() -> readAll(sharedInput.open(file)));
+            Future<List<ReaderElement>> second = executor.submit(() -> readAll(sharedInput.open(file)));
+            List<ReaderElement> firstElements = first.get();
+            List<ReaderElement> secondElements = second.get();
+
+            assertEquals(4, firstElements.size());
+            assertEquals(firstElements.size(), secondElements.size());
+            for (int i = 0; i < firstElements.size(); i++) {
+                assertNotSame(firstElements.get(i), secondElements.get(i));
+                assertEquals(firstElements.get(i).getId(), secondElements.get(i).getId());
+            }
+            ReaderWay way = (ReaderWay) secondElements.get(2);
+            assertEquals(2, way.getNodes().size());
+            assertEquals("residential", way.getTag("highway"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLateReaderGetsNextPass() throws Exception {
+        File file = createFile();
+        SharedOSMInput sharedInput = new SharedOSMInput(file, 2, 0);
+        assertEquals(4, readAll(sharedInput.open(file)).size());
+        assertEquals(4, readAll(sharedInput.open(file)).size());
+    }
+
+    @Test
+    void testClosedReaderDoesNotBlockOthers() throws Exception {
+        File file = createFile();
+        SharedOSMInput sharedInput = new SharedOSMInput(file, 2, 10000);
+        OSMInput closed = sharedInput.open(file);
+        OSMInput open = sharedInput.open(file);
+        closed.close();
+        assertEquals(4, readAll(open).size());
+    }
+}
@@ -26,6 +26,7 @@ import com.graphhopper.util.GHUtility;
 import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopperStorage;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreLMConfig;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreLandmarkStorage;
+import org.heigit.ors.routing.graphhopper.extensions.core.CoreNodeIndex;
 import org.heigit.ors.routing.graphhopper.extensions.core.CoreTestEdgeFilter;
 import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCore;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.LMEdgeFilterSequence;
@@ -33,12 +34,13 @@ import org.heigit.ors.util.DebugUtility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.HashMap;
 
-import static org.heigit.ors.routing.graphhopper.extensions.core.CoreLMPreparationHandler.createCoreNodeIdMap;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Andrzej Oles, Hendrik Leuschner
@@ -134,10 +136,8 @@ class CoreLandmarkStorageTest {
     }
 
     private CoreLandmarkStorage createLandmarks(LMEdgeFilterSequence lmEdgeFilter) {
-        HashMap<Integer, Integer> coreNodeIdMap = createCoreNodeIdMap(routingCHGraph);
         CoreLMConfig coreLMConfig = new CoreLMConfig(encoder.toString(), weighting).setEdgeFilter(lmEdgeFilter);
         CoreLandmarkStorage storage = new CoreLandmarkStorage(dir, graph, routingCHGraph, coreLMConfig, 2);
-        storage.setCoreNodeIdMap(coreNodeIdMap);
         storage.setMinimumNodes(2);
         storage.createLandmarks();
         return storage;
@@ -201,4 +201,64 @@ class CoreLandmarkStorageTest {
         assertEquals("[3, 8]", Arrays.toString(storage.getLandmarks(1)));
         assertEquals("[7, 4]", Arrays.toString(storage.getLandmarks(2)));
     }
+
+    @Test
+    void testCoreNodeIndex() {
+        CoreTestEdgeFilter restrictedEdges = new CoreTestEdgeFilter();
+        restrictedEdges.add(2);
+        restrictedEdges.add(7);
+
+        createMediumGraph();
+        contractGraph(restrictedEdges);
+
+        CoreNodeIndex index = new CoreNodeIndex(new RAMDirectory(), "core_node_index").build(routingCHGraph);
+
+        int expectedIndex = 0;
+        for (int node = 0; node < graph.getNodes(); node++) {
+            boolean isCoreNode = routingCHGraph.getLevel(node) >= graph.getNodes();
+            assertEquals(isCoreNode, index.isCoreNode(node));
+            if (isCoreNode)
+                assertEquals(expectedIndex++, index.getIndex(node));
+        }
+        assertTrue(expectedIndex > 0);
+        assertEquals(expectedIndex, index.getCoreNodes());
+    }
+
+    @Test
+    void testLoadReadOnlyGraphWithoutCoreNodeIndex(@TempDir Path tempDir) {
+        CoreTestEdgeFilter restrictedEdges = new CoreTestEdgeFilter();
+        restrictedEdges.add(2);
+        restrictedEdges.add(7);
+
+        createMediumGraph();
+        contractGraph(restrictedEdges);
+
+        CoreLMConfig coreLMConfig = new CoreLMConfig(encoder.toString(), weighting).setEdgeFilter(new LMEdgeFilterSequence());
+        Directory writableDir = new GHDirectory(tempDir.toString(), DAType.MMAP);
+        CoreLandmarkStorage built = new CoreLandmarkStorage(writableDir, graph, routingCHGraph, coreLMConfig, 2);
+        built.setMinimumNodes(2);
+        built.createLandmarks();
+        built.flush();
+        int[] expectedIndices = new int[graph.getNodes()];
+        for (int node = 0; node < graph.getNodes(); node++)
+            expectedIndices[node] = routingCHGraph.getLevel(node) >= graph.getNodes() ? built.getIndex(node) : -1;
+        String expectedLandmarks = Arrays.toString(built.getLandmarks(1));
+        writableDir.close();
+
+        // graphs prepared before the core node index was persisted have no index file
+        File[] indexFiles = tempDir.toFile().listFiles((file, name) -> name.startsWith("landmarks_core_ids_"));
+        assertEquals(1, indexFiles.length);
+        assertTrue(indexFiles[0].delete());
+
+        Directory readOnlyDir = new GHDirectory(tempDir.toString(), DAType.MMAP_RO);
+        CoreLandmarkStorage loaded = new CoreLandmarkStorage(readOnlyDir, graph, routingCHGraph, coreLMConfig, 2);
+        assertTrue(loaded.loadExisting());
+        assertEquals(expectedLandmarks, Arrays.toString(loaded.getLandmarks(1)));
+        for (int node = 0; node < graph.getNodes(); node++) {
+            if (expectedIndices[node] >= 0)
+                assertEquals(expectedIndices[node], loaded.getIndex(node));
+        }
+        assertFalse(indexFiles[0].exists());
+        readOnlyDir.close();
+    }
 }
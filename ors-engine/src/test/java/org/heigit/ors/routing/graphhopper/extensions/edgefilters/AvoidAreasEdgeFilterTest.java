@@ -45,4 +45,30 @@ class AvoidAreasEdgeFilterTest {
         assertFalse(filter.accept(iter1));
         assertTrue(filter.accept(iter2));
     }
+
+    @Test
+    void TestAvoidSeveralPolygons() {
+        _graphStorage.getNodeAccess().setNode(0, 0, 0);
+        _graphStorage.getNodeAccess().setNode(1, 1, 1);
+        _graphStorage.getNodeAccess().setNode(2, 10, 10);
+        _graphStorage.getNodeAccess().setNode(3, 10, 20);
+        EdgeIteratorState inside = _graphStorage.edge(0, 1).setDistance(100);
+        EdgeIteratorState touching = _graphStorage.edge(2, 3).setDistance(100);
+
+        GeometryFactory gf = new GeometryFactory();
+        Polygon containing = gf.createPolygon(new Coordinate[]{new Coordinate(-1, -1),
+                new Coordinate(2, -1),
+                new Coordinate(2, 2),
+                new Coordinate(-1, 2),
+                new Coordinate(-1, -1)});
+        Polygon touched = gf.createPolygon(new Coordinate[]{new Coordinate(15, 10),
+                new Coordinate(16, 12),
+                new Coordinate(14, 12),
+                new Coordinate(15, 10)});
+
+        AvoidAreasEdgeFilter filter = new AvoidAreasEdgeFilter(new Polygon[]{touched, containing});
+        assertFalse(filter.accept(inside));
+        assertFalse(filter.accept(inside));
+        assertTrue(filter.accept(touching));
+    }
 }
@@ -0,0 +1,67 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import org.heigit.ors.routing.graphhopper.extensions.reader.traffic.TrafficEnums;
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrafficGraphStorageTest {
+
+    private final TrafficGraphStorage _storage;
+
+    public TrafficGraphStorageTest() {
+        _storage = new TrafficGraphStorage();
+        _storage.init();
+        _storage.create(1);
+    }
+
+    @Test
+    void TestTimeSlotMatchesCalendar() {
+        long time = 1_600_000_000_000L;
+        for (int i = 0; i < 2000; i++) {
+            time += 7 * 60 * 1000 + 13;
+            for (int offset = 0; offset <= 2; offset++) {
+                Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT+" + offset));
+                calendar.setTimeInMillis(time);
+                int expected = (calendar.get(Calendar.DAY_OF_WEEK) - 1) * 96
+                        + calendar.get(Calendar.HOUR_OF_DAY) * 4
+                        + calendar.get(Calendar.MINUTE) / 15;
+                assertEquals(expected, TrafficGraphStorage.getTimeSlot(time, offset));
+            }
+        }
+    }
+
+    @Test
+    void TestSpeedValueByTimeSlot() {
+        short[] pattern = new short[96];
+        for (int i = 0; i < pattern.length; i++)
+            pattern[i] = (short) (i + 10);
+        _storage.setTrafficPatterns(1, pattern);
+        int edgeKey = 6; // forward state of edge 3
+        _storage.setEdgeIdTrafficPatternLookup(edgeKey, 1, TrafficEnums.WeekDay.TUESDAY, 1);
+
+        // Tuesday 2020-09-15 08:20 UTC
+        long time = 1_600_158_000_000L;
+        assertEquals(2 * 96 + 33, TrafficGraphStorage.getTimeSlot(time, 0));
+        assertEquals(43, _storage.getSpeedValue(edgeKey, time, 0));
+        assertEquals(47, _storage.getSpeedValue(edgeKey, time, 1));
+        assertEquals(-1, _storage.getSpeedValue(edgeKey, time + 24 * 3600 * 1000L, 0));
+        assertEquals(-1, _storage.getSpeedValue(edgeKey + 1, time, 0));
+    }
+}
@@ -0,0 +1,94 @@
+package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
+
+import com.graphhopper.util.DistanceCalcEarth;
+import org.heigit.ors.mapmatching.RouteSegmentInfo;
+import org.heigit.ors.routing.graphhopper.extensions.reader.traffic.TrafficEnums;
+import org.heigit.ors.routing.graphhopper.extensions.reader.traffic.TrafficLink;
+import org.heigit.ors.routing.graphhopper.extensions.storages.TrafficGraphStorage;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HereTrafficGraphStorageBuilderTest {
+    private static final int LINK_COUNT = 50;
+    private static final int EDGE_KEYS = 14;
+
+    private static List<TrafficLink> createLinks() throws Exception {
+        GeometryFactory factory = new GeometryFactory();
+        DistanceCalcEarth distanceCalc = new DistanceCalcEarth();
+        List<TrafficLink> links = new ArrayList<>();
+        for (int i = 1; i <= LINK_COUNT; i++) {
+            Coordinate[] coordinates = {new Coordinate(8.68, 49.41 + i * 0.001), new Coordinate(8.69, 49.41 + i * 0.001)};
+            links.add(new TrafficLink(i, factory.createLineString(coordinates), Collections.emptyList(), distanceCalc));
+        }
+        return links;
+    }
+
+    /**
+     * Matches the links with the given number of threads. Several links are written to the same edges with the same
+     * priority, so that the stored pattern is the one of the last link applied.
+     */
+    private static TrafficGraphStorage matchLinks(List<TrafficLink> links, int threads, AtomicInteger matchers) throws Exception {
+        TrafficGraphStorage storage = new TrafficGraphStorage();
+        storage.init();
+        storage.create(1);
+        Thread callingThread = Thread.currentThread();
+        ConcurrentHashMap<Thread, Boolean> matcherThreads = new ConcurrentHashMap<>();
+        int matchedLinks = HereTrafficGraphStorageBuilder.matchLinks(links, threads, 3, () -> {
+            matchers.incrementAndGet();
+            assertNull(matcherThreads.put(Thread.currentThread(), true), "a thread created a second matcher");
+            Thread matcherThread = Thread.currentThread();
+            Function<List<TrafficLink>, HereTrafficGraphStorageBuilder.LinkMatch[]> matcher = task -> {
+                assertSame(matcherThread, Thread.currentThread(), "a matcher was shared between threads");
+                // let later tasks finish before earlier ones
+                try {
+                    Thread.sleep(LINK_COUNT - task.get(0).getLinkId() / 2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                HereTrafficGraphStorageBuilder.LinkMatch[] matches = new HereTrafficGraphStorageBuilder.LinkMatch[task.size()];
+                for (int i = 0; i < matches.length; i++)
+                    matches[i] = new HereTrafficGraphStorageBuilder.LinkMatch(task.get(i), new RouteSegmentInfo[]{}, new RouteSegmentInfo[]{});
+                return matches;
+            };
+            return matcher;
+        }, matches -> {
+            assertSame(callingThread, Thread.currentThread());
+            for (HereTrafficGraphStorageBuilder.LinkMatch match : matches) {
+                int linkId = match.link.getLinkId();
+                storage.setEdgeIdTrafficPatternLookup(linkId % EDGE_KEYS, linkId, TrafficEnums.WeekDay.MONDAY, 100);
+                storage.setEdgeIdTrafficPatternLookup(linkId % 5, linkId, TrafficEnums.WeekDay.TUESDAY, 100 + linkId % 3);
+            }
+            return matches.length;
+        }, steps -> {
+        });
+        assertEquals(LINK_COUNT, matchedLinks);
+        return storage;
+    }
+
+    @Test
+    void testParallelMatchingStoresSameResults() throws Exception {
+        List<TrafficLink> links = createLinks();
+        AtomicInteger sequentialMatchers = new AtomicInteger();
+        AtomicInteger parallelMatchers = new AtomicInteger();
+        TrafficGraphStorage sequential = matchLinks(links, 1, sequentialMatchers);
+        TrafficGraphStorage parallel = matchLinks(links, 4, parallelMatchers);
+
+        assertEquals(1, sequentialMatchers.get());
+        assertTrue(parallelMatchers.get() > 1);
+        assertEquals(LINK_COUNT, sequential.getEdgeIdTrafficPatternLookup(LINK_COUNT % EDGE_KEYS, TrafficEnums.WeekDay.MONDAY));
+        for (int edgeKey = 0; edgeKey < EDGE_KEYS; edgeKey++) {
+            for (TrafficEnums.WeekDay weekDay : TrafficEnums.WeekDay.values())
+                assertEquals(sequential.getEdgeIdTrafficPatternLookup(edgeKey, weekDay), parallel.getEdgeIdTrafficPatternLookup(edgeKey, weekDay));
+        }
+    }
+}
@@ -379,4 +379,28 @@ public class ToyGraphCreationUtil {
         );
         return g;
     }
+
+    public static GraphHopperStorage createOneWayGraph(EncodingManager encodingManager) {
+        return createOneWayGraph(createGHStorage(encodingManager), encodingManager);
+    }
+
+    public static GraphHopperStorage createOneWayGraph(GraphHopperStorage g, EncodingManager encodingManager) {
+        // 0---->1---->2
+        // ^ \   |     |
+        // |  \  |     v
+        // 3<----4<----5
+        // 0-4 and 1-4 are two-way, 1-4 is slower from 4 to 1
+        FlagEncoder carEncoder = encodingManager.getEncoder("car");
+        GHUtility.setSpeed(60, 0, carEncoder,
+                g.edge(0, 1).setDistance(1), //0
+                g.edge(1, 2).setDistance(1), //1
+                g.edge(2, 5).setDistance(1), //2
+                g.edge(5, 4).setDistance(1), //3
+                g.edge(4, 3).setDistance(1), //4
+                g.edge(3, 0).setDistance(1) //5
+        );
+        GHUtility.setSpeed(60, 60, carEncoder, g.edge(0, 4).setDistance(3)); //6
+        GHUtility.setSpeed(60, 20, carEncoder, g.edge(1, 4).setDistance(2)); //7
+        return g;
+    }
 }
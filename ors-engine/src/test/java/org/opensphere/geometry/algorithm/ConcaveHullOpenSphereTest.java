@@ -0,0 +1,55 @@
+package org.opensphere.geometry.algorithm;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcaveHullOpenSphereTest {
+    private final GeometryFactory gf = new GeometryFactory();
+
+    @Test
+    void testHullFollowsNotch() {
+        // a 10x10 grid of points with the upper half of the middle columns missing
+        List<Coordinate> points = new ArrayList<>();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                if (x < 3 || x > 6 || y < 5)
+                    points.add(new Coordinate(x, y));
+            }
+        }
+        Coordinate[] coordinates = points.toArray(new Coordinate[0]);
+
+        Geometry hull = new ConcaveHullOpenSphere(coordinates, 1.5, gf).getConcaveHull();
+        assertInstanceOf(Polygon.class, hull);
+        assertTrue(hull.isValid());
+        assertFalse(hull.contains(gf.createPoint(new Coordinate(4.5, 8))));
+        for (Coordinate c : coordinates)
+            assertTrue(hull.covers(gf.createPoint(c)));
+
+        Geometry convexHull = new ConcaveHullOpenSphere(coordinates, 100, gf).getConcaveHull();
+        assertTrue(convexHull.equalsTopo(gf.createMultiPointFromCoords(coordinates).convexHull()));
+    }
+
+    @Test
+    void testSameHullForPointCollection() {
+        Coordinate[] coordinates = {new Coordinate(0, 0), new Coordinate(4, 0), new Coordinate(4, 4), new Coordinate(2, 1), new Coordinate(0, 4)};
+        Geometry[] geometries = new Geometry[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++)
+            geometries[i] = gf.createPoint(coordinates[i]);
+
+        Geometry fromCoordinates = new ConcaveHullOpenSphere(coordinates, 3, gf).getConcaveHull();
+        Geometry fromPoints = new ConcaveHullOpenSphere(new GeometryCollection(geometries, gf), 3, false).getConcaveHull();
+        assertTrue(fromCoordinates.equalsExact(fromPoints));
+    }
+
+    @Test
+    void testFewPoints() {
+        assertInstanceOf(Point.class, new ConcaveHullOpenSphere(new Coordinate[]{new Coordinate(1, 1)}, 1, gf).getConcaveHull());
+        assertInstanceOf(LineString.class, new ConcaveHullOpenSphere(new Coordinate[]{new Coordinate(1, 1), new Coordinate(2, 2)}, 1, gf).getConcaveHull());
+        assertTrue(new ConcaveHullOpenSphere(new Coordinate[0], 1, gf).getConcaveHull().isEmpty());
+    }
+}